@@ -26,8 +26,10 @@ CREATE TABLE STUDENTS (
     registration_date DATE,
     dob DATE,
     phone VARCHAR2(20),
-    cgpa NUMBER(3,2),
-    probation_count NUMBER DEFAULT 0
+    cgpa NUMBER(4,2),
+    probation_count NUMBER DEFAULT 0,
+    grade_points NUMBER DEFAULT 0,
+    graded_credits NUMBER DEFAULT 0
 );
 
 CREATE TABLE COURSES (
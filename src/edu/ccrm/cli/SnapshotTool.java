@@ -0,0 +1,60 @@
+package edu.ccrm.cli;
+
+import edu.ccrm.io.DatabaseInitializer;
+import edu.ccrm.io.DatabaseManager;
+import edu.ccrm.io.SnapshotService;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.InstructorService;
+import edu.ccrm.service.StudentService;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Command-line entry point for binary snapshots, for a nightly job (cron, Task Scheduler) and for seeding
+ * test environments without starting the GUI.
+ *   SnapshotTool export [file]   writes a snapshot, by default a timestamped file in the backup directory
+ *   SnapshotTool restore file    replaces the core tables with the snapshot
+ */
+public class SnapshotTool {
+    public static void main(String[] args) {
+        if (args.length == 0 || (args[0].equals("restore") && args.length < 2)
+                || !(args[0].equals("export") || args[0].equals("restore"))) {
+            System.err.println("Usage: SnapshotTool export [file] | restore <file>");
+            System.exit(2);
+        }
+
+        InstructorService instructorService = new InstructorService();
+        SnapshotService snapshotService = new SnapshotService(new StudentService(), instructorService,
+                new CourseService(instructorService));
+        int status = 0;
+        try {
+            DatabaseInitializer.initialize();
+            if (args[0].equals("export")) {
+                Path file;
+                if (args.length > 1) {
+                    file = Paths.get(args[1]);
+                    print("Exported", snapshotService.exportSnapshot(file));
+                } else {
+                    file = snapshotService.exportSnapshot();
+                }
+                System.out.println("Snapshot written to " + file);
+            } else {
+                Path file = Paths.get(args[1]);
+                print("Restored", snapshotService.restoreSnapshot(file));
+                System.out.println("Database restored from " + file);
+            }
+        } catch (Exception e) {
+            System.err.println("Snapshot " + args[0] + " failed: " + e.getMessage());
+            status = 1;
+        } finally {
+            DatabaseManager.shutdown();
+        }
+        System.exit(status);
+    }
+
+    private static void print(String verb, Map<String, Integer> rowCounts) {
+        rowCounts.forEach((table, rows) -> System.out.println(verb + " " + rows + " rows of " + table));
+    }
+}
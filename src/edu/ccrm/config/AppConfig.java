@@ -1,5 +1,6 @@
 package edu.ccrm.config;
 
+import java.time.Duration;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -7,10 +8,24 @@ public class AppConfig {
     private static AppConfig instance;
     private final Path dataDirectory;
     private final Path backupDirectory;
+    private final int backupCompressionLevel;
+    private final int backupThreads;
+    private final Duration backupInterval;
+    private final int backupKeepHourly;
+    private final int backupKeepDaily;
+    private final int backupKeepWeekly;
+    private final int workerThreads;
 
     private AppConfig() {
         this.dataDirectory = Paths.get("app-data");
         this.backupDirectory = Paths.get("backups");
+        this.backupCompressionLevel = Integer.getInteger("ccrm.backup.level", 6);
+        this.backupThreads = Integer.getInteger("ccrm.backup.threads", Runtime.getRuntime().availableProcessors());
+        this.backupInterval = Duration.ofMinutes(Long.getLong("ccrm.backup.interval.minutes", 0));
+        this.backupKeepHourly = Integer.getInteger("ccrm.backup.keep.hourly", 24);
+        this.backupKeepDaily = Integer.getInteger("ccrm.backup.keep.daily", 7);
+        this.backupKeepWeekly = Integer.getInteger("ccrm.backup.keep.weekly", 4);
+        this.workerThreads = Integer.getInteger("ccrm.worker.threads", 4);
     }
 
     public static synchronized AppConfig getInstance() {
@@ -28,6 +43,56 @@ public class AppConfig {
         return backupDirectory;
     }
 
+    /**
+     * @return The deflate level for zip backups, 0-9; set with -Dccrm.backup.level.
+     */
+    public int getBackupCompressionLevel() {
+        return backupCompressionLevel;
+    }
+
+    /**
+     * @return The number of threads compressing zip backups; set with -Dccrm.backup.threads.
+     */
+    public int getBackupThreads() {
+        return backupThreads;
+    }
+
+    /**
+     * @return Time between scheduled database backups; set with -Dccrm.backup.interval.minutes. Zero, the
+     * default, disables scheduled backups and retention.
+     */
+    public Duration getBackupInterval() {
+        return backupInterval;
+    }
+
+    /**
+     * @return Hourly backups to retain; set with -Dccrm.backup.keep.hourly.
+     */
+    public int getBackupKeepHourly() {
+        return backupKeepHourly;
+    }
+
+    /**
+     * @return Daily backups to retain; set with -Dccrm.backup.keep.daily.
+     */
+    public int getBackupKeepDaily() {
+        return backupKeepDaily;
+    }
+
+    /**
+     * @return Weekly backups to retain; set with -Dccrm.backup.keep.weekly.
+     */
+    public int getBackupKeepWeekly() {
+        return backupKeepWeekly;
+    }
+
+    /**
+     * @return The number of threads running background work for the GUI; set with -Dccrm.worker.threads.
+     */
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
     public Path getStudentsFilePath() {
         return dataDirectory.resolve("students.csv");
     }
@@ -0,0 +1,156 @@
+package edu.ccrm.gui;
+
+import edu.ccrm.util.TaskScheduler;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * The rows behind a searchable table. Each row's search key (its searchable fields, lower-cased, one per
+ * line) is built once when the rows are set, so a keystroke only runs contains() over ready strings.
+ * When the query only grew, the search runs over the previous matches instead of every row. Searches
+ * over more than BACKGROUND_THRESHOLD rows run on the task scheduler, and a newer search cancels the
+ * older one. Until it finishes the table keeps showing the previous matches.
+ * Must be used from the FX application thread; bind a SortedList over getItems() for column sorting.
+ */
+public class FilteredTableModel<T> {
+
+    static final int BACKGROUND_THRESHOLD = 20_000;
+
+    private final Function<T, String> keyFunction;
+    private final TaskScheduler scheduler;
+    private final String name;
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+    private List<T> rows = new ArrayList<>();
+    private String[] keys = new String[0];
+    // The result of appliedQuery, as indexes into rows
+    private int[] matches = new int[0];
+    private String appliedQuery = "";
+    private String query = "";
+    private int generation;
+
+    /**
+     * @param keyFunction Builds a row's search key, usually with searchKey().
+     * @param name Identifies the model's searches on the scheduler; unique per model.
+     */
+    public FilteredTableModel(Function<T, String> keyFunction, TaskScheduler scheduler, String name) {
+        this.keyFunction = keyFunction;
+        this.scheduler = scheduler;
+        this.name = name;
+    }
+
+    /**
+     * @return The search key for the given fields; null fields are skipped.
+     */
+    public static String searchKey(String... fields) {
+        StringBuilder key = new StringBuilder();
+        for (String field : fields) {
+            if (field != null) {
+                // A newline cannot be typed into the search field, so no match spans two fields
+                key.append(field.toLowerCase(Locale.ROOT)).append('\n');
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return The rows matching the query.
+     */
+    public ObservableList<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Replaces the rows and applies the current query to them.
+     */
+    public void setAll(Collection<? extends T> newRows) {
+        generation++;
+        scheduler.cancel(name);
+        rows = new ArrayList<>(newRows);
+        keys = new String[rows.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyFunction.apply(rows.get(i));
+        }
+        appliedQuery = "";
+        matches = null;
+        String current = query;
+        query = null;
+        setQuery(current);
+    }
+
+    public void setQuery(String text) {
+        String normalized = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals(query)) {
+            return;
+        }
+        query = normalized;
+        int expected = ++generation;
+        // A longer query can only match rows the shorter one matched
+        int[] candidates = normalized.contains(appliedQuery) ? matches : null;
+        if (normalized.isEmpty()) {
+            apply(normalized, null);
+            return;
+        }
+        List<T> currentRows = rows;
+        String[] currentKeys = keys;
+        int candidateCount = candidates != null ? candidates.length : currentKeys.length;
+        if (candidateCount < BACKGROUND_THRESHOLD) {
+            apply(normalized, match(normalized, currentKeys, candidates));
+            return;
+        }
+        scheduler.submit(name, () -> {
+            int[] result = match(normalized, currentKeys, candidates);
+            if (result != null) {
+                Platform.runLater(() -> {
+                    if (expected == generation && currentRows == rows) {
+                        apply(normalized, result);
+                    }
+                });
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @param candidates Indexes to test, or null for every row.
+     * @return The matching indexes, or null if the search was cancelled.
+     */
+    private static int[] match(String query, String[] keys, int[] candidates) {
+        int count = candidates != null ? candidates.length : keys.length;
+        int[] result = new int[count];
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            if ((i & 4095) == 0 && Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            int index = candidates != null ? candidates[i] : i;
+            if (keys[index].contains(query)) {
+                result[found++] = index;
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+
+    // A null result means every row
+    private void apply(String applied, int[] result) {
+        List<T> visible;
+        if (result == null) {
+            visible = rows;
+        } else {
+            visible = new ArrayList<>(result.length);
+            for (int index : result) {
+                visible.add(rows.get(index));
+            }
+        }
+        appliedQuery = applied;
+        matches = result;
+        items.setAll(visible);
+    }
+}
@@ -0,0 +1,217 @@
+package edu.ccrm.gui;
+
+import edu.ccrm.util.TaskScheduler;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A read-only list for a TableView whose rows live in the database. Only the size is known up front; rows
+ * are fetched a page at a time as the view asks for them, so opening a large table costs one count and one
+ * page. A row whose page is still loading reads as null and is filled in by a change event when it arrives.
+ * The page after the one in view is prefetched, and once more than maxPages are held the pages furthest
+ * from the view are dropped; scrolling back simply loads them again.
+ * A page that follows a loaded one is fetched with the source's keyset query from that page's last row;
+ * only a jump (the scrollbar dragged far) or a step backwards falls back to an offset query.
+ * Must be used from the FX application thread. Fetches run on the scheduler under keys derived from the
+ * list's name, so a refresh cancels the one before it and any page loads still running for the old contents.
+ */
+public class LazyPagedList<T> extends ObservableListBase<T> {
+
+    /**
+     * The query behind the list. Called off the FX thread.
+     */
+    public interface PageSource<T> {
+        int count();
+
+        /**
+         * @param last The last row of the previous page, or null for the first page.
+         */
+        List<T> pageAfter(T last, int limit);
+
+        List<T> pageAt(int offset, int limit);
+    }
+
+    private final int pageSize;
+    private final int maxPages;
+    private final TaskScheduler scheduler;
+    private final String name;
+    private final Map<Integer, List<T>> pages = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private PageSource<T> source;
+    private int size;
+    private int generation;
+    private int viewportPage;
+
+    /**
+     * @param name Identifies the list's tasks on the scheduler; unique per list.
+     */
+    public LazyPagedList(PageSource<T> source, int pageSize, int maxPages, TaskScheduler scheduler, String name) {
+        if (pageSize < 1 || maxPages < 2) {
+            throw new IllegalArgumentException("Need a page size of at least 1 and room for at least 2 pages");
+        }
+        this.source = source;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.scheduler = scheduler;
+        this.name = name;
+    }
+
+    /**
+     * Switches to another query (a new filter or order) and reloads from the top.
+     */
+    public void setSource(PageSource<T> source) {
+        this.source = source;
+        refresh();
+    }
+
+    /**
+     * Counts the rows again and reloads the first page. The rows on screen stay until the new ones arrive;
+     * loads still in flight for the old contents are discarded.
+     */
+    public void refresh() {
+        int expected = ++generation;
+        PageSource<T> current = source;
+        for (int page : loading) {
+            scheduler.cancel(pageKey(page));
+        }
+        loading.clear();
+        scheduler.submit(name, () -> {
+            int count;
+            List<T> first;
+            try {
+                count = current.count();
+                first = count > 0 ? current.pageAfter(null, pageSize) : List.of();
+            } catch (RuntimeException e) {
+                System.err.println("Failed to load rows: " + e.getMessage());
+                return null;
+            }
+            Platform.runLater(() -> {
+                if (expected != generation) {
+                    return;
+                }
+                int previousSize = size;
+                pages.clear();
+                size = count;
+                viewportPage = 0;
+                if (!first.isEmpty()) {
+                    pages.put(0, first);
+                }
+                beginChange();
+                if (previousSize > 0) {
+                    nextRemove(0, Collections.nCopies(previousSize, (T) null));
+                }
+                if (size > 0) {
+                    nextAdd(0, size);
+                }
+                endChange();
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The row, or null while its page is loading.
+     */
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        int page = index / pageSize;
+        if (page != viewportPage) {
+            viewportPage = page;
+            evict();
+        }
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            request(page);
+            return null;
+        }
+        request(page + 1);
+        int offset = index % pageSize;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    private void request(int page) {
+        if (page < 0 || (long) page * pageSize >= size || pages.containsKey(page) || !loading.add(page)) {
+            return;
+        }
+        int expected = generation;
+        PageSource<T> current = source;
+        List<T> previous = pages.get(page - 1);
+        T last = previous != null && previous.size() == pageSize ? previous.get(pageSize - 1) : null;
+        scheduler.submit(pageKey(page), () -> {
+            List<T> rows;
+            try {
+                if (page == 0) {
+                    rows = current.pageAfter(null, pageSize);
+                } else if (last != null) {
+                    rows = current.pageAfter(last, pageSize);
+                } else {
+                    rows = current.pageAt(page * pageSize, pageSize);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Failed to load rows: " + e.getMessage());
+                rows = null;
+            }
+            List<T> loaded = rows;
+            Platform.runLater(() -> {
+                if (expected != generation) {
+                    return;
+                }
+                loading.remove(page);
+                if (loaded == null) {
+                    return;
+                }
+                pages.put(page, loaded);
+                evict();
+                int from = page * pageSize;
+                int to = Math.min(size, from + loaded.size());
+                if (from < to) {
+                    // Replacing the placeholders makes the view redraw those rows
+                    beginChange();
+                    for (int i = from; i < to; i++) {
+                        nextSet(i, null);
+                    }
+                    endChange();
+                }
+                if (page == viewportPage) {
+                    request(page + 1);
+                }
+            });
+            return null;
+        });
+    }
+
+    private String pageKey(int page) {
+        return name + "#" + page;
+    }
+
+    // The page in view and its neighbours are never dropped
+    private void evict() {
+        if (pages.size() <= maxPages) {
+            return;
+        }
+        List<Integer> cached = new ArrayList<>(pages.keySet());
+        cached.sort(Comparator.comparingInt((Integer page) -> Math.abs(page - viewportPage)).reversed());
+        for (int page : cached) {
+            if (pages.size() <= maxPages || Math.abs(page - viewportPage) <= 1) {
+                return;
+            }
+            pages.remove(page);
+        }
+    }
+}
@@ -4,10 +4,13 @@ import edu.ccrm.config.AppConfig;
 import edu.ccrm.domain.*;
 import edu.ccrm.exception.*;
 import edu.ccrm.io.BackupService;
+import edu.ccrm.io.BulkLoadService;
 import edu.ccrm.io.DatabaseInitializer;
 import edu.ccrm.io.ImportExportService;
+import edu.ccrm.io.ScheduledBackupManager;
+import edu.ccrm.io.SnapshotService;
+import edu.ccrm.io.csv.CsvReader;
 import edu.ccrm.service.*;
-import edu.ccrm.util.RecursiveUtil;
 import java.time.LocalDate;
 
 import javafx.application.Application;
@@ -24,7 +27,6 @@ import javafx.stage.FileChooser;
 import java.io.File;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
@@ -44,7 +46,15 @@ import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import edu.ccrm.util.SearchIndex;
+import edu.ccrm.util.TaskScheduler;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
 
 public class MainApp extends Application {
 
@@ -53,11 +63,27 @@ public class MainApp extends Application {
     private final CourseService courseService = new CourseService(instructorService);
     private final EnrollmentService enrollmentService = new EnrollmentService(studentService, courseService);
     private final TranscriptService transcriptService = new TranscriptService(studentService, enrollmentService);
+    private final CgpaService cgpaService = new CgpaService();
     private final ProbationService probationService = new ProbationService();
     private final ImportExportService importExportService = new ImportExportService(studentService, instructorService, courseService, enrollmentService, probationService);
+    private final BulkLoadService bulkLoadService = new BulkLoadService(studentService, instructorService, courseService);
     private final BackupService backupService = new BackupService();
+    private final SnapshotService snapshotService = new SnapshotService(studentService, instructorService, courseService);
+    private final ScheduledBackupManager backupManager = new ScheduledBackupManager(backupService);
     private final DatabaseAdminService dbAdminService = new DatabaseAdminService();
     private final AnalyticsService analyticsService = new AnalyticsService();
+    private final DashboardService dashboardService = new DashboardService(studentService);
+    // Autocomplete dictionaries; rebuilt in the background when the enrollments view opens and kept up to
+    // date as students and courses are added. Only replaced and updated on the FX thread.
+    private SearchIndex studentSearchIndex = new SearchIndex();
+    private SearchIndex courseSearchIndex = new SearchIndex();
+    // Entries added while a rebuild runs, which it may have read too early; replayed onto the new indexes
+    private final Map<String, String> pendingStudentEntries = new LinkedHashMap<>();
+    private final Map<String, String> pendingCourseEntries = new LinkedHashMap<>();
+    private int searchIndexGeneration;
+    private boolean searchIndexRebuilding;
+    // Runs all background work; loads for the same view are keyed so a newer one cancels the older
+    private final TaskScheduler taskScheduler = new TaskScheduler("ui-worker", AppConfig.getInstance().getWorkerThreads());
 
     private final TextField probRegsField = new TextField();
     private final TextArea probReasonArea = new TextArea();
@@ -90,6 +116,9 @@ public class MainApp extends Application {
         globalProgressIndicator.setVisible(false);
         globalProgressIndicator.setPrefSize(20, 20);
         globalStatusLabel = new Label("Ready");
+        Tooltip schedulerTooltip = new Tooltip();
+        schedulerTooltip.setOnShowing(e -> schedulerTooltip.setText("Background tasks: " + taskScheduler.getStats()));
+        globalStatusLabel.setTooltip(schedulerTooltip);
 
         dimOverlay = new Region();
         dimOverlay.setStyle("-fx-background-color: rgba(0,0,0,0.6);");
@@ -187,6 +216,7 @@ public class MainApp extends Application {
         runTaskWithProgress("Initializing Database...", () -> {
             DatabaseInitializer.initialize();
         }, () -> {
+            backupManager.start();
             // After init, check if this is a fresh install
             if (DatabaseInitializer.isFirstRun()) {
                 Dialog<java.util.Map<String, Boolean>> sampleDataDialog = new Dialog<>();
@@ -249,6 +279,12 @@ public class MainApp extends Application {
         });
     }
 
+    @Override
+    public void stop() {
+        backupManager.stop();
+        taskScheduler.close();
+    }
+
     private Button createNavButton(String text, String iconCode) {
         FontIcon icon = new FontIcon(iconCode);
         icon.setIconSize(16);
@@ -266,23 +302,7 @@ public class MainApp extends Application {
         Label title = new Label("Dashboard Overview");
         title.setStyle("-fx-font-size: 24px; -fx-font-weight: bold;");
         
-        java.util.List<Student> allStudents = studentService.getAllStudentsSortedById();
-        int active = 0, prob = 0, susp = 0, graduated = 0;
-        for (Student s : allStudents) {
-            if (s.getStatus() == Student.Status.ACTIVE) active++;
-            else if (s.getStatus() == Student.Status.PROBATION) prob++;
-            else if (s.getStatus() == Student.Status.INACTIVE) susp++;
-            else if (s.getStatus() == Student.Status.GRADUATED) graduated++;
-        }
-
         HBox cardsBox = new HBox(20);
-        cardsBox.getChildren().addAll(
-            createMetricCard("Total Students", String.valueOf(allStudents.size()), "fas-users"),
-            createMetricCard("Active Courses", String.valueOf(courseService.getAllCoursesSortedByCode().size()), "fas-book-open"),
-            createMetricCard("Total Faculty", String.valueOf(instructorService.getAllInstructorsSortedById().size()), "fas-chalkboard-teacher"),
-            createMetricCard("On Probation", String.valueOf(prob), "fas-exclamation-triangle"),
-            createMetricCard("Graduated", String.valueOf(graduated), "fas-graduation-cap")
-        );
         
         HBox contentRow = new HBox(25);
         contentRow.setAlignment(Pos.TOP_LEFT);
@@ -297,13 +317,6 @@ public class MainApp extends Application {
         bc.setMinWidth(400);
         HBox.setHgrow(bc, Priority.ALWAYS);
 
-        javafx.scene.chart.XYChart.Series<String,Number> series1 = new javafx.scene.chart.XYChart.Series<>();
-        series1.getData().add(new javafx.scene.chart.XYChart.Data<>("ACTIVE", active));
-        series1.getData().add(new javafx.scene.chart.XYChart.Data<>("PROBATION", prob));
-        series1.getData().add(new javafx.scene.chart.XYChart.Data<>("INACTIVE", susp));
-        series1.getData().add(new javafx.scene.chart.XYChart.Data<>("GRADUATED", graduated));
-        bc.getData().add(series1);
-
         // Toppers list (taking right half)
         VBox toppersCard = new VBox(15);
         toppersCard.setPadding(new Insets(20));
@@ -325,48 +338,82 @@ public class MainApp extends Application {
         scrollPane.setHbarPolicy(javafx.scene.control.ScrollPane.ScrollBarPolicy.NEVER);
         VBox.setVgrow(scrollPane, Priority.ALWAYS);
 
-        java.util.List<Student> toppers = allStudents.stream()
-                .filter(s -> s.getStatus() == Student.Status.ACTIVE)
-                .filter(s -> s.getCgpa() != null && s.getCgpa() > 0.0)
-                .sorted((s1, s2) -> Double.compare(s2.getCgpa(), s1.getCgpa()))
-                .limit(15)
-                .collect(Collectors.toList());
+        // Drawn from the last summary straight away, then again once a fresh one has been queried
+        Consumer<DashboardService.DashboardSummary> render = summary -> {
+            String pending = summary == null ? "..." : null;
+            cardsBox.getChildren().setAll(
+                createMetricCard("Total Students", pending != null ? pending : String.valueOf(summary.getStudentCount()), "fas-users"),
+                createMetricCard("Active Courses", pending != null ? pending : String.valueOf(summary.getCourseCount()), "fas-book-open"),
+                createMetricCard("Total Faculty", pending != null ? pending : String.valueOf(summary.getInstructorCount()), "fas-chalkboard-teacher"),
+                createMetricCard("On Probation", pending != null ? pending : String.valueOf(summary.getStatusCount(Student.Status.PROBATION)), "fas-exclamation-triangle"),
+                createMetricCard("Graduated", pending != null ? pending : String.valueOf(summary.getStatusCount(Student.Status.GRADUATED)), "fas-graduation-cap")
+            );
 
-        if (toppers.isEmpty()) {
-            Label placeholder = new Label("No CGPA data computed yet.\nClick 'Calculate CGPAs' below to process records.");
-            placeholder.setStyle("-fx-text-fill: -color-fg-muted; -fx-alignment: center; -fx-text-alignment: center; -fx-font-style: italic;");
-            placeholder.setPadding(new Insets(30, 0, 30, 0));
-            placeholder.setMaxWidth(Double.MAX_VALUE);
-            toppersListContainer.getChildren().add(placeholder);
-        } else {
-            int rank = 1;
-            for (Student s : toppers) {
-                HBox row = new HBox(15);
-                row.setPadding(new Insets(8, 12, 8, 12));
-                row.setAlignment(Pos.CENTER_LEFT);
-                row.setStyle("-fx-background-color: -color-bg-subtle; -fx-background-radius: 6px; -fx-border-color: -color-border-muted; -fx-border-width: 1px;");
+            bc.getData().clear();
+            toppersListContainer.getChildren().clear();
+            if (summary == null) {
+                Label loading = new Label("Loading...");
+                loading.setStyle("-fx-text-fill: -color-fg-muted; -fx-font-style: italic;");
+                loading.setPadding(new Insets(30, 0, 30, 0));
+                toppersListContainer.getChildren().add(loading);
+                return;
+            }
+
+            javafx.scene.chart.XYChart.Series<String,Number> series1 = new javafx.scene.chart.XYChart.Series<>();
+            series1.getData().add(new javafx.scene.chart.XYChart.Data<>("ACTIVE", summary.getStatusCount(Student.Status.ACTIVE)));
+            series1.getData().add(new javafx.scene.chart.XYChart.Data<>("PROBATION", summary.getStatusCount(Student.Status.PROBATION)));
+            series1.getData().add(new javafx.scene.chart.XYChart.Data<>("INACTIVE", summary.getStatusCount(Student.Status.INACTIVE)));
+            series1.getData().add(new javafx.scene.chart.XYChart.Data<>("GRADUATED", summary.getStatusCount(Student.Status.GRADUATED)));
+            bc.getData().add(series1);
+
+            java.util.List<Student> toppers = summary.getToppers();
+            if (toppers.isEmpty()) {
+                Label placeholder = new Label("No CGPA data computed yet.\nClick 'Calculate CGPAs' below to process records.");
+                placeholder.setStyle("-fx-text-fill: -color-fg-muted; -fx-alignment: center; -fx-text-alignment: center; -fx-font-style: italic;");
+                placeholder.setPadding(new Insets(30, 0, 30, 0));
+                placeholder.setMaxWidth(Double.MAX_VALUE);
+                toppersListContainer.getChildren().add(placeholder);
+            } else {
+                int rank = 1;
+                for (Student s : toppers) {
+                    HBox row = new HBox(15);
+                    row.setPadding(new Insets(8, 12, 8, 12));
+                    row.setAlignment(Pos.CENTER_LEFT);
+                    row.setStyle("-fx-background-color: -color-bg-subtle; -fx-background-radius: 6px; -fx-border-color: -color-border-muted; -fx-border-width: 1px;");
                 
-                Label rankLbl = new Label("#" + rank);
-                rankLbl.setStyle("-fx-font-weight: bold; -fx-text-fill: -color-warning-fg; -fx-font-size: 14px;");
+                    Label rankLbl = new Label("#" + rank);
+                    rankLbl.setStyle("-fx-font-weight: bold; -fx-text-fill: -color-warning-fg; -fx-font-size: 14px;");
                 
-                VBox nameBox = new VBox(2);
-                Label nameLbl = new Label(s.getFullName().toString());
-                nameLbl.setStyle("-fx-font-weight: bold; -fx-font-size: 13px;");
-                Label regLbl = new Label(s.getRegNo() + " | " + s.getStatus());
-                regLbl.setStyle("-fx-text-fill: -color-fg-muted; -fx-font-size: 11px;");
-                nameBox.getChildren().addAll(nameLbl, regLbl);
+                    VBox nameBox = new VBox(2);
+                    Label nameLbl = new Label(s.getFullName().toString());
+                    nameLbl.setStyle("-fx-font-weight: bold; -fx-font-size: 13px;");
+                    Label regLbl = new Label(s.getRegNo() + " | " + s.getStatus());
+                    regLbl.setStyle("-fx-text-fill: -color-fg-muted; -fx-font-size: 11px;");
+                    nameBox.getChildren().addAll(nameLbl, regLbl);
                 
-                Region spacer = new Region();
-                HBox.setHgrow(spacer, Priority.ALWAYS);
+                    Region spacer = new Region();
+                    HBox.setHgrow(spacer, Priority.ALWAYS);
                 
-                Label gpaLbl = new Label(String.format("%.2f", s.getCgpa()));
-                gpaLbl.setStyle("-fx-font-size: 15px; -fx-font-weight: bold; -fx-text-fill: -color-success-fg;");
+                    Label gpaLbl = new Label(String.format("%.2f", s.getCgpa()));
+                    gpaLbl.setStyle("-fx-font-size: 15px; -fx-font-weight: bold; -fx-text-fill: -color-success-fg;");
                 
-                row.getChildren().addAll(rankLbl, nameBox, spacer, gpaLbl);
-                toppersListContainer.getChildren().add(row);
-                rank++;
+                    row.getChildren().addAll(rankLbl, nameBox, spacer, gpaLbl);
+                    toppersListContainer.getChildren().add(row);
+                    rank++;
+                }
             }
-        }
+        };
+        render.accept(dashboardService.getCachedSummary());
+        taskScheduler.submit("dashboard", () -> {
+            try {
+                DashboardService.DashboardSummary summary = dashboardService.refreshSummary(15);
+                Platform.runLater(() -> render.accept(summary));
+                return summary;
+            } catch (java.sql.SQLException ex) {
+                System.err.println("Failed to refresh the dashboard: " + ex.getMessage());
+                return null;
+            }
+        });
 
         Button btnCalc = new Button("Calculate & Save CGPAs", new FontIcon("fas-calculator"));
         btnCalc.setStyle("-fx-background-color: -color-accent-emphasis; -fx-text-fill: -color-fg-emphasis; -fx-font-weight: bold;");
@@ -376,18 +423,11 @@ public class MainApp extends Application {
             Task<Void> calcTask = new Task<>() {
                 @Override
                 protected Void call() throws Exception {
-                    java.util.List<Student> students = studentService.getAllStudentsSortedById();
-                    int total = students.size();
-                    for (int i = 0; i < total; i++) {
-                        Student s = students.get(i);
-                        updateMessage("Processing student " + s.getFullName() + " (" + (i + 1) + "/" + total + ")...");
-                        updateProgress(i + 1, total);
-                        
-                        java.util.List<edu.ccrm.domain.Enrollment> enrollments = enrollmentService.getEnrollmentsForStudent(s.getRegNo());
-                        double cgpa = transcriptService.calculateCGPA(enrollments);
-                        
-                        studentService.updateStudentCgpa(s.getRegNo(), cgpa);
-                    }
+                    updateMessage("Aggregating grade points...");
+                    cgpaService.recomputeAll((processed, total) -> {
+                        updateMessage("Saving CGPAs (" + processed + "/" + total + ")...");
+                        updateProgress(processed, total);
+                    });
                     return null;
                 }
             };
@@ -430,6 +470,21 @@ public class MainApp extends Application {
     }
 
     private void runTaskWithProgress(String message, TaskAction action, Runnable onSuccess) {
+        loadWithProgress(null, message, () -> {
+            action.execute();
+            return null;
+        }, result -> {
+            if (onSuccess != null) {
+                onSuccess.run();
+            }
+        });
+    }
+
+    /**
+     * Runs a load in the background and hands its result to onSuccess on the FX thread. A load started
+     * under the same key cancels this one, whose result is then never applied.
+     */
+    private <T> void loadWithProgress(String key, String message, Callable<T> load, Consumer<T> onSuccess) {
         globalProgressIndicator.setVisible(true);
         globalStatusLabel.setText(message);
         dimOverlay.setVisible(true);
@@ -440,11 +495,10 @@ public class MainApp extends Application {
         progressTextLabel.textProperty().unbind();
         progressTextLabel.setText(message);
 
-        Task<Void> task = new Task<>() {
+        Task<T> task = new Task<>() {
             @Override
-            protected Void call() throws Exception {
-                action.execute();
-                return null;
+            protected T call() throws Exception {
+                return load.call();
             }
         };
 
@@ -453,9 +507,7 @@ public class MainApp extends Application {
             dimOverlay.setVisible(false);
             progressBox.setVisible(false);
             globalStatusLabel.setText("Ready");
-            if (onSuccess != null) {
-                onSuccess.run();
-            }
+            onSuccess.accept(task.getValue());
         });
 
         task.setOnFailed(e -> {
@@ -467,22 +519,18 @@ public class MainApp extends Application {
             showAlert(Alert.AlertType.ERROR, "Error: " + (ex != null ? ex.getMessage() : "Unknown error"));
         });
 
-        new Thread(task).start();
+        taskScheduler.schedule(key, task);
     }
     
     private boolean verifyHeader(Path file, String[] requiredFields) {
-        try (java.io.BufferedReader reader = java.nio.file.Files.newBufferedReader(file)) {
-            String headerLine = reader.readLine();
-            if (headerLine == null || headerLine.trim().isEmpty()) {
+        try (CsvReader csv = CsvReader.open(file)) {
+            if (!csv.next()) {
                 return false;
             }
-            String[] headers = headerLine.split(",");
-            if (headers.length > 0 && headers[0].startsWith("\ufeff")) {
-                headers[0] = headers[0].substring(1);
-            }
+            String[] headers = csv.toArray();
             java.util.Set<String> headerSet = new java.util.HashSet<>();
             for (String h : headers) {
-                headerSet.add(h.trim().toLowerCase().replaceAll("\"", ""));
+                headerSet.add(h.toLowerCase());
             }
             for (String req : requiredFields) {
                 if (!headerSet.contains(req.toLowerCase())) {
@@ -500,36 +548,9 @@ public class MainApp extends Application {
     }
 
     private List<String[]> parseCsv(Path path) throws IOException {
-        List<String[]> rows = new ArrayList<>();
-        try (java.io.BufferedReader br = java.nio.file.Files.newBufferedReader(path)) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                List<String> values = new ArrayList<>();
-                boolean inQuotes = false;
-                StringBuilder curVal = new StringBuilder();
-                for (int i = 0; i < line.length(); i++) {
-                    char c = line.charAt(i);
-                    if (c == '\"') {
-                        inQuotes = !inQuotes;
-                    } else if (c == ',' && !inQuotes) {
-                        values.add(curVal.toString().trim());
-                        curVal.setLength(0);
-                    } else {
-                        curVal.append(c);
-                    }
-                }
-                values.add(curVal.toString().trim());
-                rows.add(values.toArray(new String[0]));
-            }
-        }
-        if (!rows.isEmpty()) {
-            String[] firstRow = rows.get(0);
-            if (firstRow.length > 0 && firstRow[0].startsWith("\ufeff")) {
-                firstRow[0] = firstRow[0].substring(1);
-            }
+        try (CsvReader csv = CsvReader.open(path)) {
+            return csv.readAll();
         }
-        return rows;
     }
 
     private boolean showCsvPreview(Path path, String moduleName) {
@@ -648,23 +669,148 @@ public class MainApp extends Application {
             if (!showCsvPreview(file.toPath(), moduleName)) {
                 continue;
             }
-            
-            Task<Void> task = new Task<>() {
-                @Override
-                protected Void call() throws Exception {
-                    updateMessage("Importing " + moduleName + "...");
-                    updateProgress(0, 1);
-                    importAction.execute(file.toPath(), (processed, total) -> {
+            runImportTask(moduleName, file.toPath(), importAction,
+                () -> showAlert(Alert.AlertType.INFORMATION, moduleName + " imported successfully."));
+            break;
+        }
+    }
+
+    /**
+     * Imports enrollments in checkpointed batches. If an earlier import of the same file was interrupted,
+     * offers to resume after its last committed batch.
+     */
+    private void handleEnrollmentImport(String[] requiredFields) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Select Enrollments CSV File");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        File file = promptAndPreviewFile(chooser, "Enrollments", requiredFields);
+        if (file == null) {
+            return;
+        }
+        Path path = file.toPath();
+        try {
+            long resumeAfter = importExportService.getEnrollmentCheckpoint(path);
+            if (resumeAfter > 0) {
+                ButtonType resume = new ButtonType("Resume", ButtonBar.ButtonData.YES);
+                ButtonType startOver = new ButtonType("Start Over", ButtonBar.ButtonData.NO);
+                Alert prompt = new Alert(Alert.AlertType.CONFIRMATION, "", resume, startOver, ButtonType.CANCEL);
+                prompt.setTitle("Resume Import");
+                prompt.setHeaderText("An earlier import of " + file.getName() + " stopped after record " + resumeAfter + ".");
+                prompt.setContentText("Resume after the last committed record, or import the whole file again?");
+                ButtonType choice = prompt.showAndWait().orElse(ButtonType.CANCEL);
+                if (choice == ButtonType.CANCEL) {
+                    return;
+                }
+                if (choice == startOver) {
+                    importExportService.discardEnrollmentCheckpoint(path);
+                }
+            }
+        } catch (IOException ex) {
+            showAlert(Alert.AlertType.ERROR, "Could not read the import checkpoint: " + ex.getMessage());
+            return;
+        }
+        ImportExportService.CheckpointedImportResult[] result = new ImportExportService.CheckpointedImportResult[1];
+        runImportTask("Enrollments", path, (p, callback) -> result[0] = importExportService.importEnrollmentsCheckpointed(p,
+                ImportExportService.CHECKPOINT_COMMIT_EVERY, callback),
+            () -> showAlert(Alert.AlertType.INFORMATION, String.format("Enrollments imported: %d accepted, %d rejected.",
+                result[0].getRowsAccepted(), result[0].getRowsRejected())));
+    }
+
+    private void runImportTask(String moduleName, Path path, FileImportAction importAction, Runnable onSuccess) {
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                updateMessage("Importing " + moduleName + "...");
+                updateProgress(0, 1);
+                importAction.execute(path, new ImportExportService.ImportProgressCallback() {
+                    @Override
+                    public void onProgress(int processed, int total) {
                         updateProgress(processed, total);
                         int pct = total > 0 ? (int)((processed * 100L) / total) : 0;
                         updateMessage(String.format("Importing %s: Record %d / %d (%d%%)", moduleName, processed, total, pct));
-                    });
-                    return null;
-                }
-            };
-            runJavaFXTask(task, "Importing " + moduleName + "...", () -> showAlert(Alert.AlertType.INFORMATION, moduleName + " imported successfully."));
-            break;
+                    }
+
+                    @Override
+                    public void onPhase(String phase) {
+                        updateMessage(phase + "...");
+                    }
+                });
+                return null;
+            }
+        };
+        runJavaFXTask(task, "Importing " + moduleName + "...", () -> {
+            rebuildSearchIndexes();
+            onSuccess.run();
+        });
+    }
+
+    private void handleRestoreBackup() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Select Database Backup");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Database Backups", "ccrm-db-backup-*.zip"));
+        File backupDir = AppConfig.getInstance().getBackupDirectory().toFile();
+        if (backupDir.isDirectory()) {
+            chooser.setInitialDirectory(backupDir);
+        }
+        File file = chooser.showOpenDialog(mainLayout.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Restore Database Backup");
+        confirm.setHeaderText("Restore " + file.getName() + "?");
+        confirm.setContentText("Records in the backup will overwrite the current versions. Records created since the backup are kept.");
+        if (confirm.showAndWait().filter(response -> response == ButtonType.OK).isEmpty()) {
+            return;
         }
+
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                updateMessage("Restoring " + file.getName() + "...");
+                backupService.restoreDatabaseBackup(file.toPath(), bulkLoadService, new ImportExportService.ImportProgressCallback() {
+                    @Override
+                    public void onProgress(int processed, int total) {
+                        updateProgress(processed, total);
+                    }
+
+                    @Override
+                    public void onPhase(String phase) {
+                        updateMessage(phase + "...");
+                    }
+                });
+                return null;
+            }
+        };
+        runJavaFXTask(task, "Restoring Database Backup...", () -> {
+            rebuildSearchIndexes();
+            showAlert(Alert.AlertType.INFORMATION, "Database restored from " + file.getName() + ".");
+        });
+    }
+
+    private void handleRestoreSnapshot() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Select Snapshot");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Snapshots", "*.snap"));
+        File backupDir = AppConfig.getInstance().getBackupDirectory().toFile();
+        if (backupDir.isDirectory()) {
+            chooser.setInitialDirectory(backupDir);
+        }
+        File file = chooser.showOpenDialog(mainLayout.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Restore Snapshot");
+        confirm.setHeaderText("Restore " + file.getName() + "?");
+        confirm.setContentText("All current records are replaced by the snapshot. Take a full export afterwards; change exports do not see the restore.");
+        if (confirm.showAndWait().filter(response -> response == ButtonType.OK).isEmpty()) {
+            return;
+        }
+        runTaskWithProgress("Restoring Snapshot...", () -> snapshotService.restoreSnapshot(file.toPath()), () -> {
+            rebuildSearchIndexes();
+            showAlert(Alert.AlertType.INFORMATION, "Database restored from " + file.getName() + ".");
+        });
     }
 
     private void runJavaFXTask(Task<?> task, String initialMessage, Runnable onSuccess) {
@@ -709,10 +855,10 @@ public class MainApp extends Application {
             showAlert(Alert.AlertType.ERROR, "Error: " + (ex != null ? ex.getMessage() : "Unknown error"));
         });
 
-        new Thread(task).start();
+        taskScheduler.schedule(null, task);
     }
     
-    private void handleImportAll() {
+    private void handleImportAll(boolean bulkMode) {
         FileChooser chooser = new FileChooser();
         chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
         
@@ -764,6 +910,12 @@ public class MainApp extends Application {
         File probationFile = promptAndPreviewFile(chooser, "Probation Reports", probationReq);
         if (probationFile == null) return;
 
+        FileImportAction importInstructors = bulkMode ? bulkLoadService::loadInstructors : importExportService::importInstructorsFile;
+        FileImportAction importCourses = bulkMode ? bulkLoadService::loadCourses : importExportService::importCoursesFile;
+        FileImportAction importStudents = bulkMode ? bulkLoadService::loadStudents : importExportService::importStudentsFile;
+        FileImportAction importEnrollments = bulkMode ? bulkLoadService::loadEnrollments : importExportService::importEnrollmentsFile;
+        FileImportAction importProbationReports = bulkMode ? bulkLoadService::loadProbationReports : importExportService::importProbationReportsFile;
+
         Task<Void> task = new Task<>() {
             @Override
             protected Void call() throws Exception {
@@ -776,7 +928,7 @@ public class MainApp extends Application {
 
                 updateMessage("Importing Instructors (1/5)...");
                 Platform.runLater(() -> { recordProgressBar.setProgress(0); recordProgressLabel.setText("Starting..."); });
-                importExportService.importInstructorsFile(instFile.toPath(), (p, t) -> {
+                importInstructors.execute(instFile.toPath(), (p, t) -> {
                     double frac = t > 0 ? (double) p / t : 0;
                     int pct = t > 0 ? (int)((p * 100L) / t) : 0;
                     Platform.runLater(() -> {
@@ -789,7 +941,7 @@ public class MainApp extends Application {
 
                 updateMessage("Importing Courses (2/5)...");
                 Platform.runLater(() -> { recordProgressBar.setProgress(0); recordProgressLabel.setText("Starting..."); });
-                importExportService.importCoursesFile(coursesFile.toPath(), (p, t) -> {
+                importCourses.execute(coursesFile.toPath(), (p, t) -> {
                     double frac = t > 0 ? (double) p / t : 0;
                     int pct = t > 0 ? (int)((p * 100L) / t) : 0;
                     Platform.runLater(() -> {
@@ -802,7 +954,7 @@ public class MainApp extends Application {
 
                 updateMessage("Importing Students (3/5)...");
                 Platform.runLater(() -> { recordProgressBar.setProgress(0); recordProgressLabel.setText("Starting..."); });
-                importExportService.importStudentsFile(studentsFile.toPath(), (p, t) -> {
+                importStudents.execute(studentsFile.toPath(), (p, t) -> {
                     double frac = t > 0 ? (double) p / t : 0;
                     int pct = t > 0 ? (int)((p * 100L) / t) : 0;
                     Platform.runLater(() -> {
@@ -815,7 +967,7 @@ public class MainApp extends Application {
 
                 updateMessage("Importing Enrollments (4/5)...");
                 Platform.runLater(() -> { recordProgressBar.setProgress(0); recordProgressLabel.setText("Starting..."); });
-                importExportService.importEnrollmentsFile(enrollFile.toPath(), (p, t) -> {
+                importEnrollments.execute(enrollFile.toPath(), (p, t) -> {
                     double frac = t > 0 ? (double) p / t : 0;
                     int pct = t > 0 ? (int)((p * 100L) / t) : 0;
                     Platform.runLater(() -> {
@@ -828,7 +980,7 @@ public class MainApp extends Application {
 
                 updateMessage("Importing Probation Reports (5/5)...");
                 Platform.runLater(() -> { recordProgressBar.setProgress(0); recordProgressLabel.setText("Starting..."); });
-                importExportService.importProbationReportsFile(probationFile.toPath(), (p, t) -> {
+                importProbationReports.execute(probationFile.toPath(), (p, t) -> {
                     double frac = t > 0 ? (double) p / t : 0;
                     int pct = t > 0 ? (int)((p * 100L) / t) : 0;
                     Platform.runLater(() -> {
@@ -844,6 +996,7 @@ public class MainApp extends Application {
         };
 
         runJavaFXTask(task, "Starting Bulk Import...", () -> {
+            rebuildSearchIndexes();
             showAlert(Alert.AlertType.INFORMATION, "All data imported successfully in the required sequence without corruption.");
         });
     }
@@ -1021,28 +1174,28 @@ public class MainApp extends Application {
         TableView<Student> table = new TableView<>();
         table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         TableColumn<Student, Integer> colId = new TableColumn<>("ID");
-        colId.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().getId()));
+        colId.setCellValueFactory(c -> c.getValue() == null ? null : new ReadOnlyObjectWrapper<>(c.getValue().getId()));
 
         TableColumn<Student, String> colRegNo = new TableColumn<>("Reg No");
-        colRegNo.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getRegNo()));
+        colRegNo.setCellValueFactory(c -> c.getValue() == null ? null : new ReadOnlyStringWrapper(c.getValue().getRegNo()));
 
         TableColumn<Student, String> colName = new TableColumn<>("Name");
-        colName.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getFullName().toString()));
+        colName.setCellValueFactory(c -> c.getValue() == null ? null : new ReadOnlyStringWrapper(c.getValue().getFullName().toString()));
 
         TableColumn<Student, String> colEmail = new TableColumn<>("Email");
-        colEmail.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getEmail()));
+        colEmail.setCellValueFactory(c -> c.getValue() == null ? null : new ReadOnlyStringWrapper(c.getValue().getEmail()));
         
         TableColumn<Student, String> colDob = new TableColumn<>("DOB");
-        colDob.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getDob() != null ? c.getValue().getDob().toString() : ""));
+        colDob.setCellValueFactory(c -> c.getValue() == null ? null : new ReadOnlyStringWrapper(c.getValue().getDob() != null ? c.getValue().getDob().toString() : ""));
 
         TableColumn<Student, String> colPhone = new TableColumn<>("Phone");
-        colPhone.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getPhone()));
+        colPhone.setCellValueFactory(c -> c.getValue() == null ? null : new ReadOnlyStringWrapper(c.getValue().getPhone()));
 
         TableColumn<Student, String> colRegDate = new TableColumn<>("Reg Date");
-        colRegDate.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getRegistrationDate() != null ? c.getValue().getRegistrationDate().toString() : ""));
+        colRegDate.setCellValueFactory(c -> c.getValue() == null ? null : new ReadOnlyStringWrapper(c.getValue().getRegistrationDate() != null ? c.getValue().getRegistrationDate().toString() : ""));
 
         TableColumn<Student, String> colStatus = new TableColumn<>("Status");
-        colStatus.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getStatus().toString()));
+        colStatus.setCellValueFactory(c -> c.getValue() == null ? null : new ReadOnlyStringWrapper(c.getValue().getStatus().toString()));
         colStatus.setCellFactory(column -> new TableCell<Student, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
@@ -1069,7 +1222,7 @@ public class MainApp extends Application {
         });
 
         TableColumn<Student, String> colCgpa = new TableColumn<>("CGPA");
-        colCgpa.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getCgpa() != null ? String.format("%.2f", c.getValue().getCgpa()) : "N/A"));
+        colCgpa.setCellValueFactory(c -> c.getValue() == null ? null : new ReadOnlyStringWrapper(c.getValue().getCgpa() != null ? String.format("%.2f", c.getValue().getCgpa()) : "N/A"));
         colCgpa.setCellFactory(column -> new TableCell<Student, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
@@ -1090,7 +1243,7 @@ public class MainApp extends Application {
         });
 
         TableColumn<Student, Integer> colProbCount = new TableColumn<>("Probations");
-        colProbCount.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().getProbationCount()));
+        colProbCount.setCellValueFactory(c -> c.getValue() == null ? null : new ReadOnlyObjectWrapper<>(c.getValue().getProbationCount()));
         colProbCount.setCellFactory(column -> new TableCell<Student, Integer>() {
             @Override
             protected void updateItem(Integer item, boolean empty) {
@@ -1111,7 +1264,7 @@ public class MainApp extends Application {
         });
 
         TableColumn<Student, Integer> colGradedCredits = new TableColumn<>("Credits Completed");
-        colGradedCredits.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().getGradedCredits()));
+        colGradedCredits.setCellValueFactory(c -> c.getValue() == null ? null : new ReadOnlyObjectWrapper<>(c.getValue().getGradedCredits()));
         colGradedCredits.setCellFactory(column -> new TableCell<Student, Integer>() {
             @Override
             protected void updateItem(Integer item, boolean empty) {
@@ -1132,31 +1285,58 @@ public class MainApp extends Application {
         table.setMaxHeight(Double.MAX_VALUE);
         VBox.setVgrow(table, Priority.ALWAYS);
 
-        ObservableList<Student> masterData = FXCollections.observableArrayList();
-        FilteredList<Student> filteredData = new FilteredList<>(masterData, p -> true);
-        
         TextField searchField = new TextField();
         searchField.setPromptText("Search by Name or Reg No...");
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredData.setPredicate(student -> {
-                if (newValue == null || newValue.isEmpty()) return true;
-                String lowerCaseFilter = newValue.toLowerCase();
-                if (student.getFullName().toString().toLowerCase().contains(lowerCaseFilter)) return true;
-                if (student.getRegNo().toLowerCase().contains(lowerCaseFilter)) return true;
-                return false;
-            });
-        });
-        
-        SortedList<Student> sortedData = new SortedList<>(filteredData);
-        sortedData.comparatorProperty().bind(table.comparatorProperty());
-        table.setItems(sortedData);
 
-        refreshStudentsTable = () -> {
-            runTaskWithProgress("Loading Students...", () -> {
-                List<Student> students = studentService.getAllStudentsSortedById();
-                Platform.runLater(() -> masterData.setAll(students));
-            }, null);
+        // Rows are paged in from the database as they scroll into view; search and sorting run as queries
+        java.util.function.Supplier<LazyPagedList.PageSource<Student>> studentQuery = () -> {
+            String filter = searchField.getText() != null ? searchField.getText().trim() : "";
+            TableColumn<Student, ?> sortColumn = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+            StudentService.StudentSort sort = sortColumn == colRegNo ? StudentService.StudentSort.REG_NO
+                : sortColumn == colName ? StudentService.StudentSort.NAME
+                : sortColumn == colCgpa ? StudentService.StudentSort.CGPA
+                : StudentService.StudentSort.ID;
+            boolean descending = sortColumn != null && sortColumn.getSortType() == TableColumn.SortType.DESCENDING;
+            return new LazyPagedList.PageSource<>() {
+                @Override
+                public int count() {
+                    return studentService.countStudents(filter);
+                }
+
+                @Override
+                public List<Student> pageAfter(Student last, int limit) {
+                    return studentService.pageAfter(last, limit, filter, sort, descending);
+                }
+
+                @Override
+                public List<Student> pageAt(int offset, int limit) {
+                    return studentService.pageAt(offset, limit, filter, sort, descending);
+                }
+            };
         };
+        LazyPagedList<Student> studentPages = new LazyPagedList<>(studentQuery.get(), 200, 10, taskScheduler, "students");
+        table.setItems(studentPages);
+
+        PauseTransition searchDelay = new PauseTransition(Duration.millis(250));
+        searchDelay.setOnFinished(e -> studentPages.setSource(studentQuery.get()));
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> searchDelay.playFromStart());
+
+        // Only the orders the database has an index for are offered
+        for (TableColumn<Student, ?> column : List.of(colEmail, colDob, colPhone, colRegDate, colStatus, colGradedCredits, colProbCount)) {
+            column.setSortable(false);
+        }
+        String[] appliedSort = {""};
+        table.setSortPolicy(tv -> {
+            String sortKey = tv.getSortOrder().isEmpty() ? ""
+                : tv.getSortOrder().get(0).getText() + " " + tv.getSortOrder().get(0).getSortType();
+            if (!sortKey.equals(appliedSort[0])) {
+                appliedSort[0] = sortKey;
+                studentPages.setSource(studentQuery.get());
+            }
+            return true;
+        });
+
+        refreshStudentsTable = studentPages::refresh;
 
         btnAdd.setOnAction(e -> {
             try {
@@ -1164,6 +1344,7 @@ public class MainApp extends Application {
                 java.time.LocalDate regDate = regDatePicker.getValue() != null ? regDatePicker.getValue() : java.time.LocalDate.now();
                 Student s = new Student(id, regNoField.getText(), new Name(firstNameField.getText(), lastNameField.getText()), emailField.getText(), Student.Status.ACTIVE, regDate, dobPicker.getValue(), phoneField.getText());
                 studentService.addStudent(s);
+                indexStudent(s);
                 showAlert(Alert.AlertType.INFORMATION, "Student added successfully.");
                 refreshStudentsTable.run();
                 idField.clear(); regNoField.clear(); firstNameField.clear(); lastNameField.clear(); emailField.clear(); phoneField.clear(); dobPicker.setValue(null); regDatePicker.setValue(null);
@@ -1480,30 +1661,19 @@ public class MainApp extends Application {
         probTable.setMaxHeight(Double.MAX_VALUE);
         VBox.setVgrow(probTable, Priority.ALWAYS);
 
-        ObservableList<ProbationReport> probMasterData = FXCollections.observableArrayList();
-        FilteredList<ProbationReport> probFilteredData = new FilteredList<>(probMasterData, p -> true);
+        // The status part of the key is as of the last load
+        FilteredTableModel<ProbationReport> probModel = new FilteredTableModel<>(report -> {
+            LocalDate today = LocalDate.now();
+            String status = today.isBefore(report.getStartDate()) ? "pending" : (today.isAfter(report.getEndDate()) ? "completed" : "on going");
+            return FilteredTableModel.searchKey(report.getProbationId(), report.getReason(), status)
+                + FilteredTableModel.searchKey(report.getStudentRegNos().toArray(new String[0]));
+        }, taskScheduler, "probation-filter");
 
         TextField probSearchField = new TextField();
         probSearchField.setPromptText("Search by ID, Reg No, Reason, or Status...");
-        probSearchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            probFilteredData.setPredicate(report -> {
-                if (newValue == null || newValue.isEmpty()) return true;
-                String lowerCaseFilter = newValue.toLowerCase();
-                
-                LocalDate today = LocalDate.now();
-                String status = today.isBefore(report.getStartDate()) ? "pending" : (today.isAfter(report.getEndDate()) ? "completed" : "on going");
-
-                if (report.getProbationId().toLowerCase().contains(lowerCaseFilter)) return true;
-                if (report.getReason().toLowerCase().contains(lowerCaseFilter)) return true;
-                if (status.contains(lowerCaseFilter)) return true;
-                for (String reg : report.getStudentRegNos()) {
-                    if (reg.toLowerCase().contains(lowerCaseFilter)) return true;
-                }
-                return false;
-            });
-        });
+        probSearchField.textProperty().addListener((observable, oldValue, newValue) -> probModel.setQuery(newValue));
 
-        SortedList<ProbationReport> probSortedData = new SortedList<>(probFilteredData);
+        SortedList<ProbationReport> probSortedData = new SortedList<>(probModel.getItems());
         probSortedData.comparatorProperty().bind(probTable.comparatorProperty());
         probTable.setItems(probSortedData);
 
@@ -1577,10 +1747,8 @@ public class MainApp extends Application {
         });
 
         refreshProbTable = () -> {
-            runTaskWithProgress("Loading Probation Reports...", () -> {
-                List<ProbationReport> reports = probationService.getAllProbationReports();
-                Platform.runLater(() -> probMasterData.setAll(reports));
-            }, null);
+            loadWithProgress("probation-reports", "Loading Probation Reports...",
+                probationService::getAllProbationReports, probModel::setAll);
         };
 
         // Submit Button Action
@@ -1758,30 +1926,20 @@ public class MainApp extends Application {
         table.setMaxHeight(Double.MAX_VALUE);
         VBox.setVgrow(table, Priority.ALWAYS);
 
-        ObservableList<Instructor> masterData = FXCollections.observableArrayList();
-        FilteredList<Instructor> filteredData = new FilteredList<>(masterData, p -> true);
+        FilteredTableModel<Instructor> model = new FilteredTableModel<>(
+            inst -> FilteredTableModel.searchKey(inst.getFullName().toString(), inst.getDepartment()), taskScheduler, "instructors-filter");
 
         TextField searchField = new TextField();
         searchField.setPromptText("Search by Name or Dept...");
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredData.setPredicate(inst -> {
-                if (newValue == null || newValue.isEmpty()) return true;
-                String lowerCaseFilter = newValue.toLowerCase();
-                if (inst.getFullName().toString().toLowerCase().contains(lowerCaseFilter)) return true;
-                if (inst.getDepartment().toLowerCase().contains(lowerCaseFilter)) return true;
-                return false;
-            });
-        });
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> model.setQuery(newValue));
 
-        SortedList<Instructor> sortedData = new SortedList<>(filteredData);
+        SortedList<Instructor> sortedData = new SortedList<>(model.getItems());
         sortedData.comparatorProperty().bind(table.comparatorProperty());
         table.setItems(sortedData);
 
         Runnable refreshTable = () -> {
-            runTaskWithProgress("Loading Instructors...", () -> {
-                List<Instructor> list = instructorService.getAllInstructorsSortedById();
-                Platform.runLater(() -> masterData.setAll(list));
-            }, null);
+            loadWithProgress("instructors", "Loading Instructors...",
+                instructorService::getAllInstructorsSortedById, model::setAll);
         };
 
         btnAdd.setOnAction(e -> {
@@ -1876,30 +2034,20 @@ public class MainApp extends Application {
         table.setMaxHeight(Double.MAX_VALUE);
         VBox.setVgrow(table, Priority.ALWAYS);
 
-        ObservableList<Course> masterData = FXCollections.observableArrayList();
-        FilteredList<Course> filteredData = new FilteredList<>(masterData, p -> true);
+        FilteredTableModel<Course> model = new FilteredTableModel<>(
+            course -> FilteredTableModel.searchKey(course.getCourseCode().getCode(), course.getTitle()), taskScheduler, "courses-filter");
 
         TextField searchField = new TextField();
         searchField.setPromptText("Search by Code or Title...");
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredData.setPredicate(course -> {
-                if (newValue == null || newValue.isEmpty()) return true;
-                String lowerCaseFilter = newValue.toLowerCase();
-                if (course.getCourseCode().getCode().toLowerCase().contains(lowerCaseFilter)) return true;
-                if (course.getTitle().toLowerCase().contains(lowerCaseFilter)) return true;
-                return false;
-            });
-        });
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> model.setQuery(newValue));
 
-        SortedList<Course> sortedData = new SortedList<>(filteredData);
+        SortedList<Course> sortedData = new SortedList<>(model.getItems());
         sortedData.comparatorProperty().bind(table.comparatorProperty());
         table.setItems(sortedData);
 
         Runnable refreshTable = () -> {
-            runTaskWithProgress("Loading Courses...", () -> {
-                List<Course> list = courseService.getAllCoursesSortedByCode();
-                Platform.runLater(() -> masterData.setAll(list));
-            }, null);
+            loadWithProgress("courses", "Loading Courses...",
+                courseService::getAllCoursesSortedByCode, model::setAll);
         };
 
         btnAdd.setOnAction(e -> {
@@ -1912,6 +2060,7 @@ public class MainApp extends Application {
                         .withClassroomNo(classroomField.getText())
                         .build();
                 courseService.addCourse(course);
+                indexCourse(course);
                 showAlert(Alert.AlertType.INFORMATION, "Course added successfully.");
                 refreshTable.run();
                 codeField.clear(); titleField.clear(); creditsField.clear(); deptField.clear(); semesterCombo.setValue(null); classroomField.clear();
@@ -2047,21 +2196,33 @@ public class MainApp extends Application {
         VBox.setVgrow(table, Priority.ALWAYS);
 
         TextField searchRegNo = new TextField();
-        searchRegNo.setPromptText("Enter Reg No or Course Code...");
+        searchRegNo.setPromptText("Enter Reg Nos or Course Codes (comma separated)...");
 
         Runnable refreshEnrollments = () -> {
-            String query = searchRegNo.getText().trim();
-            if (query.isEmpty()) {
+            // Leading or doubled separators leave empty pieces, which are not valid keys
+            List<String> keys = java.util.Arrays.stream(searchRegNo.getText().split("[,;\\s]+"))
+                .filter(key -> !key.isBlank())
+                .distinct()
+                .collect(Collectors.toList());
+            if (keys.isEmpty()) {
                 showAlert(Alert.AlertType.WARNING, "Enter a Reg No or Course Code first.");
                 return;
             }
             runTaskWithProgress("Fetching Enrollments...", () -> {
-                List<Enrollment> enrollments = enrollmentService.getEnrollmentsForStudent(query);
-                if (enrollments.isEmpty()) {
-                    enrollments = enrollmentService.getEnrollmentsForCourse(query);
+                // Every key is tried as a Reg No first; keys with no enrollments are then tried as course codes
+                java.util.Map<String, List<Enrollment>> byStudent = enrollmentService.loadEnrollments(keys);
+                List<CourseCode> courseKeys = new java.util.ArrayList<>();
+                for (String key : keys) {
+                    if (!byStudent.containsKey(key)) {
+                        courseKeys.add(new CourseCode(key));
+                    }
+                }
+                List<Enrollment> enrollments = new java.util.ArrayList<>();
+                byStudent.values().forEach(enrollments::addAll);
+                if (!courseKeys.isEmpty()) {
+                    enrollmentService.loadRosters(courseKeys).values().forEach(enrollments::addAll);
                 }
-                final List<Enrollment> finalEnrollments = enrollments;
-                Platform.runLater(() -> table.getItems().setAll(finalEnrollments));
+                Platform.runLater(() -> table.getItems().setAll(enrollments));
             }, null);
         };
 
@@ -2187,32 +2348,17 @@ public class MainApp extends Application {
 
         layout.setCenter(splitPane);
         
-        List<String> studentDict = new ArrayList<>();
-        List<String> courseDict = new ArrayList<>();
-
-                runTaskWithProgress("Loading Dictionaries...", () -> {
-                    List<String> sList = studentService.getAllStudentsSortedById().stream()
-                        .map(s -> s.getRegNo() + " - " + s.getFullName())
-                        .collect(Collectors.toList());
-                    List<String> cList = courseService.getAllCoursesSortedByCode().stream()
-                        .map(c -> c.getCourseCode().getCode() + " - " + c.getTitle())
-                        .collect(Collectors.toList());
-                    Platform.runLater(() -> {
-                        studentDict.clear();
-                        studentDict.addAll(sList);
-                        courseDict.clear();
-                        courseDict.addAll(cList);
-                    });
-                }, null);
-
+        rebuildSearchIndexes();
 
-        setupAutocomplete(regNoField, () -> studentDict);
-        setupAutocomplete(searchRegNo, () -> {
-            List<String> combined = new ArrayList<>(studentDict);
-            combined.addAll(courseDict);
-            return combined;
+        setupAutocomplete(regNoField, query -> studentSearchIndex.search(query, 10));
+        setupAutocomplete(searchRegNo, query -> {
+            List<String> matches = studentSearchIndex.search(query, 10);
+            if (matches.size() < 10) {
+                matches.addAll(courseSearchIndex.search(query, 10 - matches.size()));
+            }
+            return matches;
         });
-        setupAutocomplete(courseCodeField, () -> courseDict);
+        setupAutocomplete(courseCodeField, query -> courseSearchIndex.search(query, 10));
         
         
         return layout;
@@ -2232,38 +2378,89 @@ public class MainApp extends Application {
         String[] enrollReq = {"studentRegNo", "courseCode", "grade"};
         String[] probationReq = {"probationId", "studentRegNos", "startDate", "endDate", "reason"};
 
+        // Bulk mode loads through staging tables and upserts; rejected rows are logged to IMPORT_ERRORS
+        CheckBox bulkModeCheck = new CheckBox("Bulk mode (full reload via staging tables)");
+
         Button btnImportCourses = new Button("Import Courses");
-        btnImportCourses.setOnAction(e -> handleSingleImport("Courses", coursesReq, importExportService::importCoursesFile));
+        btnImportCourses.setOnAction(e -> handleSingleImport("Courses", coursesReq,
+            bulkModeCheck.isSelected() ? bulkLoadService::loadCourses : importExportService::importCoursesFile));
 
         Button btnImportStudents = new Button("Import Students");
-        btnImportStudents.setOnAction(e -> handleSingleImport("Students", studentsReq, importExportService::importStudentsFile));
+        btnImportStudents.setOnAction(e -> handleSingleImport("Students", studentsReq,
+            bulkModeCheck.isSelected() ? bulkLoadService::loadStudents : importExportService::importStudentsFile));
 
         Button btnImportInstructors = new Button("Import Instructors");
-        btnImportInstructors.setOnAction(e -> handleSingleImport("Instructors", instReq, importExportService::importInstructorsFile));
+        btnImportInstructors.setOnAction(e -> handleSingleImport("Instructors", instReq,
+            bulkModeCheck.isSelected() ? bulkLoadService::loadInstructors : importExportService::importInstructorsFile));
 
         Button btnImportEnrollments = new Button("Import Enrollments");
-        btnImportEnrollments.setOnAction(e -> handleSingleImport("Enrollments", enrollReq, importExportService::importEnrollmentsFile));
+        btnImportEnrollments.setOnAction(e -> {
+            if (bulkModeCheck.isSelected()) {
+                handleSingleImport("Enrollments", enrollReq, bulkLoadService::loadEnrollments);
+            } else {
+                handleEnrollmentImport(enrollReq);
+            }
+        });
 
         Button btnImportProbation = new Button("Import Probation");
-        btnImportProbation.setOnAction(e -> handleSingleImport("Probation Reports", probationReq, importExportService::importProbationReportsFile));
+        btnImportProbation.setOnAction(e -> handleSingleImport("Probation Reports", probationReq,
+            bulkModeCheck.isSelected() ? bulkLoadService::loadProbationReports : importExportService::importProbationReportsFile));
 
         Button btnImportAll = new Button("Import All");
-        btnImportAll.setOnAction(e -> handleImportAll());
+        btnImportAll.setOnAction(e -> handleImportAll(bulkModeCheck.isSelected()));
 
         Button btnExport = new Button("Export Data");
         btnExport.setOnAction(e -> runTaskWithProgress("Exporting Data...", 
             importExportService::exportData, () -> showAlert(Alert.AlertType.INFORMATION, "Data exported.")));
 
+        Button btnExportDelta = new Button("Export Changes");
+        btnExportDelta.setOnAction(e -> loadWithProgress(null, "Exporting Changes...",
+            importExportService::exportDelta, result -> showAlert(Alert.AlertType.INFORMATION,
+                "Changes since the last export written to " + result.getDirectory() + ".")));
+
         Button btnBackup = new Button("Create Backup");
         btnBackup.setOnAction(e -> runTaskWithProgress("Creating Backup...", 
             backupService::performBackup, () -> showAlert(Alert.AlertType.INFORMATION, "Backup created successfully.")));
 
+        Button btnIncrementalBackup = new Button("Incremental Backup");
+        btnIncrementalBackup.setOnAction(e -> runTaskWithProgress("Creating Incremental Backup...",
+            backupService::performIncrementalBackup, () -> showAlert(Alert.AlertType.INFORMATION, "Incremental backup created successfully.")));
+
+        Button btnDatabaseBackup = new Button("Database Backup");
+        btnDatabaseBackup.setOnAction(e -> runTaskWithProgress("Backing Up Database...",
+            backupService::performDatabaseBackup, () -> showAlert(Alert.AlertType.INFORMATION, "Database backup created successfully.")));
+
+        Button btnVerifyBackups = new Button("Verify Backups");
+        btnVerifyBackups.setOnAction(e -> {
+            List<BackupService.VerifyResult> failures = new ArrayList<>();
+            runTaskWithProgress("Verifying Backups...",
+                () -> backupService.verifyBackups().stream().filter(result -> !result.isOk()).forEach(failures::add),
+                () -> {
+                    if (failures.isEmpty()) {
+                        showAlert(Alert.AlertType.INFORMATION, "All backups verified successfully.");
+                    } else {
+                        showAlert(Alert.AlertType.WARNING, failures.size() + " backup entries failed verification:\n"
+                            + failures.stream().limit(10).map(Object::toString).collect(Collectors.joining("\n")));
+                    }
+                });
+        });
+
+        Button btnRestoreBackup = new Button("Restore Database Backup");
+        btnRestoreBackup.setOnAction(e -> handleRestoreBackup());
+
+        Button btnExportSnapshot = new Button("Export Snapshot");
+        btnExportSnapshot.setOnAction(e -> loadWithProgress(null, "Exporting Snapshot...",
+            snapshotService::exportSnapshot, file -> showAlert(Alert.AlertType.INFORMATION, "Snapshot written to " + file + ".")));
+
+        Button btnRestoreSnapshot = new Button("Restore Snapshot");
+        btnRestoreSnapshot.setOnAction(e -> handleRestoreSnapshot());
+
         Button btnShowBackupSize = new Button("Show Backup Directory Size");
         btnShowBackupSize.setOnAction(e -> {
             Path backupDir = AppConfig.getInstance().getBackupDirectory();
             try {
                 if (Files.exists(backupDir)) {
-                    long size = RecursiveUtil.calculateDirectorySize(backupDir);
+                    long size = backupManager.getBackupDirectorySize();
                     showAlert(Alert.AlertType.INFORMATION, String.format("Total size of backups directory '%s' is %,d bytes.", backupDir, size));
                 } else {
                     showAlert(Alert.AlertType.INFORMATION, "Backup directory does not exist yet.");
@@ -2282,18 +2479,21 @@ public class MainApp extends Application {
             alert.setContentText("This will permanently DELETE all records (students, instructors, courses, enrollments).\nThe database tables will remain intact — you can import new data immediately after.");
             alert.showAndWait().ifPresent(response -> {
                 if(response == ButtonType.OK) {
-                    runTaskWithProgress("Clearing all data...", () -> dbAdminService.clearAllData(),
-                        () -> showAlert(Alert.AlertType.INFORMATION, "All data cleared successfully. The schema is intact — you can import new data now."));
+                    runTaskWithProgress("Clearing all data...", () -> dbAdminService.clearAllData(), () -> {
+                        rebuildSearchIndexes();
+                        showAlert(Alert.AlertType.INFORMATION, "All data cleared successfully. The schema is intact — you can import new data now.");
+                    });
                 }
             });
         });
 
         HBox row1 = new HBox(10, btnImportCourses, btnImportStudents, btnImportInstructors, btnImportEnrollments, btnImportProbation);
-        HBox row2 = new HBox(10, btnImportAll, btnExport, btnBackup, btnShowBackupSize);
+        HBox row2 = new HBox(10, btnImportAll, btnExport, btnExportDelta, btnBackup, btnIncrementalBackup, btnDatabaseBackup, btnShowBackupSize);
+        HBox backupRow = new HBox(10, btnVerifyBackups, btnRestoreBackup, btnExportSnapshot, btnRestoreSnapshot);
         HBox row3 = new HBox(10, btnDeleteDb);
 
         layout.getChildren().addAll(
-            new Label("Import / Export Operations"), row1, row2,
+            new Label("Import / Export Operations"), row1, bulkModeCheck, row2, backupRow,
             new Separator(),
             new Label("System Actions"), row3
         );
@@ -2302,26 +2502,97 @@ public class MainApp extends Application {
         return layout;
     }
     
-    private void setupAutocomplete(TextField textField, java.util.function.Supplier<List<String>> dictionarySupplier) {
+    /**
+     * Builds fresh autocomplete indexes off the FX thread and swaps them in once ready; the old ones keep
+     * answering until then. Students and courses added in the meantime are applied to the new indexes
+     * before the swap, and only the latest rebuild is swapped in. Also run after imports, restores and
+     * clears, which write rows without going through indexStudent and indexCourse.
+     */
+    private void rebuildSearchIndexes() {
+        int expected = ++searchIndexGeneration;
+        searchIndexRebuilding = true;
+        taskScheduler.submit("search-index", () -> {
+            boolean built = false;
+            try {
+                SearchIndex students = new SearchIndex();
+                for (Student s : studentService.getAllStudentsSortedById()) {
+                    students.put(s.getRegNo(), studentEntry(s));
+                }
+                SearchIndex courses = new SearchIndex();
+                for (Course c : courseService.getAllCoursesSortedByCode()) {
+                    courses.put(c.getCourseCode().getCode(), courseEntry(c));
+                }
+                Platform.runLater(() -> {
+                    if (expected != searchIndexGeneration) {
+                        return;
+                    }
+                    pendingStudentEntries.forEach(students::put);
+                    pendingCourseEntries.forEach(courses::put);
+                    pendingStudentEntries.clear();
+                    pendingCourseEntries.clear();
+                    searchIndexRebuilding = false;
+                    studentSearchIndex = students;
+                    courseSearchIndex = courses;
+                });
+                built = true;
+            } finally {
+                if (!built) {
+                    // The live indexes stay in place and already hold the pending entries
+                    Platform.runLater(() -> {
+                        if (expected == searchIndexGeneration) {
+                            pendingStudentEntries.clear();
+                            pendingCourseEntries.clear();
+                            searchIndexRebuilding = false;
+                        }
+                    });
+                }
+            }
+            return null;
+        });
+    }
+
+    private void indexStudent(Student s) {
+        String entry = studentEntry(s);
+        studentSearchIndex.put(s.getRegNo(), entry);
+        if (searchIndexRebuilding) {
+            pendingStudentEntries.put(s.getRegNo(), entry);
+        }
+    }
+
+    private void indexCourse(Course c) {
+        String entry = courseEntry(c);
+        courseSearchIndex.put(c.getCourseCode().getCode(), entry);
+        if (searchIndexRebuilding) {
+            pendingCourseEntries.put(c.getCourseCode().getCode(), entry);
+        }
+    }
+
+    private static String studentEntry(Student s) {
+        return s.getRegNo() + " - " + s.getFullName();
+    }
+
+    private static String courseEntry(Course c) {
+        return c.getCourseCode().getCode() + " - " + c.getTitle();
+    }
+
+    private void setupAutocomplete(TextField textField, java.util.function.Function<String, List<String>> lookup) {
         ContextMenu contextMenu = new ContextMenu();
-        textField.textProperty().addListener((observable, oldValue, newValue) -> {
+        // Looks up once typing pauses rather than on every keystroke
+        PauseTransition typingDelay = new PauseTransition(Duration.millis(150));
+        typingDelay.setOnFinished(event -> {
+            String newValue = textField.getText();
             if (newValue == null || newValue.trim().isEmpty()) {
                 contextMenu.hide();
             } else {
                 contextMenu.getItems().clear();
-                String filter = newValue.toLowerCase();
-                List<String> dict = dictionarySupplier.get();
-                for (String item : dict) {
-                    if (item.toLowerCase().contains(filter)) {
-                        MenuItem menuItem = new MenuItem(item);
-                        menuItem.setOnAction(e -> {
-                            String[] parts = item.split(" - ");
-                            textField.setText(parts[0]);
-                            textField.positionCaret(parts[0].length());
-                        });
-                        contextMenu.getItems().add(menuItem);
-                        if (contextMenu.getItems().size() >= 10) break;
-                    }
+                for (String item : lookup.apply(newValue)) {
+                    MenuItem menuItem = new MenuItem(item);
+                    menuItem.setOnAction(e -> {
+                        String[] parts = item.split(" - ");
+                        textField.setText(parts[0]);
+                        textField.positionCaret(parts[0].length());
+                    });
+                    contextMenu.getItems().add(menuItem);
                 }
                 if (contextMenu.getItems().isEmpty()) {
                     contextMenu.hide();
@@ -2332,6 +2603,14 @@ public class MainApp extends Application {
                 }
             }
         });
+        textField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue == null || newValue.trim().isEmpty()) {
+                typingDelay.stop();
+                contextMenu.hide();
+            } else {
+                typingDelay.playFromStart();
+            }
+        });
 
         textField.focusedProperty().addListener((observable, oldValue, newValue) -> {
             if (!newValue) {
@@ -2365,16 +2644,13 @@ public class MainApp extends Application {
         Runnable updateSelectCombo = () -> {
             selectCombo.getItems().clear();
             if ("Course".equals(typeCombo.getValue())) {
-                runTaskWithProgress("Loading Courses...", () -> {
+                loadWithProgress("analytics-selection", "Loading Courses...", () -> {
                     List<Course> courses = courseService.getAllCoursesSortedByCode();
-                    List<String> codes = courses.stream().map(c -> c.getCourseCode().getCode()).collect(Collectors.toList());
-                    Platform.runLater(() -> selectCombo.getItems().setAll(codes));
-                }, null);
+                    return courses.stream().map(c -> c.getCourseCode().getCode()).collect(Collectors.toList());
+                }, codes -> selectCombo.getItems().setAll(codes));
             } else {
-                runTaskWithProgress("Loading Departments...", () -> {
-                    List<String> depts = analyticsService.getAllDepartments();
-                    Platform.runLater(() -> selectCombo.getItems().setAll(depts));
-                }, null);
+                loadWithProgress("analytics-selection", "Loading Departments...",
+                    analyticsService::getAllDepartments, depts -> selectCombo.getItems().setAll(depts));
             }
         };
 
@@ -2401,25 +2677,22 @@ public class MainApp extends Application {
                 return;
             }
 
-            runTaskWithProgress("Plotting Grade Distribution...", () -> {
-                java.util.Map<String, Integer> dist;
-                if ("Course".equals(typeCombo.getValue())) {
-                    dist = analyticsService.getGradeDistributionForCourse(new CourseCode(selected));
-                } else {
-                    dist = analyticsService.getGradeDistributionForDepartment(selected);
+            boolean byCourse = "Course".equals(typeCombo.getValue());
+            loadWithProgress("analytics-grades", "Plotting Grade Distribution...", () -> {
+                if (byCourse) {
+                    return analyticsService.getGradeDistributionForCourse(new CourseCode(selected));
                 }
-
-                Platform.runLater(() -> {
-                    barChart.getData().clear();
-                    XYChart.Series<String, Number> series = new XYChart.Series<>();
-                    series.setName(selected);
-                    for (java.util.Map.Entry<String, Integer> entry : dist.entrySet()) {
-                        series.getData().add(new XYChart.Data<>(entry.getKey(), entry.getValue()));
-                    }
-                    barChart.getData().add(series);
-                    barChart.setTitle("Grade Distribution for: " + selected);
-                });
-            }, null);
+                return analyticsService.getGradeDistributionForDepartment(selected);
+            }, dist -> {
+                barChart.getData().clear();
+                XYChart.Series<String, Number> series = new XYChart.Series<>();
+                series.setName(selected);
+                for (java.util.Map.Entry<String, Integer> entry : dist.entrySet()) {
+                    series.getData().add(new XYChart.Data<>(entry.getKey(), entry.getValue()));
+                }
+                barChart.getData().add(series);
+                barChart.setTitle("Grade Distribution for: " + selected);
+            });
         });
 
         gradesBox.getChildren().addAll(filterBox, barChart);
@@ -2456,10 +2729,8 @@ public class MainApp extends Application {
 
         Button btnRefreshFaculty = new Button("Refresh Faculty Insights", new FontIcon("fas-sync"));
         Runnable loadFaculty = () -> {
-            runTaskWithProgress("Loading Faculty Performance...", () -> {
-                List<AnalyticsService.InstructorAnalytics> metrics = analyticsService.getInstructorAnalytics();
-                Platform.runLater(() -> facultyTable.getItems().setAll(metrics));
-            }, null);
+            loadWithProgress("analytics-faculty", "Loading Faculty Performance...",
+                analyticsService::getInstructorAnalytics, metrics -> facultyTable.getItems().setAll(metrics));
         };
         btnRefreshFaculty.setOnAction(e -> loadFaculty.run());
 
@@ -2500,10 +2771,8 @@ public class MainApp extends Application {
 
         Button btnRefreshPop = new Button("Refresh Course Popularity", new FontIcon("fas-sync"));
         Runnable loadPop = () -> {
-            runTaskWithProgress("Loading Course Popularity...", () -> {
-                List<AnalyticsService.CoursePopularityAnalytics> popularityList = analyticsService.getCoursePopularity();
-                Platform.runLater(() -> popTable.getItems().setAll(popularityList));
-            }, null);
+            loadWithProgress("analytics-popularity", "Loading Course Popularity...",
+                analyticsService::getCoursePopularity, popularityList -> popTable.getItems().setAll(popularityList));
         };
         btnRefreshPop.setOnAction(e -> loadPop.run());
 
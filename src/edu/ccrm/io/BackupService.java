@@ -1,17 +1,299 @@
 package edu.ccrm.io;
 
 import edu.ccrm.config.AppConfig;
+import edu.ccrm.io.csv.CsvReader;
+import edu.ccrm.io.csv.CsvWriter;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 public class BackupService {
 
+    // Content-defined chunking bounds: boundaries follow the content, so an edit only changes nearby chunks
+    private static final int MIN_CHUNK = 64 * 1024;
+    private static final int MAX_CHUNK = 1024 * 1024;
+    // About one boundary every 256 KiB past the minimum
+    private static final long BOUNDARY_MASK = (1L << 18) - 1;
+    private static final long[] GEAR = new long[256];
+
+    static {
+        // Fixed seed: the table must be identical on every run or no chunk would ever be reused
+        java.util.Random random = new java.util.Random(0x43435255L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * One file of an incremental backup: where it lives under the data directory, the size and
+     * modification time it had, and the chunks that rebuild it, in order.
+     */
+    public static class ManifestEntry {
+        private final String path;
+        private final long size;
+        private final long modified;
+        private final List<String> chunks;
+
+        public ManifestEntry(String path, long size, long modified, List<String> chunks) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.chunks = chunks;
+        }
+
+        public String getPath() { return path; }
+        public long getSize() { return size; }
+        public long getModified() { return modified; }
+        public List<String> getChunks() { return chunks; }
+    }
+
+    /**
+     * One table of a database backup: the archive entry holding it, the rows written and the SHA-256 of
+     * the entry's uncompressed bytes.
+     */
+    public static class TableBackup {
+        private final String table;
+        private final String entry;
+        private final long rows;
+        private final String sha256;
+
+        public TableBackup(String table, String entry, long rows, String sha256) {
+            this.table = table;
+            this.entry = entry;
+            this.rows = rows;
+            this.sha256 = sha256;
+        }
+
+        public String getTable() { return table; }
+        public String getEntry() { return entry; }
+        public long getRows() { return rows; }
+        public String getSha256() { return sha256; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %,d rows in %s", table, rows, entry);
+        }
+    }
+
+    private static final class DatabaseTable {
+        final String table;
+        final String entry;
+        final String header;
+        final String sql;
+
+        DatabaseTable(String table, String entry, String header, String sql) {
+            this.table = table;
+            this.entry = entry;
+            this.header = header;
+            this.sql = sql;
+        }
+    }
+
+    public static final String DATABASE_MANIFEST = "manifest.properties";
+
+    // Same layouts as the CSV export where one exists, so the bulk importer can read them back; extra
+    // trailing columns carry what the export leaves out
+    private static final List<DatabaseTable> DATABASE_TABLES = List.of(
+            new DatabaseTable("INSTRUCTORS", "instructors.csv",
+                    "FiD,firstName,lastName,email,department,dob,phone,cabinNo",
+                    "SELECT FiD, first_name, last_name, email, department, TO_CHAR(dob, 'YYYY-MM-DD'), phone, cabin_no "
+                    + "FROM instructors ORDER BY FiD"),
+            new DatabaseTable("STUDENTS", "students.csv",
+                    "id,regNo,firstName,lastName,email,status,registrationDate,dob,phone,probationCount,cgpa,gradePoints,gradedCredits",
+                    "SELECT id, reg_no, first_name, last_name, email, status, TO_CHAR(registration_date, 'YYYY-MM-DD'), "
+                    + "TO_CHAR(dob, 'YYYY-MM-DD'), phone, NVL(probation_count, 0), cgpa, grade_points, graded_credits "
+                    + "FROM students ORDER BY reg_no"),
+            new DatabaseTable("COURSES", "courses.csv",
+                    "code,title,credits,department,instructorId,semester,classroomNo",
+                    "SELECT code, title, credits, department, instructor_id, semester, classroom_no FROM courses ORDER BY code"),
+            new DatabaseTable("ENROLLMENTS", "enrollments.csv",
+                    "studentRegNo,courseCode,grade,enrollmentYear,enrollmentSemester,grandTotalMarks",
+                    "SELECT student_reg_no, course_code, grade, enrollment_year, enrollment_semester, grand_total_marks "
+                    + "FROM enrollments ORDER BY student_reg_no, course_code"),
+            new DatabaseTable("DROPPED_ENROLLMENTS", "dropped_enrollments.csv",
+                    "studentRegNo,courseCode,dropDate",
+                    "SELECT student_reg_no, course_code, TO_CHAR(drop_date, 'YYYY-MM-DD') FROM dropped_enrollments "
+                    + "ORDER BY drop_date, student_reg_no, course_code"),
+            new DatabaseTable("PROBATION_REPORTS", "probation_reports.csv",
+                    "probationId,startDate,endDate,reason",
+                    "SELECT probation_id, TO_CHAR(start_date, 'YYYY-MM-DD'), TO_CHAR(end_date, 'YYYY-MM-DD'), reason "
+                    + "FROM probation_reports ORDER BY probation_id"),
+            new DatabaseTable("PROBATION_STUDENTS", "probation_students.csv",
+                    "probationId,studentRegNo",
+                    "SELECT probation_id, student_reg_no FROM probation_students ORDER BY probation_id, student_reg_no"));
+
+    /**
+     * One entry of one archive as recorded in the backup catalog. Rows is -1 when the archive carries no
+     * row counts (archives of the data directory).
+     */
+    public static class CatalogEntry {
+        private final String archive;
+        private final long archiveSize;
+        private final long archiveModified;
+        private final String entry;
+        private final long size;
+        private final long compressedSize;
+        private final long crc;
+        private final String sha256;
+        private final long rows;
+
+        public CatalogEntry(String archive, long archiveSize, long archiveModified, String entry, long size,
+                            long compressedSize, long crc, String sha256, long rows) {
+            this.archive = archive;
+            this.archiveSize = archiveSize;
+            this.archiveModified = archiveModified;
+            this.entry = entry;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.crc = crc;
+            this.sha256 = sha256;
+            this.rows = rows;
+        }
+
+        public String getArchive() { return archive; }
+        public long getArchiveSize() { return archiveSize; }
+        public long getArchiveModified() { return archiveModified; }
+        public String getEntry() { return entry; }
+        public long getSize() { return size; }
+        public long getCompressedSize() { return compressedSize; }
+        public long getCrc() { return crc; }
+        public String getSha256() { return sha256; }
+        public long getRows() { return rows; }
+    }
+
+    /**
+     * Outcome of verifying one archive entry; entry is null when the archive itself could not be read.
+     */
+    public static class VerifyResult {
+        private final String archive;
+        private final String entry;
+        private final boolean ok;
+        private final String message;
+
+        public VerifyResult(String archive, String entry, boolean ok, String message) {
+            this.archive = archive;
+            this.entry = entry;
+            this.ok = ok;
+            this.message = message;
+        }
+
+        public String getArchive() { return archive; }
+        public String getEntry() { return entry; }
+        public boolean isOk() { return ok; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return archive + (entry != null ? "!" + entry : "") + ": " + message;
+        }
+    }
+
+    public static final String CATALOG = "catalog.tsv";
+
+    // Tables of a database backup that the bulk importer restores, parents first
+    private static final List<String> BULK_RESTORE_TABLES = List.of("INSTRUCTORS", "COURSES", "STUDENTS", "ENROLLMENTS");
+
+    /**
+     * A table restored with plain batched statements, either because the bulk importer has no loader for it
+     * or to put back columns the bulk layout leaves out. Parameters bind the CSV fields in order.
+     */
+    private static final class DirectRestore {
+        final String table;
+        final String sql;
+        final int[] types;
+
+        DirectRestore(String table, String sql, int... types) {
+            this.table = table;
+            this.sql = sql;
+            this.types = types;
+        }
+    }
+
+    private static final List<DirectRestore> DIRECT_RESTORES = List.of(
+            new DirectRestore("ENROLLMENTS",
+                    "MERGE INTO enrollments e USING (SELECT ? AS student_reg_no, ? AS course_code, ? AS grade, "
+                    + "? AS enrollment_year, ? AS enrollment_semester, ? AS grand_total_marks FROM dual) s "
+                    + "ON (e.student_reg_no = s.student_reg_no AND e.course_code = s.course_code) "
+                    + "WHEN MATCHED THEN UPDATE SET e.enrollment_year = s.enrollment_year, "
+                    + "  e.enrollment_semester = s.enrollment_semester, e.grand_total_marks = NVL(s.grand_total_marks, 0)",
+                    Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.VARCHAR, Types.NUMERIC),
+            new DirectRestore("PROBATION_REPORTS",
+                    "MERGE INTO probation_reports t USING (SELECT ? AS probation_id, ? AS start_date, ? AS end_date, "
+                    + "? AS reason FROM dual) s ON (t.probation_id = s.probation_id) "
+                    + "WHEN MATCHED THEN UPDATE SET t.start_date = s.start_date, t.end_date = s.end_date, t.reason = s.reason "
+                    + "WHEN NOT MATCHED THEN INSERT (probation_id, start_date, end_date, reason) "
+                    + "  VALUES (s.probation_id, s.start_date, s.end_date, s.reason)",
+                    Types.VARCHAR, Types.DATE, Types.DATE, Types.VARCHAR),
+            new DirectRestore("PROBATION_STUDENTS",
+                    "MERGE INTO probation_students t USING (SELECT ? AS probation_id, ? AS student_reg_no FROM dual) s "
+                    + "ON (t.probation_id = s.probation_id AND t.student_reg_no = s.student_reg_no) "
+                    + "WHEN NOT MATCHED THEN INSERT (probation_id, student_reg_no) VALUES (s.probation_id, s.student_reg_no)",
+                    Types.VARCHAR, Types.VARCHAR),
+            new DirectRestore("DROPPED_ENROLLMENTS",
+                    "MERGE INTO dropped_enrollments t USING (SELECT ? AS student_reg_no, ? AS course_code, ? AS drop_date FROM dual) s "
+                    + "ON (t.student_reg_no = s.student_reg_no AND t.course_code = s.course_code "
+                    + "  AND (t.drop_date = s.drop_date OR (t.drop_date IS NULL AND s.drop_date IS NULL))) "
+                    + "WHEN NOT MATCHED THEN INSERT (student_reg_no, course_code, drop_date) "
+                    + "  VALUES (s.student_reg_no, s.course_code, s.drop_date)",
+                    Types.VARCHAR, Types.VARCHAR, Types.DATE));
+
     public void performBackup() throws IOException {
+        AppConfig config = AppConfig.getInstance();
+        performBackup(config.getBackupCompressionLevel(), config.getBackupThreads());
+    }
+
+    /**
+     * Zips the data directory, compressing on the given number of threads.
+     * Entries are added in path order, so the same data always produces the same archive.
+     * @param level Deflate level, 0-9.
+     * @param threads Compression threads.
+     * @return The archive written.
+     * @throws IOException if a file cannot be read or the archive cannot be written.
+     */
+    public Path performBackup(int level, int threads) throws IOException {
         Path backupDir = AppConfig.getInstance().getBackupDirectory();
         if (!Files.exists(backupDir)) {
             Files.createDirectories(backupDir);
@@ -21,21 +303,734 @@ public class BackupService {
         String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
         Path backupFile = backupDir.resolve("ccrm-backup-" + timestamp + ".zip");
 
-        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(backupFile))) {
-            Path dataDir = Path.of("app-data"); 
+        Path dataDir = Path.of("app-data"); 
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            files = paths.filter(path -> !Files.isDirectory(path)).sorted().collect(Collectors.toList());
+        }
+        try (ParallelZipWriter zip = new ParallelZipWriter(Files.newOutputStream(backupFile), level, threads)) {
+            for (Path path : files) {
+                // Zip entry names always use forward slashes
+                zip.addFile(dataDir.relativize(path).toString().replace('\\', '/'), path);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(backupFile);
+            throw e;
+        }
+        System.out.println("Backup created successfully at " + backupFile);
+        updateCatalog();
+        return backupFile;
+    }
+
+    /**
+     * Backs up the database itself rather than the last CSV export. Every table is read inside one
+     * read-only transaction, so the archive is a consistent picture of a single moment across all tables.
+     * Rows stream from a forward-only cursor through a CsvWriter straight into the zip entry; nothing is
+     * staged on disk or collected in memory. The last entry, manifest.properties, records each table's
+     * entry, row count and SHA-256, so a restore can be checked without parsing the CSVs.
+     * @return The archive written.
+     * @throws IOException if the archive cannot be written or a table cannot be read.
+     */
+    public Path performDatabaseBackup() throws IOException {
+        AppConfig config = AppConfig.getInstance();
+        Path backupDir = config.getBackupDirectory();
+        Files.createDirectories(backupDir);
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        Path backupFile = backupDir.resolve("ccrm-db-backup-" + timestamp + ".zip");
+
+        List<TableBackup> tables = new ArrayList<>();
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(backupFile), 64 * 1024));
+             Connection conn = DatabaseManager.getConnection()) {
+            zip.setLevel(config.getBackupCompressionLevel());
+            conn.setAutoCommit(false);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SET TRANSACTION READ ONLY");
+                }
+                for (DatabaseTable table : DATABASE_TABLES) {
+                    tables.add(backupTable(table, conn, zip));
+                }
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            Properties manifest = new Properties();
+            manifest.setProperty("format", "1");
+            manifest.setProperty("createdAt", LocalDateTime.now().toString());
+            manifest.setProperty("tables", tables.stream().map(TableBackup::getTable).collect(Collectors.joining(",")));
+            for (TableBackup table : tables) {
+                manifest.setProperty(table.getTable() + ".entry", table.getEntry());
+                manifest.setProperty(table.getTable() + ".rows", Long.toString(table.getRows()));
+                manifest.setProperty(table.getTable() + ".sha256", table.getSha256());
+            }
+            zip.putNextEntry(new ZipEntry(DATABASE_MANIFEST));
+            manifest.store(zip, "CCRM database backup");
+            zip.closeEntry();
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(backupFile);
+            throw e instanceof IOException ? (IOException) e : new IOException("Database backup failed: " + e.getMessage(), e);
+        }
+        for (TableBackup table : tables) {
+            System.out.println("    - " + table);
+        }
+        System.out.println("Database backup created successfully at " + backupFile);
+        updateCatalog();
+        return backupFile;
+    }
+
+    private TableBackup backupTable(DatabaseTable table, Connection conn, ZipOutputStream zip) throws IOException, SQLException {
+        zip.putNextEntry(new ZipEntry(table.entry));
+        MessageDigest digest = sha256();
+        // The CSV writer is closed per entry, but the archive must stay open
+        OutputStream entry = new FilterOutputStream(zip) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        long rows;
+        try (CsvWriter out = new CsvWriter(new OutputStreamWriter(new DigestOutputStream(entry, digest), StandardCharsets.UTF_8));
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(5000);
+            out.record(table.header.split(","));
+            try (ResultSet rs = stmt.executeQuery(table.sql)) {
+                int columns = rs.getMetaData().getColumnCount();
+                while (rs.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        out.field(rs.getString(i));
+                    }
+                    out.endRecord();
+                }
+            }
+            rows = out.getRecordCount() - 1;
+        } catch (SQLException e) {
+            throw new SQLException("Error backing up " + table.table + ": " + e.getMessage(), e);
+        }
+        zip.closeEntry();
+        return new TableBackup(table.table, table.entry, rows, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Lists every archive in the backup directory from the catalog index. Only archives that are new, or
+     * whose size or modification time changed since they were cataloged, are opened; their entries are
+     * read once to record sizes, CRC and SHA-256, along with the row counts of a database backup's
+     * manifest. Archives that no longer exist are dropped from the index.
+     * @return The catalog, by archive name and then in archive order.
+     * @throws IOException if the backup directory or the index cannot be read or written.
+     */
+    public synchronized List<CatalogEntry> listCatalog() throws IOException {
+        Path backupDir = AppConfig.getInstance().getBackupDirectory();
+        if (!Files.exists(backupDir)) {
+            return new ArrayList<>();
+        }
+        Path index = backupDir.resolve(CATALOG);
+        Map<String, List<CatalogEntry>> cataloged = readCatalog(index);
+        Map<String, List<CatalogEntry>> current = new LinkedHashMap<>();
+        boolean changed = false;
+        for (Path archive : listArchives()) {
+            String name = archive.getFileName().toString();
+            long size = Files.size(archive);
+            long modified = Files.getLastModifiedTime(archive).toMillis();
+            List<CatalogEntry> entries = cataloged.get(name);
+            if (entries == null || entries.get(0).getArchiveSize() != size || entries.get(0).getArchiveModified() != modified) {
+                try {
+                    entries = catalogArchive(archive, size, modified);
+                } catch (IOException e) {
+                    System.err.println("Warning: Could not catalog " + archive + ": " + e.getMessage());
+                    continue;
+                }
+                changed = true;
+            }
+            if (!entries.isEmpty()) {
+                current.put(name, entries);
+            }
+        }
+        if (changed || !current.keySet().equals(cataloged.keySet())) {
+            writeCatalog(index, current);
+        }
+        List<CatalogEntry> all = new ArrayList<>();
+        current.values().forEach(all::addAll);
+        return all;
+    }
+
+    /**
+     * Verifies every archive in the backup directory on the configured number of threads.
+     * @see #verifyBackups(int)
+     */
+    public List<VerifyResult> verifyBackups() throws IOException {
+        return verifyBackups(AppConfig.getInstance().getBackupThreads());
+    }
+
+    /**
+     * Re-reads every cataloged entry in parallel, one task per entry, and checks that it inflates without a
+     * CRC error to the size and SHA-256 in the catalog. Archives that cannot be opened are reported too.
+     * @param threads Entries verified at once.
+     * @return One result per entry, failures included, in catalog order.
+     * @throws IOException if the catalog cannot be read.
+     */
+    public List<VerifyResult> verifyBackups(int threads) throws IOException {
+        List<CatalogEntry> catalog = listCatalog();
+        Map<String, List<CatalogEntry>> byArchive = new LinkedHashMap<>();
+        for (CatalogEntry entry : catalog) {
+            byArchive.computeIfAbsent(entry.getArchive(), k -> new ArrayList<>()).add(entry);
+        }
+        Path backupDir = AppConfig.getInstance().getBackupDirectory();
+        List<VerifyResult> results = new ArrayList<>();
+        for (Path archive : listArchives()) {
+            if (!byArchive.containsKey(archive.getFileName().toString())) {
+                String message = "Not cataloged";
+                try {
+                    catalogArchive(archive, Files.size(archive), Files.getLastModifiedTime(archive).toMillis());
+                } catch (IOException e) {
+                    message = "Unreadable: " + e.getMessage();
+                }
+                results.add(new VerifyResult(archive.getFileName().toString(), null, false, message));
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "backup-verify");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<ZipFile> open = new ArrayList<>();
+        try {
+            List<Future<VerifyResult>> futures = new ArrayList<>();
+            for (Map.Entry<String, List<CatalogEntry>> archive : byArchive.entrySet()) {
+                ZipFile zip;
+                try {
+                    zip = new ZipFile(backupDir.resolve(archive.getKey()).toFile());
+                } catch (IOException e) {
+                    results.add(new VerifyResult(archive.getKey(), null, false, "Cannot open: " + e.getMessage()));
+                    continue;
+                }
+                open.add(zip);
+                // ZipFile serves concurrent entry streams, so one open archive is shared by its tasks
+                for (CatalogEntry entry : archive.getValue()) {
+                    futures.add(pool.submit(() -> verifyEntry(zip, entry)));
+                }
+            }
+            for (Future<VerifyResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IOException("Verification failed: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Verification interrupted", e);
+        } finally {
+            pool.shutdownNow();
+            for (ZipFile zip : open) {
+                zip.close();
+            }
+        }
+        long failed = results.stream().filter(result -> !result.isOk()).count();
+        System.out.println("Verified " + results.size() + " backup entries, " + failed + " failed.");
+        return results;
+    }
+
+    private VerifyResult verifyEntry(ZipFile zip, CatalogEntry expected) {
+        ZipEntry entry = zip.getEntry(expected.getEntry());
+        if (entry == null) {
+            return new VerifyResult(expected.getArchive(), expected.getEntry(), false, "Entry is missing");
+        }
+        MessageDigest digest = sha256();
+        CRC32 crc = new CRC32();
+        long size;
+        try {
+            size = digestEntry(zip, entry, digest, crc);
+        } catch (IOException e) {
+            return new VerifyResult(expected.getArchive(), expected.getEntry(), false, "Unreadable: " + e.getMessage());
+        }
+        if (crc.getValue() != entry.getCrc() || crc.getValue() != expected.getCrc()) {
+            return new VerifyResult(expected.getArchive(), expected.getEntry(), false, "CRC does not match");
+        }
+        if (size != expected.getSize()) {
+            return new VerifyResult(expected.getArchive(), expected.getEntry(), false,
+                    "Size " + size + " differs from the cataloged " + expected.getSize());
+        }
+        if (!HexFormat.of().formatHex(digest.digest()).equals(expected.getSha256())) {
+            return new VerifyResult(expected.getArchive(), expected.getEntry(), false, "SHA-256 differs from the catalog");
+        }
+        return new VerifyResult(expected.getArchive(), expected.getEntry(), true, "OK");
+    }
+
+    /**
+     * Restores a database backup into the database through the bulk importer, entries streamed straight
+     * from the archive. Instructors, courses, students and enrollments go through the bulk loader, which
+     * upserts; the probation tables, dropped enrollments and the enrollment columns the bulk layout lacks
+     * are then merged in one transaction. A table whose archive entry still matches both the catalog and
+     * the backup's own manifest (CRC, size and SHA-256), and whose bytes hash to that SHA-256 when read
+     * back, is loaded without the duplicate and reference checks, since it holds exactly the rows that were
+     * backed up. Rows added after the backup are kept.
+     * @param archive A database backup written by performDatabaseBackup.
+     * @return Rows restored per table; ENROLLMENTS counts the bulk load.
+     * @throws IOException if the archive is not a readable database backup.
+     * @throws SQLException if a database error occurs; the current table's changes are rolled back.
+     */
+    public Map<String, Integer> restoreDatabaseBackup(Path archive, BulkLoadService bulkLoadService,
+                                                      ImportExportService.ImportProgressCallback callback)
+            throws IOException, SQLException {
+        Map<String, CatalogEntry> cataloged = new HashMap<>();
+        String archiveName = archive.getFileName().toString();
+        if (archive.toAbsolutePath().getParent().equals(AppConfig.getInstance().getBackupDirectory().toAbsolutePath())) {
+            for (CatalogEntry entry : listCatalog()) {
+                if (entry.getArchive().equals(archiveName)) {
+                    cataloged.put(entry.getEntry(), entry);
+                }
+            }
+        }
+
+        Map<String, Integer> restored = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            ZipEntry manifestEntry = zip.getEntry(DATABASE_MANIFEST);
+            if (manifestEntry == null) {
+                throw new IOException(archiveName + " is not a database backup: it has no " + DATABASE_MANIFEST);
+            }
+            Properties manifest = new Properties();
+            try (InputStream in = zip.getInputStream(manifestEntry)) {
+                manifest.load(in);
+            }
+
+            for (String table : BULK_RESTORE_TABLES) {
+                ZipEntry entry = manifestEntry(zip, manifest, table);
+                CatalogEntry expected = cataloged.get(entry.getName());
+                // The metadata alone can match a damaged entry, so the bytes are hashed before they are trusted
+                boolean trusted = matchesManifest(entry, expected, manifest, table) && verifyEntry(zip, expected).isOk();
+                System.out.println("     - Restoring " + table + (trusted ? " (checksum verified)" : " (validating rows)") + "...");
+                int rows = Integer.parseInt(manifest.getProperty(table + ".rows", "0"));
+                try (Reader reader = new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8)) {
+                    BulkLoadService.BulkLoadResult result = bulkLoadService.load(table, archiveName + "!" + entry.getName(),
+                            reader, rows, !trusted, callback);
+                    restored.put(table, result.getLoaded());
+                }
+            }
+
+            try (Connection conn = DatabaseManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    for (DirectRestore table : DIRECT_RESTORES) {
+                        if (callback != null) callback.onPhase("Restoring " + table.table);
+                        int rows = restoreRows(zip, manifestEntry(zip, manifest, table.table), table, conn);
+                        restored.putIfAbsent(table.table, rows);
+                    }
+                    conn.commit();
+                } catch (IOException | SQLException | RuntimeException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        }
+        System.out.println("Database restored from " + archive + ": " + restored);
+        return restored;
+    }
+
+    private static ZipEntry manifestEntry(ZipFile zip, Properties manifest, String table) throws IOException {
+        String name = manifest.getProperty(table + ".entry");
+        ZipEntry entry = name != null ? zip.getEntry(name) : null;
+        if (entry == null) {
+            throw new IOException("The backup has no entry for " + table);
+        }
+        return entry;
+    }
+
+    // The catalog's SHA-256 was computed from the entry's bytes, the CRC and size tie it to the entry as it is now
+    private static boolean matchesManifest(ZipEntry entry, CatalogEntry cataloged, Properties manifest, String table) {
+        return cataloged != null
+                && cataloged.getCrc() == entry.getCrc()
+                && cataloged.getSize() == entry.getSize()
+                && cataloged.getSha256().equals(manifest.getProperty(table + ".sha256"));
+    }
+
+    private int restoreRows(ZipFile zip, ZipEntry entry, DirectRestore table, Connection conn) throws IOException, SQLException {
+        int rows = 0;
+        int pending = 0;
+        try (CsvReader csv = new CsvReader(new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8));
+             PreparedStatement pstmt = conn.prepareStatement(table.sql)) {
+            // Header
+            csv.next();
+            while (csv.next()) {
+                for (int i = 0; i < table.types.length; i++) {
+                    String value = i < csv.fieldCount() ? csv.string(i) : "";
+                    if (value.isEmpty()) {
+                        pstmt.setNull(i + 1, table.types[i]);
+                    } else if (table.types[i] == Types.DATE) {
+                        pstmt.setDate(i + 1, java.sql.Date.valueOf(value));
+                    } else if (table.types[i] == Types.NUMERIC) {
+                        pstmt.setBigDecimal(i + 1, new java.math.BigDecimal(value));
+                    } else {
+                        pstmt.setString(i + 1, value);
+                    }
+                }
+                pstmt.addBatch();
+                rows++;
+                if (++pending == 5000) {
+                    pstmt.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                pstmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error restoring " + table.table + ": " + e.getMessage(), e);
+        }
+        return rows;
+    }
+
+    private List<Path> listArchives() throws IOException {
+        try (Stream<Path> files = Files.list(AppConfig.getInstance().getBackupDirectory())) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".zip") && Files.isRegularFile(file))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<CatalogEntry> catalogArchive(Path archive, long archiveSize, long archiveModified) throws IOException {
+        String name = archive.getFileName().toString();
+        List<CatalogEntry> entries = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            Properties manifest = new Properties();
+            ZipEntry manifestEntry = zip.getEntry(DATABASE_MANIFEST);
+            if (manifestEntry != null) {
+                try (InputStream in = zip.getInputStream(manifestEntry)) {
+                    manifest.load(in);
+                }
+            }
+            Map<String, String> tableOf = new HashMap<>();
+            for (String table : manifest.getProperty("tables", "").split(",")) {
+                if (!table.isEmpty()) {
+                    tableOf.put(manifest.getProperty(table + ".entry"), table);
+                }
+            }
+
+            Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+            while (zipEntries.hasMoreElements()) {
+                ZipEntry entry = zipEntries.nextElement();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                MessageDigest digest = sha256();
+                CRC32 crc = new CRC32();
+                digestEntry(zip, entry, digest, crc);
+                if (crc.getValue() != entry.getCrc()) {
+                    throw new IOException("CRC mismatch in " + entry.getName());
+                }
+                String sha = HexFormat.of().formatHex(digest.digest());
+                String table = tableOf.get(entry.getName());
+                long rows = -1;
+                if (table != null) {
+                    rows = Long.parseLong(manifest.getProperty(table + ".rows", "-1"));
+                    if (!sha.equals(manifest.getProperty(table + ".sha256"))) {
+                        System.err.println("Warning: " + name + "!" + entry.getName() + " does not match its manifest checksum.");
+                    }
+                }
+                entries.add(new CatalogEntry(name, archiveSize, archiveModified, entry.getName(), entry.getSize(),
+                        entry.getCompressedSize(), entry.getCrc(), sha, rows));
+            }
+        }
+        return entries;
+    }
+
+    // ZipFile does not check CRCs itself, so both the catalog and verify compute one
+    private static long digestEntry(ZipFile zip, ZipEntry entry, MessageDigest digest, CRC32 crc) throws IOException {
+        long size = 0;
+        try (InputStream in = zip.getInputStream(entry)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                crc.update(buffer, 0, read);
+                size += read;
+            }
+        }
+        return size;
+    }
+
+    private Map<String, List<CatalogEntry>> readCatalog(Path index) throws IOException {
+        Map<String, List<CatalogEntry>> catalog = new LinkedHashMap<>();
+        if (!Files.exists(index)) {
+            return catalog;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\t", 9);
+                if (parts.length < 9) {
+                    // A damaged line only costs re-cataloging its archive
+                    continue;
+                }
+                try {
+                    catalog.computeIfAbsent(parts[0], k -> new ArrayList<>()).add(new CatalogEntry(parts[0],
+                            Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[8], Long.parseLong(parts[3]),
+                            Long.parseLong(parts[4]), Long.parseLong(parts[5]), parts[6], Long.parseLong(parts[7])));
+                } catch (NumberFormatException e) {
+                    catalog.remove(parts[0]);
+                }
+            }
+        }
+        return catalog;
+    }
+
+    private void writeCatalog(Path index, Map<String, List<CatalogEntry>> catalog) throws IOException {
+        Path temp = index.resolveSibling(index.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# archive\tarchiveSize\tarchiveModified\tsize\tcompressedSize\tcrc\tsha256\trows\tentry");
+            writer.newLine();
+            for (List<CatalogEntry> entries : catalog.values()) {
+                for (CatalogEntry entry : entries) {
+                    writer.write(entry.getArchive() + "\t" + entry.getArchiveSize() + "\t" + entry.getArchiveModified()
+                            + "\t" + entry.getSize() + "\t" + entry.getCompressedSize() + "\t" + entry.getCrc()
+                            + "\t" + entry.getSha256() + "\t" + entry.getRows() + "\t" + entry.getEntry());
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void updateCatalog() {
+        try {
+            listCatalog();
+        } catch (IOException e) {
+            System.err.println("Warning: Could not update the backup catalog: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Backs up the data directory into a content-addressed chunk store under the backup directory.
+     * Each file is cut into content-defined chunks; a chunk is stored (deflated, named by the SHA-256 of
+     * its contents) only if no earlier backup stored it, and the backup itself is a small manifest listing
+     * each file's chunks. Files whose size and modification time match the previous manifest are not even
+     * read, so backing up an unchanged dataset costs one manifest.
+     * @return The manifest written.
+     * @throws IOException if the backup cannot be written.
+     */
+    public Path performIncrementalBackup() throws IOException {
+        Path dataDir = AppConfig.getInstance().getDataDirectory();
+        Path backupDir = AppConfig.getInstance().getBackupDirectory();
+        Path manifestDir = backupDir.resolve("manifests");
+        Files.createDirectories(manifestDir);
+        Files.createDirectories(chunkDir());
+
+        Map<String, ManifestEntry> previous = new HashMap<>();
+        List<Path> manifests = listManifests();
+        if (!manifests.isEmpty()) {
+            for (ManifestEntry entry : readManifest(manifests.get(manifests.size() - 1))) {
+                previous.put(entry.getPath(), entry);
+            }
+        }
+
+        List<ManifestEntry> entries = new ArrayList<>();
+        int newChunks = 0;
+        if (Files.exists(dataDir)) {
+            List<Path> files;
             try (Stream<Path> paths = Files.walk(dataDir)) {
-                paths.filter(path -> !Files.isDirectory(path)).forEach(path -> {
-                    ZipEntry zipEntry = new ZipEntry(dataDir.relativize(path).toString());
-                    try {
-                        zos.putNextEntry(zipEntry);
-                        Files.copy(path, zos);
-                        zos.closeEntry();
-                    } catch (IOException e) {
-                        System.err.println("Could not add file to zip: " + path);
+                files = paths.filter(Files::isRegularFile).sorted().toList();
+            }
+            for (Path file : files) {
+                String relative = dataDir.relativize(file).toString().replace('\\', '/');
+                long size = Files.size(file);
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                ManifestEntry old = previous.get(relative);
+                if (old != null && old.getSize() == size && old.getModified() == modified && chunksPresent(old)) {
+                    entries.add(old);
+                    continue;
+                }
+                List<String> chunks = new ArrayList<>();
+                newChunks += storeChunks(file, chunks);
+                entries.add(new ManifestEntry(relative, size, modified, chunks));
+            }
+        }
+
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        Path manifest = manifestDir.resolve("ccrm-backup-" + timestamp + ".manifest");
+        writeManifest(manifest, entries);
+        System.out.println("Incremental backup written to " + manifest + " (" + entries.size() + " files, "
+                + newChunks + " new chunks)");
+        return manifest;
+    }
+
+    /**
+     * @return Every incremental backup manifest, oldest first.
+     */
+    public List<Path> listManifests() throws IOException {
+        Path manifestDir = AppConfig.getInstance().getBackupDirectory().resolve("manifests");
+        if (!Files.exists(manifestDir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> paths = Files.list(manifestDir)) {
+            // Timestamped names sort chronologically
+            return paths.filter(p -> p.getFileName().toString().endsWith(".manifest")).sorted().toList();
+        }
+    }
+
+    /**
+     * Rebuilds the files of an incremental backup into a directory, checking every chunk against its hash.
+     * Each file is written next to its target and moved into place once complete, with its original
+     * modification time.
+     * @param manifest The manifest of the backup to restore.
+     * @param targetDir Where to recreate the data directory's files.
+     * @throws IOException if a chunk is missing or corrupt, or a file cannot be written.
+     */
+    public void restoreIncremental(Path manifest, Path targetDir) throws IOException {
+        for (ManifestEntry entry : readManifest(manifest)) {
+            Path target = targetDir.resolve(entry.getPath()).normalize();
+            if (!target.startsWith(targetDir.normalize())) {
+                throw new IOException("Manifest entry escapes the target directory: " + entry.getPath());
+            }
+            Files.createDirectories(target.getParent());
+            Path temp = target.resolveSibling(target.getFileName() + ".restoring");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                for (String chunk : entry.getChunks()) {
+                    out.write(readChunk(chunk));
+                }
+            }
+            if (Files.size(temp) != entry.getSize()) {
+                Files.delete(temp);
+                throw new IOException("Restored size of " + entry.getPath() + " does not match the manifest");
+            }
+            Files.setLastModifiedTime(temp, FileTime.fromMillis(entry.getModified()));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        System.out.println("Restored " + manifest.getFileName() + " into " + targetDir);
+    }
+
+    public List<ManifestEntry> readManifest(Path manifest) throws IOException {
+        List<ManifestEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                // size, modified, chunks, path; the path goes last so it may contain anything but a line break
+                String[] parts = line.split("\t", 4);
+                if (parts.length != 4) {
+                    throw new IOException("Malformed manifest line in " + manifest + ": " + line);
+                }
+                List<String> chunks = parts[2].isEmpty() ? new ArrayList<>() : List.of(parts[2].split(","));
+                entries.add(new ManifestEntry(parts[3], Long.parseLong(parts[0]), Long.parseLong(parts[1]), chunks));
+            }
+        }
+        return entries;
+    }
+
+    private void writeManifest(Path manifest, List<ManifestEntry> entries) throws IOException {
+        Path temp = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# CCRM incremental backup manifest v1: size, modified, chunks, path");
+            writer.newLine();
+            for (ManifestEntry entry : entries) {
+                writer.write(entry.getSize() + "\t" + entry.getModified() + "\t"
+                        + String.join(",", entry.getChunks()) + "\t" + entry.getPath());
+                writer.newLine();
+            }
+        }
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Cuts a file into content-defined chunks with a gear rolling hash and stores the ones not yet present.
+     * @return The number of chunks that were new.
+     */
+    private int storeChunks(Path file, List<String> hashes) throws IOException {
+        int stored = 0;
+        byte[] chunk = new byte[MAX_CHUNK];
+        int length = 0;
+        long hash = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    chunk[length++] = b;
+                    hash = (hash << 1) + GEAR[b & 0xff];
+                    if ((length >= MIN_CHUNK && (hash & BOUNDARY_MASK) == 0) || length == MAX_CHUNK) {
+                        stored += storeChunk(chunk, length, hashes);
+                        length = 0;
+                        hash = 0;
                     }
-                });
+                }
+            }
+        }
+        if (length > 0) {
+            stored += storeChunk(chunk, length, hashes);
+        }
+        return stored;
+    }
+
+    private int storeChunk(byte[] data, int length, List<String> hashes) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(data, 0, length);
+        String hash = HexFormat.of().formatHex(digest.digest());
+        hashes.add(hash);
+        Path path = chunkPath(hash);
+        if (Files.exists(path)) {
+            return 0;
+        }
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(hash + ".tmp");
+        try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(temp))) {
+            out.write(data, 0, length);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return 1;
+    }
+
+    private byte[] readChunk(String hash) throws IOException {
+        Path path = chunkPath(hash);
+        if (!Files.exists(path)) {
+            throw new IOException("Backup chunk " + hash + " is missing");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = new InflaterInputStream(Files.newInputStream(path))) {
+            in.transferTo(bytes);
+        }
+        byte[] data = bytes.toByteArray();
+        if (!HexFormat.of().formatHex(sha256().digest(data)).equals(hash)) {
+            throw new IOException("Backup chunk " + hash + " is corrupt");
+        }
+        return data;
+    }
+
+    private boolean chunksPresent(ManifestEntry entry) {
+        for (String chunk : entry.getChunks()) {
+            if (!Files.exists(chunkPath(chunk))) {
+                return false;
             }
-            System.out.println("Backup created successfully at " + backupFile);
+        }
+        return true;
+    }
+
+    private Path chunkDir() {
+        return AppConfig.getInstance().getBackupDirectory().resolve("chunks");
+    }
+
+    // Fanned out by the first two hex digits to keep directories small
+    private Path chunkPath(String hash) {
+        return chunkDir().resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 }
\ No newline at end of file
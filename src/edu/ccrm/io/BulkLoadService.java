@@ -0,0 +1,623 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.CourseCode;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.io.ImportExportService.ImportProgressCallback;
+import edu.ccrm.io.csv.CsvReader;
+import edu.ccrm.service.CgpaService;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.InstructorService;
+import edu.ccrm.service.StudentService;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bulk mode for the CSV importers, meant for full yearly reloads.
+ * Each file is streamed into a session-private staging table (STG_*) with large JDBC batches. Row-local
+ * problems (bad numbers, dates, enum values, oversized text) are caught while parsing and the row is
+ * staged with a reject reason. One set-based validation pass then marks in-file duplicates and missing
+ * references, one MERGE loads the valid rows into the target table, and one INSERT copies the rejected
+ * rows into IMPORT_ERRORS. Everything for one file runs in a single transaction.
+ * Unlike ImportExportService, bulk mode upserts existing rows and never creates placeholder records:
+ * enrollments that reference an unknown student or course are rejected.
+ */
+public class BulkLoadService {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final StudentService studentService;
+    private final InstructorService instructorService;
+    private final CourseService courseService;
+    private final CgpaService cgpaService = new CgpaService();
+
+    public BulkLoadService(StudentService studentService, InstructorService instructorService, CourseService courseService) {
+        this.studentService = studentService;
+        this.instructorService = instructorService;
+        this.courseService = courseService;
+    }
+
+    public static class BulkLoadResult {
+        private final String table;
+        private final long runId;
+        private final int staged;
+        private final int loaded;
+        private final int rejected;
+
+        public BulkLoadResult(String table, long runId, int staged, int loaded, int rejected) {
+            this.table = table;
+            this.runId = runId;
+            this.staged = staged;
+            this.loaded = loaded;
+            this.rejected = rejected;
+        }
+
+        public String getTable() { return table; }
+        public long getRunId() { return runId; }
+        public int getStaged() { return staged; }
+        public int getLoaded() { return loaded; }
+        public int getRejected() { return rejected; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d rows staged, %d loaded, %d rejected (IMPORT_ERRORS run %d)",
+                    table, staged, loaded, rejected, runId);
+        }
+    }
+
+    public BulkLoadResult loadInstructors(Path path, ImportProgressCallback callback) throws IOException, SQLException {
+        return load(path, new InstructorTable(), callback);
+    }
+
+    public BulkLoadResult loadCourses(Path path, ImportProgressCallback callback) throws IOException, SQLException {
+        return load(path, new CourseTable(), callback);
+    }
+
+    public BulkLoadResult loadStudents(Path path, ImportProgressCallback callback) throws IOException, SQLException {
+        return load(path, new StudentTable(), callback);
+    }
+
+    public BulkLoadResult loadEnrollments(Path path, ImportProgressCallback callback) throws IOException, SQLException {
+        return load(path, new EnrollmentTable(), callback);
+    }
+
+    public BulkLoadResult loadProbationReports(Path path, ImportProgressCallback callback) throws IOException, SQLException {
+        return load(path, new ProbationTable(), callback);
+    }
+
+    /**
+     * Bulk loads CSV text that does not come from a file of its own, such as an entry of a backup archive.
+     * When the caller already knows the rows are exactly what this application wrote (a backup whose
+     * checksum matched), the duplicate and reference checks are skipped and valid rows go straight to the
+     * MERGE; malformed rows are still rejected while parsing.
+     * @param table INSTRUCTORS, COURSES, STUDENTS, ENROLLMENTS or PROBATION_REPORTS, in the same CSV layouts
+     * as the file loaders.
+     * @param source Name recorded in IMPORT_ERRORS for rejected rows.
+     * @param reader The CSV, header included; closed when the load ends.
+     * @param total Expected number of data rows, for progress only.
+     * @param validate False to skip the set-based validation pass.
+     */
+    public BulkLoadResult load(String table, String source, Reader reader, int total, boolean validate,
+                               ImportProgressCallback callback) throws IOException, SQLException {
+        StagedTable staged;
+        switch (table) {
+            case "INSTRUCTORS":       staged = new InstructorTable(); break;
+            case "COURSES":           staged = new CourseTable(); break;
+            case "STUDENTS":          staged = new StudentTable(); break;
+            case "ENROLLMENTS":       staged = new EnrollmentTable(); break;
+            case "PROBATION_REPORTS": staged = new ProbationTable(); break;
+            default: throw new IllegalArgumentException("No bulk loader for table " + table);
+        }
+        return load(source, () -> new CsvReader(reader), staged, callback, total, validate);
+    }
+
+    private interface CsvSource {
+        CsvReader open() throws IOException;
+    }
+
+    /**
+     * Describes how one CSV file maps onto its staging table and target table.
+     * Staging tables always start with LINE_NO and end with REJECT_REASON.
+     */
+    private abstract static class StagedTable {
+        final String target;
+        final String staging;
+        final String[] columns;
+        final int[] types;
+        final String[] keyColumns;
+
+        StagedTable(String target, String staging, String[] columns, int[] types, String... keyColumns) {
+            this.target = target;
+            this.staging = staging;
+            this.columns = columns;
+            this.types = types;
+            this.keyColumns = keyColumns;
+        }
+
+        void header(String[] headers) {}
+
+        /**
+         * Converts one CSV row into staging rows, in column order.
+         * @throws IllegalArgumentException with the reject reason if the row is malformed.
+         */
+        abstract List<Object[]> parse(String[] parts);
+
+        /**
+         * Set-based checks run after the in-file duplicate check. Each is an UPDATE of the staging table
+         * that sets REJECT_REASON on rows that are still valid.
+         */
+        String[] validationSql() {
+            return new String[0];
+        }
+
+        /**
+         * Statements that move the valid staging rows into the target; the first one's update count is
+         * reported as the number of rows loaded.
+         */
+        abstract String[] mergeSql();
+    }
+
+    private BulkLoadResult load(Path path, StagedTable table, ImportProgressCallback callback) throws IOException, SQLException {
+        int total = (int) ImportExportService.countDataLines(path);
+        return load(path.getFileName().toString(), () -> CsvReader.open(path), table, callback, total, true);
+    }
+
+    private BulkLoadResult load(String source, CsvSource csv, StagedTable table, ImportProgressCallback callback, int total,
+                                boolean validate) throws IOException, SQLException {
+        long runId = System.currentTimeMillis();
+        System.out.println("     - Bulk loading " + source + " into " + table.target + "...");
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                BulkLoadResult result = load(source, csv, table, callback, total, validate, runId, conn);
+                conn.commit();
+                System.out.println("✔ Bulk loaded " + result);
+                return result;
+            } catch (IOException | SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+                studentService.getCache().invalidateAll();
+                instructorService.getCache().invalidateAll();
+                courseService.getCache().invalidateAll();
+            }
+        }
+    }
+
+    private BulkLoadResult load(String source, CsvSource csv, StagedTable table, ImportProgressCallback callback, int total,
+                                boolean validate, long runId, Connection conn) throws IOException, SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // Staging rows are preserved on commit, so a pooled session may still hold a previous load's rows
+            stmt.executeUpdate("DELETE FROM " + table.staging);
+
+            phase(callback, "Staging " + table.target);
+            int staged = stage(csv, table, callback, total, conn);
+
+            if (validate) {
+                phase(callback, "Validating " + table.target);
+                stmt.executeUpdate(duplicateKeySql(table));
+                for (String sql : table.validationSql()) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+
+            phase(callback, "Merging into " + table.target);
+            int loaded = 0;
+            String[] mergeSql = table.mergeSql();
+            for (int i = 0; i < mergeSql.length; i++) {
+                int count = stmt.executeUpdate(mergeSql[i]);
+                if (i == 0) {
+                    loaded = count;
+                }
+            }
+
+            phase(callback, "Recording rejected " + table.target + " rows");
+            String keyExpr = String.join(" || '|' || ", table.keyColumns);
+            int rejected;
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO import_errors (run_id, table_name, file_name, line_no, record_key, reason, logged_at) "
+                    + "SELECT ?, ?, ?, line_no, " + keyExpr + ", reject_reason, SYSDATE FROM " + table.staging
+                    + " WHERE reject_reason IS NOT NULL")) {
+                pstmt.setLong(1, runId);
+                pstmt.setString(2, table.target);
+                pstmt.setString(3, source);
+                rejected = pstmt.executeUpdate();
+            }
+
+            if (table instanceof EnrollmentTable) {
+                // The MERGE may change any student's grades; one aggregate refreshes every running total
+                phase(callback, "Refreshing grade totals");
+                cgpaService.recomputeAll(conn, null);
+            }
+            stmt.executeUpdate("DELETE FROM " + table.staging);
+            return new BulkLoadResult(table.target, runId, staged, loaded, rejected);
+        }
+    }
+
+    private int stage(CsvSource source, StagedTable table, ImportProgressCallback callback, int total, Connection conn)
+            throws IOException, SQLException {
+        int width = table.columns.length;
+        String insertSql = "INSERT INTO " + table.staging + " (line_no, " + String.join(", ", table.columns) + ", reject_reason) VALUES (?"
+                + ", ?".repeat(width + 1) + ")";
+        try (PreparedStatement pstmt = conn.prepareStatement(insertSql);
+             CsvReader csv = source.open()) {
+            if (!csv.next()) {
+                return 0;
+            }
+            table.header(csv.toArray());
+
+            int rowsRead = 0;
+            int pending = 0;
+            int staged = 0;
+            while (csv.next()) {
+                int lineNo = (int) csv.getLineNumber();
+                rowsRead++;
+                List<Object[]> rows;
+                String rejectReason = null;
+                try {
+                    rows = table.parse(csv.toArray());
+                } catch (RuntimeException e) {
+                    rows = row(new Object[width]);
+                    rejectReason = truncate(e.getMessage() != null ? e.getMessage() : e.toString(), 400);
+                }
+                for (Object[] row : rows) {
+                    pstmt.setInt(1, lineNo);
+                    for (int i = 0; i < width; i++) {
+                        if (row[i] != null) {
+                            pstmt.setObject(i + 2, row[i], table.types[i]);
+                        } else {
+                            pstmt.setNull(i + 2, table.types[i]);
+                        }
+                    }
+                    pstmt.setString(width + 2, rejectReason);
+                    pstmt.addBatch();
+                    staged++;
+                    if (++pending == BATCH_SIZE) {
+                        pstmt.executeBatch();
+                        pending = 0;
+                        if (callback != null) callback.onProgress(rowsRead, total);
+                    }
+                }
+            }
+            if (pending > 0) {
+                pstmt.executeBatch();
+            }
+            if (callback != null) callback.onProgress(rowsRead, total);
+            return staged;
+        }
+    }
+
+    // Keeps the last row for each key: MERGE cannot take two source rows for the same target row
+    private static String duplicateKeySql(StagedTable table) {
+        String keys = String.join(", ", table.keyColumns);
+        return "UPDATE " + table.staging + " SET reject_reason = 'Duplicate of a later row in the file' "
+                + "WHERE rowid IN (SELECT rid FROM (SELECT rowid AS rid, ROW_NUMBER() OVER (PARTITION BY " + keys
+                + " ORDER BY line_no DESC) AS rn FROM " + table.staging + " WHERE reject_reason IS NULL) WHERE rn > 1)";
+    }
+
+    private static void phase(ImportProgressCallback callback, String phase) {
+        if (callback != null) callback.onPhase(phase);
+    }
+
+    // =========================================================================
+    // ROW-LOCAL PARSING
+    // =========================================================================
+    private static String text(String[] parts, int index, String name, int maxLength, boolean required) {
+        String value = index < parts.length ? parts[index].trim() : "";
+        if (value.isEmpty()) {
+            if (required) {
+                throw new IllegalArgumentException(name + " is required");
+            }
+            return null;
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(name + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static Integer number(String[] parts, int index, String name, boolean required) {
+        String value = text(parts, index, name, 20, required);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+    }
+
+    private static java.sql.Date date(String[] parts, int index, String name, boolean required) {
+        String value = text(parts, index, name, 20, required);
+        if (value == null) {
+            return null;
+        }
+        LocalDate date = ImportExportService.parseDateRobust(value);
+        if (date == null) {
+            throw new IllegalArgumentException(name + " is not a valid date: " + value);
+        }
+        return java.sql.Date.valueOf(date);
+    }
+
+    private static List<Object[]> row(Object... values) {
+        List<Object[]> rows = new ArrayList<>(1);
+        rows.add(values);
+        return rows;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    // =========================================================================
+    // TABLES
+    // =========================================================================
+    private static final class InstructorTable extends StagedTable {
+        InstructorTable() {
+            super("INSTRUCTORS", "STG_INSTRUCTORS",
+                    new String[]{"fid", "first_name", "last_name", "email", "department", "dob", "phone", "cabin_no"},
+                    new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DATE, Types.VARCHAR, Types.VARCHAR},
+                    "fid");
+        }
+
+        @Override
+        List<Object[]> parse(String[] parts) {
+            return row(
+                    text(parts, 0, "FiD", 20, true),
+                    text(parts, 1, "firstName", 50, false),
+                    text(parts, 2, "lastName", 50, false),
+                    text(parts, 3, "email", 100, false),
+                    text(parts, 4, "department", 100, false),
+                    date(parts, 5, "dob", false),
+                    text(parts, 6, "phone", 20, false),
+                    text(parts, 7, "cabinNo", 20, false));
+        }
+
+        @Override
+        String[] mergeSql() {
+            return new String[]{
+                "MERGE INTO instructors t USING (SELECT * FROM stg_instructors WHERE reject_reason IS NULL) s "
+                + "ON (t.FiD = s.fid) "
+                + "WHEN MATCHED THEN UPDATE SET t.first_name = s.first_name, t.last_name = s.last_name, t.email = s.email, "
+                + "  t.department = s.department, t.dob = s.dob, t.phone = s.phone, t.cabin_no = s.cabin_no "
+                + "WHEN NOT MATCHED THEN INSERT (FiD, first_name, last_name, email, department, dob, phone, cabin_no) "
+                + "  VALUES (s.fid, s.first_name, s.last_name, s.email, s.department, s.dob, s.phone, s.cabin_no)"
+            };
+        }
+    }
+
+    private static final class CourseTable extends StagedTable {
+        CourseTable() {
+            super("COURSES", "STG_COURSES",
+                    new String[]{"code", "title", "credits", "department", "instructor_id", "semester", "classroom_no"},
+                    new int[]{Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR},
+                    "code");
+        }
+
+        @Override
+        List<Object[]> parse(String[] parts) {
+            String semester = text(parts, 5, "semester", 20, true);
+            try {
+                semester = Semester.valueOf(semester).name();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown semester: " + semester);
+            }
+            return row(
+                    new CourseCode(text(parts, 0, "code", 10, true)).getCode(),
+                    text(parts, 1, "title", 100, false),
+                    number(parts, 2, "credits", true),
+                    text(parts, 3, "department", 100, false),
+                    text(parts, 4, "instructorId", 20, true),
+                    semester,
+                    text(parts, 6, "classroomNo", 20, false));
+        }
+
+        @Override
+        String[] validationSql() {
+            return new String[]{
+                "UPDATE stg_courses g SET reject_reason = 'Instructor not found' WHERE reject_reason IS NULL "
+                + "AND NOT EXISTS (SELECT 1 FROM instructors i WHERE i.FiD = g.instructor_id)"
+            };
+        }
+
+        @Override
+        String[] mergeSql() {
+            return new String[]{
+                "MERGE INTO courses t USING (SELECT * FROM stg_courses WHERE reject_reason IS NULL) s "
+                + "ON (t.code = s.code) "
+                + "WHEN MATCHED THEN UPDATE SET t.title = s.title, t.credits = s.credits, t.department = s.department, "
+                + "  t.instructor_id = s.instructor_id, t.semester = s.semester, t.classroom_no = s.classroom_no "
+                + "WHEN NOT MATCHED THEN INSERT (code, title, credits, department, instructor_id, semester, classroom_no) "
+                + "  VALUES (s.code, s.title, s.credits, s.department, s.instructor_id, s.semester, s.classroom_no)"
+            };
+        }
+    }
+
+    private static final class StudentTable extends StagedTable {
+        StudentTable() {
+            super("STUDENTS", "STG_STUDENTS",
+                    new String[]{"id", "reg_no", "first_name", "last_name", "email", "status", "registration_date", "dob", "phone", "probation_count"},
+                    new int[]{Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                              Types.DATE, Types.DATE, Types.VARCHAR, Types.INTEGER},
+                    "reg_no");
+        }
+
+        @Override
+        List<Object[]> parse(String[] parts) {
+            String status = text(parts, 5, "status", 20, true);
+            try {
+                status = Student.Status.valueOf(status).name();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown status: " + status);
+            }
+            Integer probationCount = number(parts, 9, "probationCount", false);
+            return row(
+                    number(parts, 0, "id", true),
+                    text(parts, 1, "regNo", 20, true),
+                    text(parts, 2, "firstName", 50, false),
+                    text(parts, 3, "lastName", 50, false),
+                    text(parts, 4, "email", 100, false),
+                    status,
+                    date(parts, 6, "registrationDate", true),
+                    date(parts, 7, "dob", false),
+                    text(parts, 8, "phone", 20, false),
+                    probationCount != null ? probationCount : 0);
+        }
+
+        @Override
+        String[] mergeSql() {
+            // Running grade totals and CGPA belong to the enrollments, so a reload leaves them alone
+            return new String[]{
+                "MERGE INTO students t USING (SELECT * FROM stg_students WHERE reject_reason IS NULL) s "
+                + "ON (t.reg_no = s.reg_no) "
+                + "WHEN MATCHED THEN UPDATE SET t.id = s.id, t.first_name = s.first_name, t.last_name = s.last_name, "
+                + "  t.email = s.email, t.status = s.status, t.registration_date = s.registration_date, t.dob = s.dob, "
+                + "  t.phone = s.phone, t.probation_count = s.probation_count "
+                + "WHEN NOT MATCHED THEN INSERT (id, reg_no, first_name, last_name, email, status, registration_date, dob, phone, probation_count) "
+                + "  VALUES (s.id, s.reg_no, s.first_name, s.last_name, s.email, s.status, s.registration_date, s.dob, s.phone, s.probation_count)"
+            };
+        }
+    }
+
+    private static final class EnrollmentTable extends StagedTable {
+        private int idxStudent = -1, idxCourse = -1, idxGrade = -1, idxYear = -1;
+
+        EnrollmentTable() {
+            super("ENROLLMENTS", "STG_ENROLLMENTS",
+                    new String[]{"student_reg_no", "course_code", "enrollment_year", "grade"},
+                    new int[]{Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR},
+                    "student_reg_no", "course_code");
+        }
+
+        @Override
+        void header(String[] headers) {
+            for (int i = 0; i < headers.length; i++) {
+                switch (headers[i].trim().toLowerCase()) {
+                    case "studentregno":   idxStudent = i; break;
+                    case "coursecode":     idxCourse = i; break;
+                    case "grade":          idxGrade = i; break;
+                    case "enrollmentyear": idxYear = i; break;
+                }
+            }
+            if (idxStudent < 0 || idxCourse < 0) {
+                throw new IllegalArgumentException("Enrollment CSV header must contain studentRegNo and courseCode");
+            }
+        }
+
+        @Override
+        List<Object[]> parse(String[] parts) {
+            Integer year = idxYear >= 0 ? number(parts, idxYear, "enrollmentYear", false) : null;
+            String grade = idxGrade >= 0 ? text(parts, idxGrade, "grade", 2, false) : null;
+            if (grade != null) {
+                try {
+                    grade = Grade.valueOf(grade.toUpperCase()).name();
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown grade: " + grade);
+                }
+            }
+            return row(
+                    text(parts, idxStudent, "studentRegNo", 20, true),
+                    new CourseCode(text(parts, idxCourse, "courseCode", 10, true)).getCode(),
+                    year != null ? year : LocalDate.now().getYear(),
+                    grade);
+        }
+
+        @Override
+        String[] validationSql() {
+            return new String[]{
+                "UPDATE stg_enrollments g SET reject_reason = 'Student not found' WHERE reject_reason IS NULL "
+                + "AND NOT EXISTS (SELECT 1 FROM students s WHERE s.reg_no = g.student_reg_no)",
+                "UPDATE stg_enrollments g SET reject_reason = 'Course not found' WHERE reject_reason IS NULL "
+                + "AND NOT EXISTS (SELECT 1 FROM courses c WHERE c.code = g.course_code)"
+            };
+        }
+
+        @Override
+        String[] mergeSql() {
+            // Same upsert as the row importer: the term always comes from the course
+            return new String[]{
+                "MERGE INTO enrollments e USING ("
+                + "  SELECT g.student_reg_no, g.course_code, g.enrollment_year, c.semester AS enrollment_semester, g.grade "
+                + "  FROM stg_enrollments g JOIN courses c ON c.code = g.course_code WHERE g.reject_reason IS NULL) src "
+                + "ON (e.student_reg_no = src.student_reg_no AND e.course_code = src.course_code) "
+                + "WHEN MATCHED THEN UPDATE SET e.grade = src.grade "
+                + "WHEN NOT MATCHED THEN INSERT (student_reg_no, course_code, enrollment_year, enrollment_semester, grade) "
+                + "  VALUES (src.student_reg_no, src.course_code, src.enrollment_year, src.enrollment_semester, src.grade)"
+            };
+        }
+    }
+
+    /**
+     * One staging row per (report, student); a report without students stages a single row with no student.
+     */
+    private static final class ProbationTable extends StagedTable {
+        ProbationTable() {
+            super("PROBATION_REPORTS", "STG_PROBATION",
+                    new String[]{"probation_id", "start_date", "end_date", "reason", "student_reg_no"},
+                    new int[]{Types.VARCHAR, Types.DATE, Types.DATE, Types.VARCHAR, Types.VARCHAR},
+                    "probation_id", "student_reg_no");
+        }
+
+        @Override
+        List<Object[]> parse(String[] parts) {
+            String probationId = text(parts, 0, "probationId", 20, true);
+            java.sql.Date start = date(parts, 2, "startDate", true);
+            java.sql.Date end = date(parts, 3, "endDate", true);
+            String reason = text(parts, 4, "reason", 1000, true);
+            List<Object[]> rows = new ArrayList<>();
+            String regNos = parts.length > 1 ? parts[1] : "";
+            Arrays.stream(regNos.split(";"))
+                    .map(String::trim)
+                    .filter(regNo -> !regNo.isEmpty())
+                    .distinct()
+                    .forEach(regNo -> rows.add(new Object[]{probationId, start, end, reason, truncate(regNo, 20)}));
+            if (rows.isEmpty()) {
+                rows.add(new Object[]{probationId, start, end, reason, null});
+            }
+            return rows;
+        }
+
+        @Override
+        String[] validationSql() {
+            return new String[]{
+                "UPDATE stg_probation g SET reject_reason = 'Student not found' WHERE reject_reason IS NULL "
+                + "AND g.student_reg_no IS NOT NULL AND NOT EXISTS (SELECT 1 FROM students s WHERE s.reg_no = g.student_reg_no)",
+                "UPDATE stg_probation g SET reject_reason = 'Student is already on this probation report' WHERE reject_reason IS NULL "
+                + "AND EXISTS (SELECT 1 FROM probation_students p WHERE p.probation_id = g.probation_id AND p.student_reg_no = g.student_reg_no)"
+            };
+        }
+
+        @Override
+        String[] mergeSql() {
+            // A report still loads when some of its students were rejected; only malformed rows lack dates
+            return new String[]{
+                "MERGE INTO probation_reports t USING ("
+                + "  SELECT probation_id, MAX(start_date) AS start_date, MAX(end_date) AS end_date, MAX(reason) AS reason "
+                + "  FROM stg_probation WHERE start_date IS NOT NULL GROUP BY probation_id) s "
+                + "ON (t.probation_id = s.probation_id) "
+                + "WHEN MATCHED THEN UPDATE SET t.start_date = s.start_date, t.end_date = s.end_date, t.reason = s.reason "
+                + "WHEN NOT MATCHED THEN INSERT (probation_id, start_date, end_date, reason) "
+                + "  VALUES (s.probation_id, s.start_date, s.end_date, s.reason)",
+                "UPDATE students s SET status = 'PROBATION', probation_count = NVL(probation_count, 0) + "
+                + "  (SELECT COUNT(*) FROM stg_probation g WHERE g.student_reg_no = s.reg_no AND g.reject_reason IS NULL) "
+                + "WHERE s.reg_no IN (SELECT student_reg_no FROM stg_probation WHERE reject_reason IS NULL AND student_reg_no IS NOT NULL)",
+                "INSERT INTO probation_students (probation_id, student_reg_no) "
+                + "SELECT probation_id, student_reg_no FROM stg_probation WHERE reject_reason IS NULL AND student_reg_no IS NOT NULL"
+            };
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package edu.ccrm.io;
 
+import edu.ccrm.service.CgpaService;
 import edu.ccrm.service.CourseService;
 import edu.ccrm.service.EnrollmentService;
 import edu.ccrm.service.InstructorService;
@@ -216,9 +217,157 @@ public class DatabaseInitializer {
 
     // Live migrations — add new enrollment columns if not present
     migrateEnrollmentColumns(conn);
+    migrateBulkLoadTables(conn);
+    migrateChangeTracking(conn);
+    migrateStudentIndexes(conn);
     return true;
   }
 
+  /**
+   * Indexes for the student directory's keyset paging, one per StudentService.StudentSort. Each covers
+   * the sort expressions followed by reg_no, so a page is a short range scan from the previous page's
+   * last row in either direction. IX_STUDENTS_TOPPERS serves the dashboard's highest-CGPA list.
+   */
+  private static void migrateStudentIndexes(Connection conn) {
+    String[][] indexes = {
+        {"IX_STUDENTS_ID_KEY", "NVL(id, 0), reg_no"},
+        {"IX_STUDENTS_NAME_KEY", "NVL(last_name, ' '), NVL(first_name, ' '), reg_no"},
+        {"IX_STUDENTS_CGPA_KEY", "NVL(cgpa, -1), reg_no"},
+        {"IX_STUDENTS_TOPPERS", "status, cgpa DESC, reg_no"}
+    };
+    try (Statement stmt = conn.createStatement()) {
+        for (String[] index : indexes) {
+            if (!exists(conn, "SELECT COUNT(*) FROM user_indexes WHERE index_name = '" + index[0] + "'")) {
+                stmt.executeUpdate("CREATE INDEX " + index[0] + " ON STUDENTS (" + index[1] + ")");
+                System.out.println("    - Migrated: Created " + index[0] + " index.");
+            }
+        }
+    } catch (SQLException e) {
+        System.err.println("Warning: Student index migration encountered an issue: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Creates the bulk-load staging tables (global temporary, rows private to each session) and the
+   * IMPORT_ERRORS table that keeps rejected rows across sessions.
+   */
+  private static void migrateBulkLoadTables(Connection conn) {
+    String[][] tables = {
+        {"STG_INSTRUCTORS", "CREATE GLOBAL TEMPORARY TABLE STG_INSTRUCTORS ("
+            + "line_no NUMBER, fid VARCHAR2(20), first_name VARCHAR2(50), last_name VARCHAR2(50), email VARCHAR2(100), "
+            + "department VARCHAR2(100), dob DATE, phone VARCHAR2(20), cabin_no VARCHAR2(20), reject_reason VARCHAR2(400)"
+            + ") ON COMMIT PRESERVE ROWS"},
+        {"STG_COURSES", "CREATE GLOBAL TEMPORARY TABLE STG_COURSES ("
+            + "line_no NUMBER, code VARCHAR2(10), title VARCHAR2(100), credits NUMBER, department VARCHAR2(100), "
+            + "instructor_id VARCHAR2(20), semester VARCHAR2(20), classroom_no VARCHAR2(20), reject_reason VARCHAR2(400)"
+            + ") ON COMMIT PRESERVE ROWS"},
+        {"STG_STUDENTS", "CREATE GLOBAL TEMPORARY TABLE STG_STUDENTS ("
+            + "line_no NUMBER, id NUMBER, reg_no VARCHAR2(20), first_name VARCHAR2(50), last_name VARCHAR2(50), "
+            + "email VARCHAR2(100), status VARCHAR2(20), registration_date DATE, dob DATE, phone VARCHAR2(20), "
+            + "probation_count NUMBER, reject_reason VARCHAR2(400)"
+            + ") ON COMMIT PRESERVE ROWS"},
+        {"STG_ENROLLMENTS", "CREATE GLOBAL TEMPORARY TABLE STG_ENROLLMENTS ("
+            + "line_no NUMBER, student_reg_no VARCHAR2(20), course_code VARCHAR2(10), enrollment_year NUMBER(4), "
+            + "grade VARCHAR2(2), reject_reason VARCHAR2(400)"
+            + ") ON COMMIT PRESERVE ROWS"},
+        {"STG_PROBATION", "CREATE GLOBAL TEMPORARY TABLE STG_PROBATION ("
+            + "line_no NUMBER, probation_id VARCHAR2(20), start_date DATE, end_date DATE, reason VARCHAR2(1000), "
+            + "student_reg_no VARCHAR2(20), reject_reason VARCHAR2(400)"
+            + ") ON COMMIT PRESERVE ROWS"},
+        {"IMPORT_ERRORS", "CREATE TABLE IMPORT_ERRORS ("
+            + "run_id NUMBER NOT NULL, table_name VARCHAR2(30), file_name VARCHAR2(260), line_no NUMBER, "
+            + "record_key VARCHAR2(200), reason VARCHAR2(400), logged_at DATE"
+            + ")"}
+    };
+    try (Statement stmt = conn.createStatement()) {
+        for (String[] table : tables) {
+            try (ResultSet rs = conn.getMetaData().getTables(null, null, table[0], null)) {
+                if (rs.next()) {
+                    continue;
+                }
+            }
+            stmt.executeUpdate(table[1]);
+            System.out.println("    - Migrated: Created " + table[0] + " table.");
+        }
+    } catch (SQLException e) {
+        System.err.println("Warning: Bulk-load table migration encountered an issue: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Change tracking for delta exports. Every tracked table gets a MODIFIED_SEQ column stamped from the
+   * CCRM_CHANGE_SEQ sequence by a row trigger whenever a row is inserted or an exported column is updated,
+   * and deletes (or key changes) leave a tombstone in CHANGE_TOMBSTONES. Triggers keep this true for every
+   * write path, including the MERGEs of the importers and bulk loads.
+   * Existing rows start at 0, so the first delta after the migration needs no special case.
+   */
+  private static void migrateChangeTracking(Connection conn) {
+    // Table, key expression over a row reference, columns whose updates count as a change
+    String[][] tracked = {
+        {"STUDENTS", "%s.reg_no", "id, reg_no, first_name, last_name, email, status, registration_date, dob, phone, probation_count"},
+        {"INSTRUCTORS", "%s.FiD", "FiD, first_name, last_name, email, department, dob, phone, cabin_no"},
+        {"COURSES", "%s.code", "code, title, credits, department, instructor_id, semester, classroom_no"},
+        {"ENROLLMENTS", "%s.student_reg_no || '|' || %<s.course_code", "student_reg_no, course_code, grade, enrollment_year, enrollment_semester"},
+        {"PROBATION_REPORTS", "%s.probation_id", "probation_id, start_date, end_date, reason"},
+        {"PROBATION_STUDENTS", "%s.probation_id || '|' || %<s.student_reg_no", "probation_id, student_reg_no"}
+    };
+    try (Statement stmt = conn.createStatement()) {
+        if (!exists(conn, "SELECT COUNT(*) FROM user_sequences WHERE sequence_name = 'CCRM_CHANGE_SEQ'")) {
+            stmt.executeUpdate("CREATE SEQUENCE CCRM_CHANGE_SEQ START WITH 1 CACHE 1000 ORDER");
+            System.out.println("    - Migrated: Created CCRM_CHANGE_SEQ sequence.");
+        }
+        try (ResultSet rs = conn.getMetaData().getTables(null, null, "CHANGE_TOMBSTONES", null)) {
+            if (!rs.next()) {
+                stmt.executeUpdate("CREATE TABLE CHANGE_TOMBSTONES (table_name VARCHAR2(30) NOT NULL, "
+                    + "row_key VARCHAR2(100) NOT NULL, modified_seq NUMBER NOT NULL, deleted_at DATE)");
+                stmt.executeUpdate("CREATE INDEX IX_CHANGE_TOMBSTONES_SEQ ON CHANGE_TOMBSTONES (modified_seq)");
+                System.out.println("    - Migrated: Created CHANGE_TOMBSTONES table.");
+            }
+        }
+        for (String[] table : tracked) {
+            String name = table[0];
+            try (ResultSet rs = conn.getMetaData().getColumns(null, null, name, "MODIFIED_SEQ")) {
+                if (!rs.next()) {
+                    stmt.executeUpdate("ALTER TABLE " + name + " ADD modified_seq NUMBER DEFAULT 0 NOT NULL");
+                    stmt.executeUpdate("CREATE INDEX IX_" + name + "_MODSEQ ON " + name + " (modified_seq)");
+                    System.out.println("    - Migrated: Added MODIFIED_SEQ column to " + name + ".");
+                }
+            }
+            String oldKey = String.format(table[1], ":old");
+            String newKey = String.format(table[1], ":new");
+            if (!exists(conn, "SELECT COUNT(*) FROM user_triggers WHERE trigger_name = 'TRG_" + name + "_CHANGE'")) {
+                stmt.execute("CREATE OR REPLACE TRIGGER TRG_" + name + "_CHANGE "
+                    + "BEFORE INSERT OR UPDATE OF " + table[2] + " ON " + name + " FOR EACH ROW "
+                    + "BEGIN "
+                    + "  :new.modified_seq := CCRM_CHANGE_SEQ.NEXTVAL; "
+                    + "  IF UPDATING AND " + oldKey + " <> " + newKey + " THEN "
+                    + "    INSERT INTO CHANGE_TOMBSTONES (table_name, row_key, modified_seq, deleted_at) "
+                    + "    VALUES ('" + name + "', " + oldKey + ", :new.modified_seq, SYSDATE); "
+                    + "  END IF; "
+                    + "END;");
+                System.out.println("    - Migrated: Created change trigger on " + name + ".");
+            }
+            if (!exists(conn, "SELECT COUNT(*) FROM user_triggers WHERE trigger_name = 'TRG_" + name + "_TOMBSTONE'")) {
+                stmt.execute("CREATE OR REPLACE TRIGGER TRG_" + name + "_TOMBSTONE "
+                    + "AFTER DELETE ON " + name + " FOR EACH ROW "
+                    + "BEGIN "
+                    + "  INSERT INTO CHANGE_TOMBSTONES (table_name, row_key, modified_seq, deleted_at) "
+                    + "  VALUES ('" + name + "', " + oldKey + ", CCRM_CHANGE_SEQ.NEXTVAL, SYSDATE); "
+                    + "END;");
+                System.out.println("    - Migrated: Created tombstone trigger on " + name + ".");
+            }
+        }
+    } catch (SQLException e) {
+        System.err.println("Warning: Change-tracking migration encountered an issue: " + e.getMessage());
+    }
+  }
+
+  private static boolean exists(Connection conn, String countSql) throws SQLException {
+    try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(countSql)) {
+        return rs.next() && rs.getInt(1) > 0;
+    }
+  }
+
   private static void migrateEnrollmentColumns(Connection conn) {
     try (Statement stmt = conn.createStatement()) {
         // Add enrollment_year if missing
@@ -242,11 +391,16 @@ public class DatabaseInitializer {
                 System.out.println("    - Migrated: Added GRAND_TOTAL_MARKS column to ENROLLMENTS.");
             }
         }
-        // Add cgpa to STUDENTS if missing
+        // Add cgpa to STUDENTS if missing, or widen the old NUMBER(3,2), which stops short of a 10.00 CGPA
+        boolean cgpaWidened = false;
         try (ResultSet rs = conn.getMetaData().getColumns(null, null, "STUDENTS", "CGPA")) {
             if (!rs.next()) {
-                stmt.executeUpdate("ALTER TABLE STUDENTS ADD cgpa NUMBER(3,2)");
+                stmt.executeUpdate("ALTER TABLE STUDENTS ADD cgpa NUMBER(4,2)");
                 System.out.println("    - Migrated: Added CGPA column to STUDENTS.");
+            } else if (rs.getInt("COLUMN_SIZE") < 4) {
+                stmt.executeUpdate("ALTER TABLE STUDENTS MODIFY cgpa NUMBER(4,2)");
+                System.out.println("    - Migrated: Widened CGPA column on STUDENTS to NUMBER(4,2).");
+                cgpaWidened = true;
             }
         }
         // Add probation_count to STUDENTS if missing
@@ -256,6 +410,31 @@ public class DatabaseInitializer {
                 System.out.println("    - Migrated: Added PROBATION_COUNT column to STUDENTS.");
             }
         }
+        // Add running grade totals to STUDENTS if missing, then backfill them from existing grades
+        boolean gradeTotalsAdded = false;
+        try (ResultSet rs = conn.getMetaData().getColumns(null, null, "STUDENTS", "GRADE_POINTS")) {
+            if (!rs.next()) {
+                stmt.executeUpdate("ALTER TABLE STUDENTS ADD grade_points NUMBER DEFAULT 0");
+                System.out.println("    - Migrated: Added GRADE_POINTS column to STUDENTS.");
+                gradeTotalsAdded = true;
+            }
+        }
+        try (ResultSet rs = conn.getMetaData().getColumns(null, null, "STUDENTS", "GRADED_CREDITS")) {
+            if (!rs.next()) {
+                stmt.executeUpdate("ALTER TABLE STUDENTS ADD graded_credits NUMBER DEFAULT 0");
+                System.out.println("    - Migrated: Added GRADED_CREDITS column to STUDENTS.");
+                gradeTotalsAdded = true;
+            }
+        }
+        // A recompute that hit a 10.00 CGPA before the column was widened was rolled back, so run it again
+        if (gradeTotalsAdded || cgpaWidened) {
+            try {
+                int students = new CgpaService().recomputeAll();
+                System.out.println("    - Migrated: Backfilled grade totals and CGPA for " + students + " students.");
+            } catch (RuntimeException e) {
+                System.err.println("Warning: Could not backfill grade totals: " + e.getMessage());
+            }
+        }
         
         // Create DROPPED_ENROLLMENTS table if missing
         boolean droppedTableExists = false;
@@ -0,0 +1,160 @@
+package edu.ccrm.io;
+
+import edu.ccrm.io.csv.CsvReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * Progress of a checkpointed import, kept in a sidecar file under the data directory so a failed import of
+ * the same file can resume after its last commit. The file is identified by its path, size, modification
+ * time and SHA-256; if any of them changed the checkpoint no longer applies.
+ */
+final class ImportCheckpoint {
+
+    private final String path;
+    private final long size;
+    private final long modified;
+    private final String sha256;
+    private final CsvReader.Position position;
+    private final int rowsAccepted;
+    private final int rowsRejected;
+
+    ImportCheckpoint(String path, long size, long modified, String sha256, CsvReader.Position position,
+                     int rowsAccepted, int rowsRejected) {
+        this.path = path;
+        this.size = size;
+        this.modified = modified;
+        this.sha256 = sha256;
+        this.position = position;
+        this.rowsAccepted = rowsAccepted;
+        this.rowsRejected = rowsRejected;
+    }
+
+    /**
+     * Fingerprints a file, with the position and counts of an import that has not started yet.
+     */
+    static ImportCheckpoint start(Path file) throws IOException {
+        return new ImportCheckpoint(file.toAbsolutePath().normalize().toString(), Files.size(file),
+                Files.getLastModifiedTime(file).toMillis(), sha256(file), null, 0, 0);
+    }
+
+    ImportCheckpoint advance(CsvReader.Position position, int rowsAccepted, int rowsRejected) {
+        return new ImportCheckpoint(path, size, modified, sha256, position, rowsAccepted, rowsRejected);
+    }
+
+    CsvReader.Position getPosition() { return position; }
+    int getRowsAccepted() { return rowsAccepted; }
+    int getRowsRejected() { return rowsRejected; }
+
+    boolean sameFile(ImportCheckpoint other) {
+        return path.equals(other.path) && size == other.size && modified == other.modified && sha256.equals(other.sha256);
+    }
+
+    /**
+     * A cheap check, without hashing the file, for whether the checkpoint may still apply to it. The import
+     * compares the full fingerprint before resuming.
+     */
+    boolean mayApplyTo(Path file) throws IOException {
+        return path.equals(file.toAbsolutePath().normalize().toString()) && size == Files.size(file)
+                && modified == Files.getLastModifiedTime(file).toMillis();
+    }
+
+    /**
+     * @return The sidecar for a file: one per absolute path, named after the file for easy spotting.
+     */
+    static Path sidecarFor(Path file, Path directory) {
+        String absolute = file.toAbsolutePath().normalize().toString();
+        String key = HexFormat.of().formatHex(digest().digest(absolute.getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+        return directory.resolve(file.getFileName() + "." + key + ".checkpoint");
+    }
+
+    /**
+     * @return The saved checkpoint, or null if there is none or it cannot be read.
+     */
+    static ImportCheckpoint load(Path sidecar) {
+        if (!Files.exists(sidecar)) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(sidecar, StandardCharsets.UTF_8)) {
+            props.load(reader);
+            CsvReader.Position position = new CsvReader.Position(
+                    Long.parseLong(props.getProperty("charOffset")),
+                    Long.parseLong(props.getProperty("recordNumber")),
+                    Long.parseLong(props.getProperty("lineNumber")));
+            return new ImportCheckpoint(props.getProperty("path"),
+                    Long.parseLong(props.getProperty("size")),
+                    Long.parseLong(props.getProperty("modified")),
+                    props.getProperty("sha256"),
+                    position,
+                    Integer.parseInt(props.getProperty("rowsAccepted")),
+                    Integer.parseInt(props.getProperty("rowsRejected")));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Ignoring unreadable import checkpoint " + sidecar + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file, forces it to disk and moves it over the sidecar, so a crash
+     * leaves either the old or the new checkpoint, never a torn one.
+     */
+    void save(Path sidecar) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("path", path);
+        props.setProperty("size", Long.toString(size));
+        props.setProperty("modified", Long.toString(modified));
+        props.setProperty("sha256", sha256);
+        props.setProperty("charOffset", Long.toString(position.getCharOffset()));
+        props.setProperty("recordNumber", Long.toString(position.getRecordNumber()));
+        props.setProperty("lineNumber", Long.toString(position.getLineNumber()));
+        props.setProperty("rowsAccepted", Integer.toString(rowsAccepted));
+        props.setProperty("rowsRejected", Integer.toString(rowsRejected));
+        props.setProperty("updatedAt", LocalDateTime.now().toString());
+
+        Files.createDirectories(sidecar.getParent());
+        Path temp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            props.store(out, "Import checkpoint");
+            out.flush();
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest = digest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            byte[] buffer = new byte[64 * 1024];
+            while (in.read(buffer) != -1) {
+                // Reading feeds the digest
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -6,17 +6,17 @@ import edu.ccrm.exception.DataIntegrityException;
 import edu.ccrm.exception.DuplicateEnrollmentException;
 import edu.ccrm.exception.MaxCreditLimitExceededException;
 import edu.ccrm.exception.RecordNotFoundException;
+import edu.ccrm.io.csv.CsvReader;
+import edu.ccrm.io.csv.CsvWriter;
 import edu.ccrm.service.CourseService;
 import edu.ccrm.service.EnrollmentService;
 import edu.ccrm.service.InstructorService;
 import edu.ccrm.service.StudentService;
 import edu.ccrm.service.ProbationService;
 import java.util.ArrayList;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -28,6 +28,9 @@ import java.util.stream.Collectors;
 
 public class ImportExportService {
 
+  // Rows per transaction for the checkpointed enrollment import the GUI runs
+  public static final int CHECKPOINT_COMMIT_EVERY = 5000;
+
   private final AppConfig config = AppConfig.getInstance();
   private final StudentService studentService;
   private final InstructorService instructorService;
@@ -52,14 +55,24 @@ public class ImportExportService {
   // Progress callback for record-level reporting
   public interface ImportProgressCallback {
       void onProgress(int processed, int total);
+
+      // Called when a multi-phase import (such as a bulk load) moves to its next phase
+      default void onPhase(String phase) {}
   }
 
-  private long countDataLines(Path filePath) throws IOException {
-      try (BufferedReader reader = Files.newBufferedReader(filePath)) {
-          long count = 0;
-          reader.readLine(); // skip header
-          while (reader.readLine() != null) count++;
-          return count;
+  // Imports write with plain SQL (and may roll back rows that were read through the caches), so every
+  // import drops the cached entities once its transaction has finished
+  private void invalidateEntityCaches() {
+    studentService.getCache().invalidateAll();
+    instructorService.getCache().invalidateAll();
+    courseService.getCache().invalidateAll();
+  }
+
+  // Counts CSV records after the header; a quoted field may span lines, so this is not a line count
+  static long countDataLines(Path filePath) throws IOException {
+      try (CsvReader csv = CsvReader.open(filePath)) {
+          if (!csv.next()) return 0; // skip header
+          return csv.skipAll();
       }
   }
 
@@ -79,6 +92,7 @@ public class ImportExportService {
         System.err.println("Error during student import: " + e.getMessage());
       } finally {
         conn.setAutoCommit(true);
+        invalidateEntityCaches();
       }
     } catch (SQLException e) {
       System.err.println("Database connection error: " + e.getMessage());
@@ -98,6 +112,7 @@ public class ImportExportService {
         System.err.println("Error during student import: " + e.getMessage());
       } finally {
         conn.setAutoCommit(true);
+        invalidateEntityCaches();
       }
     } catch (SQLException e) {
       System.err.println("Database connection error: " + e.getMessage());
@@ -112,24 +127,23 @@ public class ImportExportService {
     throws IOException, SQLException {
     String sql = "INSERT INTO students (id, reg_no, first_name, last_name, email, status, registration_date, dob, phone, probation_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
     try (PreparedStatement pstmt = conn.prepareStatement(sql);
-         BufferedReader reader = Files.newBufferedReader(filePath)) {
-      String line;
-      reader.readLine(); // skip header
+         CsvReader csv = CsvReader.open(filePath)) {
+      csv.next(); // skip header
       int count = 0;
-      while ((line = reader.readLine()) != null) {
-        String[] parts = line.split(",");
-        if (parts.length < 7) continue;
-        String status = parts[5].replaceAll("\"", "");
-        pstmt.setInt(1, Integer.parseInt(parts[0]));
-        pstmt.setString(2, parts[1]);
-        pstmt.setString(3, parts[2]);
-        pstmt.setString(4, parts[3]);
-        pstmt.setString(5, parts[4]);
-        pstmt.setString(6, Student.Status.valueOf(status).name());
-        pstmt.setDate(7, java.sql.Date.valueOf(parseDateRobust(parts[6])));
-        pstmt.setDate(8, parts.length > 7 ? (parseDateRobust(parts[7]) != null ? java.sql.Date.valueOf(parseDateRobust(parts[7])) : null) : null);
-        pstmt.setString(9, parts.length > 8 ? parts[8] : null);
-        pstmt.setInt(10, parts.length > 9 ? Integer.parseInt(parts[9].replaceAll("\"", "").trim()) : 0);
+      while (csv.next()) {
+        int fields = csv.fieldCount();
+        if (fields < 7) continue;
+        LocalDate dob = fields > 7 ? parseDateRobust(csv.trimmed(7)) : null;
+        pstmt.setInt(1, csv.intField(0));
+        pstmt.setString(2, csv.string(1));
+        pstmt.setString(3, csv.string(2));
+        pstmt.setString(4, csv.string(3));
+        pstmt.setString(5, csv.string(4));
+        pstmt.setString(6, Student.Status.valueOf(csv.trimmed(5)).name());
+        pstmt.setDate(7, java.sql.Date.valueOf(parseDateRobust(csv.trimmed(6))));
+        pstmt.setDate(8, dob != null ? java.sql.Date.valueOf(dob) : null);
+        pstmt.setString(9, fields > 8 ? csv.string(8) : null);
+        pstmt.setInt(10, fields > 9 ? csv.intField(9) : 0);
 
         pstmt.addBatch();
         count++;
@@ -145,21 +159,11 @@ public class ImportExportService {
     }
   }
 
+  /**
+   * Imports the file in one transaction through the parallel pipeline; see importStudentsParallel.
+   */
   public void importStudentsFile(Path path, ImportProgressCallback callback) throws Exception {
-    int total = (int) countDataLines(path);
-    int[] processed = {0};
-    try (Connection conn = DatabaseManager.getConnection()) {
-      conn.setAutoCommit(false);
-      try {
-        importStudents(path, conn, callback, processed, total);
-        conn.commit();
-      } catch (Exception e) {
-        conn.rollback();
-        throw e;
-      } finally {
-        conn.setAutoCommit(true);
-      }
-    }
+    importStudentsParallel(path, ImportPipeline.Mode.SINGLE_TRANSACTION, callback);
   }
 
   public void importStudentsFile(Path path) throws Exception {
@@ -182,6 +186,7 @@ public class ImportExportService {
         System.err.println("Error during instructor import: " + e.getMessage());
       } finally {
         conn.setAutoCommit(true);
+        invalidateEntityCaches();
       }
     } catch (SQLException e) {
       System.err.println("Database connection error: " + e.getMessage());
@@ -201,6 +206,7 @@ public class ImportExportService {
         System.err.println("Error during instructor import: " + e.getMessage());
       } finally {
         conn.setAutoCommit(true);
+        invalidateEntityCaches();
       }
     } catch (SQLException e) {
       System.err.println("Database connection error: " + e.getMessage());
@@ -215,21 +221,21 @@ public class ImportExportService {
     throws IOException, SQLException {
     String sql = "INSERT INTO instructors (FiD, first_name, last_name, email, department, dob, phone, cabin_no) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
     try (PreparedStatement pstmt = conn.prepareStatement(sql);
-         BufferedReader reader = Files.newBufferedReader(filePath)) {
-      String line;
-      reader.readLine(); // Skip header
+         CsvReader csv = CsvReader.open(filePath)) {
+      csv.next(); // Skip header
       int count = 0;
-      while ((line = reader.readLine()) != null) {
-        String[] parts = line.split(",");
-        if (parts.length < 5) continue;
-        pstmt.setString(1, parts[0]);
-        pstmt.setString(2, parts[1]);
-        pstmt.setString(3, parts[2]);
-        pstmt.setString(4, parts[3]);
-        pstmt.setString(5, parts[4]);
-        pstmt.setDate(6, parts.length > 5 ? (parseDateRobust(parts[5]) != null ? java.sql.Date.valueOf(parseDateRobust(parts[5])) : null) : null);
-        pstmt.setString(7, parts.length > 6 ? parts[6] : null);
-        pstmt.setString(8, parts.length > 7 ? parts[7] : null);
+      while (csv.next()) {
+        int fields = csv.fieldCount();
+        if (fields < 5) continue;
+        LocalDate dob = fields > 5 ? parseDateRobust(csv.trimmed(5)) : null;
+        pstmt.setString(1, csv.string(0));
+        pstmt.setString(2, csv.string(1));
+        pstmt.setString(3, csv.string(2));
+        pstmt.setString(4, csv.string(3));
+        pstmt.setString(5, csv.string(4));
+        pstmt.setDate(6, dob != null ? java.sql.Date.valueOf(dob) : null);
+        pstmt.setString(7, fields > 6 ? csv.string(6) : null);
+        pstmt.setString(8, fields > 7 ? csv.string(7) : null);
 
         pstmt.addBatch();
         count++;
@@ -245,21 +251,11 @@ public class ImportExportService {
     }
   }
 
+  /**
+   * Imports the file in one transaction through the parallel pipeline; see importInstructorsParallel.
+   */
   public void importInstructorsFile(Path path, ImportProgressCallback callback) throws Exception {
-    int total = (int) countDataLines(path);
-    int[] processed = {0};
-    try (Connection conn = DatabaseManager.getConnection()) {
-      conn.setAutoCommit(false);
-      try {
-        importInstructors(path, conn, callback, processed, total);
-        conn.commit();
-      } catch (Exception e) {
-        conn.rollback();
-        throw e;
-      } finally {
-        conn.setAutoCommit(true);
-      }
-    }
+    importInstructorsParallel(path, ImportPipeline.Mode.SINGLE_TRANSACTION, callback);
   }
 
   public void importInstructorsFile(Path path) throws Exception {
@@ -282,6 +278,7 @@ public class ImportExportService {
         System.err.println("Error during course import: " + e.getMessage());
       } finally {
         conn.setAutoCommit(true);
+        invalidateEntityCaches();
       }
     } catch (SQLException e) {
       System.err.println("Database connection error: " + e.getMessage());
@@ -301,6 +298,7 @@ public class ImportExportService {
         System.err.println("Error during course import: " + e.getMessage());
       } finally {
         conn.setAutoCommit(true);
+        invalidateEntityCaches();
       }
     } catch (SQLException e) {
       System.err.println("Database connection error: " + e.getMessage());
@@ -315,19 +313,18 @@ public class ImportExportService {
     throws IOException, SQLException {
     String sql = "INSERT INTO courses (code, title, credits, department, instructor_id, semester, classroom_no) VALUES (?, ?, ?, ?, ?, ?, ?)";
     try (PreparedStatement pstmt = conn.prepareStatement(sql);
-         BufferedReader reader = Files.newBufferedReader(filePath)) {
-      String line;
-      reader.readLine(); // skip header
+         CsvReader csv = CsvReader.open(filePath)) {
+      csv.next(); // skip header
       int count = 0;
-      while ((line = reader.readLine()) != null) {
-        String[] parts = line.split(",");
-        if (parts.length < 6) continue;
-        CourseCode courseCode = new CourseCode(parts[0]);
+      while (csv.next()) {
+        int fields = csv.fieldCount();
+        if (fields < 6) continue;
+        CourseCode courseCode = new CourseCode(csv.string(0));
 
         // Instructor validation & lookup
         Instructor instructor = null;
         try {
-          instructor = instructorService.findInstructorByFiD(parts[4], conn);
+          instructor = instructorService.findInstructorByFiD(csv.string(4), conn);
         } catch (RecordNotFoundException e) {
           System.err.println("Warning: Skipping course " + courseCode + " because instructor was not found: " + e.getMessage());
           processed[0]++;
@@ -336,16 +333,16 @@ public class ImportExportService {
         }
 
         pstmt.setString(1, courseCode.getCode());
-        pstmt.setString(2, parts[1]);
-        pstmt.setInt(3, Integer.parseInt(parts[2]));
-        pstmt.setString(4, parts[3]);
+        pstmt.setString(2, csv.string(1));
+        pstmt.setInt(3, csv.intField(2));
+        pstmt.setString(4, csv.string(3));
         if (instructor != null) {
           pstmt.setString(5, instructor.getFiD());
         } else {
           pstmt.setNull(5, Types.VARCHAR);
         }
-        pstmt.setString(6, Semester.valueOf(parts[5]).name());
-        pstmt.setString(7, parts.length > 6 ? parts[6] : null);
+        pstmt.setString(6, Semester.valueOf(csv.trimmed(5)).name());
+        pstmt.setString(7, fields > 6 ? csv.string(6) : null);
 
         pstmt.addBatch();
         count++;
@@ -361,21 +358,11 @@ public class ImportExportService {
     }
   }
 
+  /**
+   * Imports the file in one transaction through the parallel pipeline; see importCoursesParallel.
+   */
   public void importCoursesFile(Path path, ImportProgressCallback callback) throws Exception {
-    int total = (int) countDataLines(path);
-    int[] processed = {0};
-    try (Connection conn = DatabaseManager.getConnection()) {
-      conn.setAutoCommit(false);
-      try {
-        importCourses(path, conn, callback, processed, total);
-        conn.commit();
-      } catch (Exception e) {
-        conn.rollback();
-        throw e;
-      } finally {
-        conn.setAutoCommit(true);
-      }
-    }
+    importCoursesParallel(path, ImportPipeline.Mode.SINGLE_TRANSACTION, callback);
   }
 
   public void importCoursesFile(Path path) throws Exception {
@@ -399,6 +386,7 @@ public class ImportExportService {
             e.printStackTrace();
         } finally {
             conn.setAutoCommit(true);
+            invalidateEntityCaches();
         }
     } catch (SQLException e) {
         System.err.println("Database connection error during enrollment import: " + e.getMessage());
@@ -419,24 +407,31 @@ public class ImportExportService {
             e.printStackTrace();
         } finally {
             conn.setAutoCommit(true);
+            invalidateEntityCaches();
         }
     } catch (SQLException e) {
         System.err.println("Database connection error during enrollment import: " + e.getMessage());
     }
   }
 
+  // Highly resilient Oracle upsert MERGE query
+  private static final String ENROLLMENT_MERGE_SQL = "MERGE INTO enrollments e "
+    + "USING (SELECT ? AS student_reg_no, ? AS course_code, ? AS enrollment_year, ? AS enrollment_semester, ? AS grade FROM dual) src "
+    + "ON (e.student_reg_no = src.student_reg_no AND e.course_code = src.course_code) "
+    + "WHEN MATCHED THEN "
+    + "  UPDATE SET e.grade = src.grade "
+    + "WHEN NOT MATCHED THEN "
+    + "  INSERT (student_reg_no, course_code, enrollment_year, enrollment_semester, grade) "
+    + "  VALUES (src.student_reg_no, src.course_code, src.enrollment_year, src.enrollment_semester, src.grade)";
+
   private void importEnrollments(Path filePath, Connection conn) throws IOException, SQLException {
       importEnrollments(filePath, conn, null, new int[]{0}, 0);
   }
 
   private void importEnrollments(Path filePath, Connection conn, ImportProgressCallback callback, int[] processed, int total) throws IOException, SQLException {
-      try (BufferedReader reader = Files.newBufferedReader(filePath)) {
-          String headerLine = reader.readLine(); // Read header to find column positions
-          if (headerLine == null) return;
-          String[] headers = headerLine.split(",");
-          if (headers.length > 0 && headers[0].startsWith("\ufeff")) {
-              headers[0] = headers[0].substring(1);
-          }
+      try (CsvReader csv = CsvReader.open(filePath)) {
+          if (!csv.next()) return; // Read header to find column positions
+          String[] headers = csv.toArray();
           int idxStudent = -1, idxCourse = -1, idxGrade = -1, idxYear = -1, idxSemester = -1;
           for (int i = 0; i < headers.length; i++) {
               switch (headers[i].trim().toLowerCase()) {
@@ -449,177 +444,158 @@ public class ImportExportService {
           }
           if (idxStudent < 0 || idxCourse < 0) return;
 
-          // Highly resilient Oracle upsert MERGE query
-          String mergeSql = "MERGE INTO enrollments e "
-                          + "USING (SELECT ? AS student_reg_no, ? AS course_code, ? AS enrollment_year, ? AS enrollment_semester, ? AS grade FROM dual) src "
-                          + "ON (e.student_reg_no = src.student_reg_no AND e.course_code = src.course_code) "
-                          + "WHEN MATCHED THEN "
-                          + "  UPDATE SET e.grade = src.grade "
-                          + "WHEN NOT MATCHED THEN "
-                          + "  INSERT (student_reg_no, course_code, enrollment_year, enrollment_semester, grade) "
-                          + "  VALUES (src.student_reg_no, src.course_code, src.enrollment_year, src.enrollment_semester, src.grade)";
-
-          try (PreparedStatement pstmt = conn.prepareStatement(mergeSql)) {
-              String line;
-              int count = 0;
-              while ((line = reader.readLine()) != null) {
-                  String[] parts = line.split(",");
-                  if (parts.length < 2) continue;
-
-                  String studentRegNo = parts[idxStudent].trim();
-                  CourseCode courseCode = new CourseCode(parts[idxCourse].trim());
-                  int enrollYear = (idxYear >= 0 && idxYear < parts.length && !parts[idxYear].trim().isEmpty())
-                                   ? Integer.parseInt(parts[idxYear].trim())
-                                   : java.time.LocalDate.now().getYear();
-                  String csvSemester = (idxSemester >= 0 && idxSemester < parts.length && !parts[idxSemester].trim().isEmpty())
-                                   ? parts[idxSemester].trim().toUpperCase()
+          try (EnrollmentRowWriter writer = new EnrollmentRowWriter(conn, ENROLLMENT_MERGE_SQL)) {
+              int currentYear = java.time.LocalDate.now().getYear();
+              while (csv.next()) {
+                  if (csv.fieldCount() < 2) continue;
+
+                  String studentRegNo = csv.trimmed(idxStudent);
+                  String courseCode = new CourseCode(csv.trimmed(idxCourse)).getCode();
+                  int enrollYear = (idxYear >= 0 && !csv.isEmpty(idxYear)) ? csv.intField(idxYear) : currentYear;
+                  String csvSemester = (idxSemester >= 0 && !csv.isEmpty(idxSemester))
+                                   ? csv.trimmed(idxSemester).toUpperCase()
                                    : "";
+                  String grade = (idxGrade >= 0 && !csv.isEmpty(idxGrade))
+                                   ? csv.trimmed(idxGrade).toUpperCase()
+                                   : null;
 
-                  // Retrieve Course to find Semester or auto-create it
-                  String semester = "";
-                  try {
-                      Course course = courseService.findCourseByCode(courseCode, conn);
-                      semester = course.getSemester() != null ? course.getSemester().name() : "";
-                  } catch (RecordNotFoundException e) {
-                      semester = !csvSemester.isEmpty() ? csvSemester : "FALL";
-                      try {
-                          String insertCourseSql = "INSERT INTO courses (code, title, credits, department, semester) VALUES (?, ?, ?, ?, ?)";
-                          try (PreparedStatement coursePstmt = conn.prepareStatement(insertCourseSql)) {
-                              coursePstmt.setString(1, courseCode.getCode());
-                              coursePstmt.setString(2, courseCode.getCode() + " Placeholder");
-                              coursePstmt.setInt(3, 3);
-                              coursePstmt.setString(4, "General");
-                              coursePstmt.setString(5, semester);
-                              coursePstmt.executeUpdate();
-                          }
-                          System.out.println("    - Auto-created placeholder course: " + courseCode.getCode());
-                      } catch (SQLException sqle) {
-                          System.err.println("Warning: Failed to auto-create course " + courseCode.getCode() + ": " + sqle.getMessage());
-                          processed[0]++;
-                          if (callback != null) callback.onProgress(processed[0], total);
-                          continue;
-                      }
-                  }
-
-                  // Retrieve Student to verify existence or auto-create it
-                  try {
-                      studentService.findStudentByRegNo(studentRegNo, conn);
-                  } catch (RecordNotFoundException e) {
-                      try {
-                          String insertStudentSql = "INSERT INTO students (id, reg_no, first_name, last_name, email, status, registration_date) VALUES (?, ?, ?, ?, ?, ?, ?)";
-                          try (PreparedStatement studentPstmt = conn.prepareStatement(insertStudentSql)) {
-                              int placeholderId = 900000 + Math.abs(studentRegNo.hashCode() % 100000);
-                              studentPstmt.setInt(1, placeholderId);
-                              studentPstmt.setString(2, studentRegNo);
-                              studentPstmt.setString(3, "Placeholder");
-                              studentPstmt.setString(4, studentRegNo);
-                              studentPstmt.setString(5, studentRegNo.toLowerCase() + "@placeholder.com");
-                              studentPstmt.setString(6, "ACTIVE");
-                              studentPstmt.setDate(7, java.sql.Date.valueOf(java.time.LocalDate.now()));
-                              studentPstmt.executeUpdate();
-                          }
-                          System.out.println("    - Auto-created placeholder student: " + studentRegNo);
-                      } catch (SQLException sqle) {
-                          System.err.println("Warning: Failed to auto-create student " + studentRegNo + ": " + sqle.getMessage());
-                          processed[0]++;
-                          if (callback != null) callback.onProgress(processed[0], total);
-                          continue;
-                      }
-                  }
-
-                  // Retrieve business credit limits (warn only)
-                  int currentTotalCredits = getCurrentCreditsDirect(studentRegNo, conn);
-                  int currentSemesterCredits = getCurrentSemesterYearCreditsDirect(studentRegNo, semester, enrollYear, conn);
-
-                  try {
-                      Course course = courseService.findCourseByCode(courseCode, conn);
-                      if (currentTotalCredits + course.getCredits() > 225) {
-                          System.err.println("Warning: Credit limit validation: student " + studentRegNo + " enrollment in " + courseCode.getCode() + " would exceed total credits (225). Proceeding anyway.");
-                      }
-                      if (currentSemesterCredits + course.getCredits() > 60) {
-                          System.err.println("Warning: Credit limit validation: student " + studentRegNo + " enrollment in " + courseCode.getCode() + " would exceed semester credits (60). Proceeding anyway.");
-                      }
-                  } catch (RecordNotFoundException e) {
-                      // Already handled or created placeholder
-                  }
-
-                  // Setup parameters
-                  pstmt.setString(1, studentRegNo);
-                  pstmt.setString(2, courseCode.getCode());
-                  pstmt.setInt(3, enrollYear);
-                  pstmt.setString(4, semester);
-                  if (idxGrade >= 0 && idxGrade < parts.length && !parts[idxGrade].trim().isEmpty()) {
-                      pstmt.setString(5, parts[idxGrade].trim().toUpperCase());
-                  } else {
-                      pstmt.setNull(5, Types.VARCHAR);
-                  }
-
-                  pstmt.addBatch();
-                  count++;
+                  writer.write(studentRegNo, courseCode, enrollYear, csvSemester, grade);
                   processed[0]++;
-                  if (count % 1000 == 0) {
-                      pstmt.executeBatch();
-                  }
                   if (callback != null) callback.onProgress(processed[0], total);
               }
-              if (count % 1000 != 0) {
-                  pstmt.executeBatch();
-              }
+              writer.finish();
           }
       }
   }
 
+  /**
+   * Imports the file in one transaction through the parallel pipeline; see importEnrollmentsParallel.
+   */
   public void importEnrollmentsFile(Path path, ImportProgressCallback callback) throws Exception {
+    importEnrollmentsParallel(path, ImportPipeline.Mode.SINGLE_TRANSACTION, callback);
+  }
+
+  public void importEnrollmentsFile(Path path) throws Exception {
+      importEnrollmentsFile(path, null);
+  }
+
+  public static class CheckpointedImportResult {
+    private final long resumedAfterRecord;
+    private final int rowsAccepted;
+    private final int rowsRejected;
+
+    public CheckpointedImportResult(long resumedAfterRecord, int rowsAccepted, int rowsRejected) {
+      this.resumedAfterRecord = resumedAfterRecord;
+      this.rowsAccepted = rowsAccepted;
+      this.rowsRejected = rowsRejected;
+    }
+
+    // Record number (counting the header) the run picked up after; 0 for a fresh start
+    public long getResumedAfterRecord() { return resumedAfterRecord; }
+    public int getRowsAccepted() { return rowsAccepted; }
+    public int getRowsRejected() { return rowsRejected; }
+  }
+
+  /**
+   * @return The record an interrupted checkpointed import of this file would resume after, or 0 if it has
+   * no checkpoint or the file has changed since.
+   */
+  public long getEnrollmentCheckpoint(Path path) throws IOException {
+    ImportCheckpoint saved = ImportCheckpoint.load(ImportCheckpoint.sidecarFor(path, config.getDataDirectory().resolve("checkpoints")));
+    return saved != null && saved.getPosition() != null && saved.mayApplyTo(path) ? saved.getPosition().getRecordNumber() : 0;
+  }
+
+  /**
+   * Forgets the checkpoint of an interrupted import, so the next checkpointed import starts from the top.
+   */
+  public void discardEnrollmentCheckpoint(Path path) throws IOException {
+    Files.deleteIfExists(ImportCheckpoint.sidecarFor(path, config.getDataDirectory().resolve("checkpoints")));
+  }
+
+  /**
+   * Imports enrollments committing every commitEvery rows instead of in one transaction. After each commit
+   * the position in the file and the running counts are saved to a checkpoint under the data directory;
+   * if the import then fails, running it again on the unchanged file resumes after the last commit. Rows
+   * that cannot be parsed are counted as rejected and skipped instead of failing the import.
+   * The checkpoint is written after its commit, so a crash in between replays at most one batch, which the
+   * upsert MERGE applies idempotently. The checkpoint is removed once the whole file is in.
+   * @param path The enrollments CSV.
+   * @param commitEvery Rows per transaction.
+   * @param callback Progress over the whole file, including rows done by earlier runs, may be null.
+   * @return Totals across all runs of this file.
+   */
+  public CheckpointedImportResult importEnrollmentsCheckpointed(Path path, int commitEvery, ImportProgressCallback callback) throws Exception {
+    Path sidecar = ImportCheckpoint.sidecarFor(path, config.getDataDirectory().resolve("checkpoints"));
+    ImportCheckpoint checkpoint = ImportCheckpoint.start(path);
+    ImportCheckpoint saved = ImportCheckpoint.load(sidecar);
+    if (saved != null && !saved.sameFile(checkpoint)) {
+      System.out.println("    - " + path.getFileName() + " changed since its last checkpoint; starting from the beginning.");
+      saved = null;
+    }
     int total = (int) countDataLines(path);
-    int[] processed = {0};
-    try (Connection conn = DatabaseManager.getConnection()) {
+
+    EnrollmentRowParser parser = new EnrollmentRowParser();
+    CsvReader csv = CsvReader.open(path);
+    try {
+      if (!csv.next()) return new CheckpointedImportResult(0, 0, 0);
+      parser.header(csv.toArray());
+      if (saved != null) {
+        csv.close();
+        csv = CsvReader.open(path, saved.getPosition());
+        checkpoint = saved;
+        System.out.println("    - Resuming " + path.getFileName() + " after record " + saved.getPosition().getRecordNumber());
+      }
+      long resumedAfter = saved != null ? saved.getPosition().getRecordNumber() : 0;
+      int accepted = checkpoint.getRowsAccepted();
+      int rejected = checkpoint.getRowsRejected();
+
+      try (Connection conn = DatabaseManager.getConnection()) {
         conn.setAutoCommit(false);
-        try {
-            importEnrollments(path, conn, callback, processed, total);
-            conn.commit();
+        try (EnrollmentRowWriter writer = new EnrollmentRowWriter(conn, ENROLLMENT_MERGE_SQL)) {
+          int pending = 0;
+          while (csv.next()) {
+            EnrollmentRow row;
+            try {
+              row = parser.parse(csv.toArray());
+            } catch (IllegalArgumentException e) {
+              row = null;
+              System.err.println("Warning: Rejected enrollment on line " + csv.getLineNumber() + ": " + e.getMessage());
+            }
+            if (row != null) {
+              writer.write(row.studentRegNo, row.courseCode, row.enrollYear, row.semester, row.grade);
+              accepted++;
+            } else {
+              rejected++;
+            }
+            if (++pending == commitEvery) {
+              writer.finish();
+              conn.commit();
+              checkpoint = checkpoint.advance(csv.position(), accepted, rejected);
+              checkpoint.save(sidecar);
+              pending = 0;
+            }
+            if (callback != null) callback.onProgress(accepted + rejected, total);
+          }
+          writer.finish();
+          conn.commit();
+          Files.deleteIfExists(sidecar);
+          return new CheckpointedImportResult(resumedAfter, accepted, rejected);
         } catch (Exception e) {
-            conn.rollback();
-            throw e;
+          conn.rollback();
+          throw e;
         } finally {
-            conn.setAutoCommit(true);
+          conn.setAutoCommit(true);
+          invalidateEntityCaches();
         }
+      }
+    } finally {
+      csv.close();
     }
   }
 
-  public void importEnrollmentsFile(Path path) throws Exception {
-      importEnrollmentsFile(path, null);
-  }
-
   // =========================================================================
   // PROBATION REPORTS IMPORT (BATCH & TRANSACTIONAL)
   // =========================================================================
-  private List<String[]> parseCsv(Path path) throws IOException {
-      List<String[]> rows = new ArrayList<>();
-      try (BufferedReader br = Files.newBufferedReader(path)) {
-          String line;
-          while ((line = br.readLine()) != null) {
-              if (line.trim().isEmpty()) continue;
-              List<String> values = new ArrayList<>();
-              boolean inQuotes = false;
-              StringBuilder curVal = new StringBuilder();
-              for (int i = 0; i < line.length(); i++) {
-                  char c = line.charAt(i);
-                  if (c == '\"') {
-                      inQuotes = !inQuotes;
-                  } else if (c == ',' && !inQuotes) {
-                      values.add(curVal.toString().trim());
-                      curVal.setLength(0);
-                  } else {
-                      curVal.append(c);
-                  }
-              }
-              values.add(curVal.toString().trim());
-              rows.add(values.toArray(new String[0]));
-          }
-      }
-      return rows;
-  }
-
   public void importProbationReports() {
     System.out.println("     - Importing probation_reports.csv...");
     try (Connection conn = DatabaseManager.getConnection()) {
@@ -633,6 +609,7 @@ public class ImportExportService {
         System.err.println("Error during probation report import: " + e.getMessage());
       } finally {
         conn.setAutoCommit(true);
+        invalidateEntityCaches();
       }
     } catch (SQLException e) {
       System.err.println("Database connection error: " + e.getMessage());
@@ -652,6 +629,7 @@ public class ImportExportService {
         System.err.println("Error during probation report import: " + e.getMessage());
       } finally {
         conn.setAutoCommit(true);
+        invalidateEntityCaches();
       }
     } catch (SQLException e) {
       System.err.println("Database connection error: " + e.getMessage());
@@ -664,20 +642,19 @@ public class ImportExportService {
 
   private void importProbationReports(Path filePath, Connection conn, ImportProgressCallback callback, int[] processed, int total)
     throws IOException, SQLException {
-    List<String[]> rows = parseCsv(filePath);
-    if (rows.isEmpty()) return;
-    
     String insertReportSql = "INSERT INTO probation_reports (probation_id, start_date, end_date, reason) VALUES (?, ?, ?, ?)";
     String insertStudentSql = "INSERT INTO probation_students (probation_id, student_reg_no) VALUES (?, ?)";
     String updateStudentStatusSql = "UPDATE students SET status = 'PROBATION', probation_count = probation_count + 1 WHERE reg_no = ?";
     
     try (PreparedStatement pstmtReport = conn.prepareStatement(insertReportSql);
          PreparedStatement pstmtStudent = conn.prepareStatement(insertStudentSql);
-         PreparedStatement pstmtStatus = conn.prepareStatement(updateStudentStatusSql)) {
+         PreparedStatement pstmtStatus = conn.prepareStatement(updateStudentStatusSql);
+         CsvReader csv = CsvReader.open(filePath)) {
+      if (!csv.next()) return; // skip header
       
       int count = 0;
-      for (int i = 1; i < rows.size(); i++) {
-        String[] parts = rows.get(i);
+      while (csv.next()) {
+        String[] parts = csv.toArray();
         if (parts.length < 5) continue;
         
         String probationId = parts[0];
@@ -732,6 +709,7 @@ public class ImportExportService {
         throw e;
       } finally {
         conn.setAutoCommit(true);
+        invalidateEntityCaches();
       }
     }
   }
@@ -741,158 +719,855 @@ public class ImportExportService {
   }
 
   // =========================================================================
-  // CREDIT DIRECT CALCULATORS FOR ENROLLMENTS
+  // PARALLEL IMPORTS (CHUNKED PIPELINE)
   // =========================================================================
-  private int getCurrentCreditsDirect(String studentRegNo, Connection conn) throws SQLException {
-      int totalCredits = 0;
-      String sql = "SELECT SUM(c.credits) FROM courses c JOIN enrollments e ON c.code = e.course_code WHERE e.student_reg_no = ?";
+  // Same files and rules as the sequential imports, run through an ImportPipeline: parsing is spread over
+  // a worker pool and the rows go to several writer connections. In PER_CHUNK mode every chunk commits on
+  // its own and a bad chunk is reported without stopping the import; SINGLE_TRANSACTION keeps the
+  // all-or-nothing behaviour, and is what the import*File methods use. Probation reports stay sequential
+  // since every row updates a running count on its student.
+
+  public ImportPipeline.ImportResult importStudentsParallel(Path path, ImportPipeline.Mode mode, ImportProgressCallback callback)
+    throws IOException, SQLException {
+    String sql = "INSERT INTO students (id, reg_no, first_name, last_name, email, status, registration_date, dob, phone, probation_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    ImportPipeline.RowParser<Object[]> parser = fields -> {
+      if (fields.length < 7) return null;
+      LocalDate dob = fields.length > 7 ? parseDateRobust(fields[7]) : null;
+      return new Object[]{
+        Integer.parseInt(fields[0].trim()), fields[1], fields[2], fields[3], fields[4],
+        Student.Status.valueOf(fields[5].trim()).name(),
+        java.sql.Date.valueOf(parseDateRobust(fields[6])),
+        dob != null ? java.sql.Date.valueOf(dob) : null,
+        fields.length > 8 ? fields[8] : null,
+        fields.length > 9 ? Integer.parseInt(fields[9].trim()) : 0
+      };
+    };
+    return runPipeline(new ImportPipeline<>(parser, row -> row[1], () -> new InsertChunkWriter(sql), mode), path, callback);
+  }
+
+  public ImportPipeline.ImportResult importInstructorsParallel(Path path, ImportPipeline.Mode mode, ImportProgressCallback callback)
+    throws IOException, SQLException {
+    String sql = "INSERT INTO instructors (FiD, first_name, last_name, email, department, dob, phone, cabin_no) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    ImportPipeline.RowParser<Object[]> parser = fields -> {
+      if (fields.length < 5) return null;
+      LocalDate dob = fields.length > 5 ? parseDateRobust(fields[5]) : null;
+      return new Object[]{
+        fields[0], fields[1], fields[2], fields[3], fields[4],
+        dob != null ? java.sql.Date.valueOf(dob) : null,
+        fields.length > 6 ? fields[6] : null,
+        fields.length > 7 ? fields[7] : null
+      };
+    };
+    return runPipeline(new ImportPipeline<>(parser, row -> row[0], () -> new InsertChunkWriter(sql), mode), path, callback);
+  }
+
+  public ImportPipeline.ImportResult importCoursesParallel(Path path, ImportPipeline.Mode mode, ImportProgressCallback callback)
+    throws IOException, SQLException {
+    String sql = "INSERT INTO courses (code, title, credits, department, instructor_id, semester, classroom_no) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // The parse workers check instructors against one preloaded set instead of a query per row
+    java.util.Set<String> instructors = new java.util.HashSet<>();
+    try (Connection conn = DatabaseManager.getConnection();
+         java.sql.Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT FiD FROM instructors")) {
+      while (rs.next()) {
+        instructors.add(rs.getString(1));
+      }
+    }
+    ImportPipeline.RowParser<Object[]> parser = fields -> {
+      if (fields.length < 6) return null;
+      CourseCode courseCode = new CourseCode(fields[0]);
+      if (!instructors.contains(fields[4])) {
+        System.err.println("Warning: Skipping course " + courseCode + " because instructor was not found: Instructor with FiD " + fields[4] + " not found.");
+        return null;
+      }
+      return new Object[]{
+        courseCode.getCode(), fields[1], Integer.parseInt(fields[2].trim()), fields[3], fields[4],
+        Semester.valueOf(fields[5].trim()).name(),
+        fields.length > 6 ? fields[6] : null
+      };
+    };
+    return runPipeline(new ImportPipeline<>(parser, row -> row[0], () -> new InsertChunkWriter(sql), mode), path, callback);
+  }
+
+  /**
+   * Enrollments are routed to writers by student, so one student's rows, and its credit totals, are
+   * always handled by the same writer in file order. In PER_CHUNK mode placeholder students and courses
+   * are committed at once on a separate connection, so any writer can reference them; they stay in place
+   * even if the chunk that created them is rolled back.
+   */
+  public ImportPipeline.ImportResult importEnrollmentsParallel(Path path, ImportPipeline.Mode mode, ImportProgressCallback callback)
+    throws IOException, SQLException {
+    EnrollmentDimensions dims;
+    try (Connection conn = DatabaseManager.getConnection()) {
+      dims = EnrollmentDimensions.load(conn);
+    }
+    try (Connection placeholderConn = mode == ImportPipeline.Mode.PER_CHUNK ? DatabaseManager.getConnection() : null) {
+      ImportPipeline<EnrollmentRow> pipeline = new ImportPipeline<>(new EnrollmentRowParser(), row -> row.studentRegNo,
+        () -> new EnrollmentChunkWriter(dims, placeholderConn), mode);
+      return runPipeline(pipeline, path, callback);
+    }
+  }
+
+  private <T> ImportPipeline.ImportResult runPipeline(ImportPipeline<T> pipeline, Path path, ImportProgressCallback callback)
+    throws IOException, SQLException {
+    try {
+      ImportPipeline.ImportResult result = pipeline.run(path, callback);
+      for (ImportPipeline.ChunkError error : result.getErrors()) {
+        System.err.println("Import error in " + path.getFileName() + ": " + error);
+      }
+      return result;
+    } finally {
+      invalidateEntityCaches();
+    }
+  }
+
+  /**
+   * Batched INSERT of pre-bound parameter rows; nulls are bound as VARCHAR nulls, which Oracle accepts
+   * for any column type.
+   */
+  private static final class InsertChunkWriter implements ImportPipeline.ChunkWriter<Object[]> {
+    private final String sql;
+
+    InsertChunkWriter(String sql) {
+      this.sql = sql;
+    }
+
+    @Override
+    public void write(List<Object[]> rows, Connection conn) throws SQLException {
       try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-          pstmt.setString(1, studentRegNo);
-          try (ResultSet rs = pstmt.executeQuery()) {
-              if (rs.next()) {
-                  totalCredits = rs.getInt(1);
-              }
+        int count = 0;
+        for (Object[] row : rows) {
+          for (int i = 0; i < row.length; i++) {
+            if (row[i] == null) {
+              pstmt.setNull(i + 1, Types.VARCHAR);
+            } else {
+              pstmt.setObject(i + 1, row[i]);
+            }
+          }
+          pstmt.addBatch();
+          if (++count % 1000 == 0) {
+            pstmt.executeBatch();
           }
+        }
+        if (count % 1000 != 0) {
+          pstmt.executeBatch();
+        }
       }
-      return totalCredits;
+    }
   }
 
-  private int getCurrentSemesterYearCreditsDirect(String studentRegNo, String semester, int year, Connection conn) throws SQLException {
-      int semesterCredits = 0;
-      String sql = "SELECT SUM(c.credits) FROM courses c JOIN enrollments e ON c.code = e.course_code "
-                 + "WHERE e.student_reg_no = ? AND e.enrollment_semester = ? AND e.enrollment_year = ?";
-      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-          pstmt.setString(1, studentRegNo);
-          pstmt.setString(2, semester);
-          pstmt.setInt(3, year);
-          try (ResultSet rs = pstmt.executeQuery()) {
-              if (rs.next()) {
-                  semesterCredits = rs.getInt(1);
-              }
+  private static final class EnrollmentRow {
+    private final String studentRegNo;
+    private final String courseCode;
+    private final int enrollYear;
+    private final String semester;
+    private final String grade;
+
+    EnrollmentRow(String studentRegNo, String courseCode, int enrollYear, String semester, String grade) {
+      this.studentRegNo = studentRegNo;
+      this.courseCode = courseCode;
+      this.enrollYear = enrollYear;
+      this.semester = semester;
+      this.grade = grade;
+    }
+  }
+
+  // Column positions come from the header, read once before any row is parsed
+  private static final class EnrollmentRowParser implements ImportPipeline.RowParser<EnrollmentRow> {
+    private final int currentYear = java.time.LocalDate.now().getYear();
+    private int idxStudent = -1, idxCourse = -1, idxGrade = -1, idxYear = -1, idxSemester = -1;
+
+    @Override
+    public void header(String[] headers) {
+      for (int i = 0; i < headers.length; i++) {
+        switch (headers[i].trim().toLowerCase()) {
+          case "studentregno": idxStudent = i; break;
+          case "coursecode":   idxCourse = i; break;
+          case "grade":        idxGrade = i; break;
+          case "enrollmentyear": idxYear = i; break;
+          case "semester":     idxSemester = i; break;
+        }
+      }
+      if (idxStudent < 0 || idxCourse < 0) {
+        throw new IllegalArgumentException("Enrollment file needs StudentRegNo and CourseCode columns");
+      }
+    }
+
+    @Override
+    public EnrollmentRow parse(String[] fields) {
+      if (fields.length < 2) return null;
+      if (!present(fields, idxStudent) || !present(fields, idxCourse)) {
+        throw new IllegalArgumentException("Missing StudentRegNo or CourseCode");
+      }
+      return new EnrollmentRow(
+        fields[idxStudent].trim(),
+        new CourseCode(fields[idxCourse].trim()).getCode(),
+        present(fields, idxYear) ? Integer.parseInt(fields[idxYear].trim()) : currentYear,
+        present(fields, idxSemester) ? fields[idxSemester].trim().toUpperCase() : "",
+        present(fields, idxGrade) ? fields[idxGrade].trim().toUpperCase() : null);
+    }
+
+    private static boolean present(String[] fields, int idx) {
+      return idx >= 0 && idx < fields.length && !fields[idx].isBlank();
+    }
+  }
+
+  /**
+   * Feeds each chunk through an EnrollmentRowWriter on the writer thread's connection and refreshes the
+   * running grade totals of the chunk's students, so they commit together with the chunk.
+   */
+  private final class EnrollmentChunkWriter implements ImportPipeline.ChunkWriter<EnrollmentRow> {
+    private final EnrollmentDimensions dims;
+    private final Connection placeholderConn;
+    private EnrollmentRowWriter writer;
+
+    EnrollmentChunkWriter(EnrollmentDimensions dims, Connection placeholderConn) {
+      this.dims = dims;
+      this.placeholderConn = placeholderConn;
+    }
+
+    @Override
+    public void write(List<EnrollmentRow> rows, Connection conn) throws SQLException {
+      if (writer == null) {
+        writer = new EnrollmentRowWriter(conn, ENROLLMENT_MERGE_SQL, dims, placeholderConn);
+      }
+      try {
+        for (EnrollmentRow row : rows) {
+          writer.write(row.studentRegNo, row.courseCode, row.enrollYear, row.semester, row.grade);
+        }
+        writer.finish();
+      } catch (SQLException e) {
+        // The failed batch may still be pending; start the next chunk on fresh statements
+        close();
+        throw e;
+      }
+    }
+
+    @Override
+    public void close() throws SQLException {
+      if (writer != null) {
+        try {
+          writer.close();
+        } finally {
+          writer = null;
+        }
+      }
+    }
+  }
+
+  // =========================================================================
+  // ENROLLMENT ROW WRITER
+  // =========================================================================
+  /**
+   * Writes enrollment rows with one batched MERGE, resolving everything else from preloaded
+   * EnrollmentDimensions. Missing students and courses get placeholder rows through their own batched
+   * inserts, flushed ahead of each MERGE batch so the foreign keys hold. The credit maps are updated as
+   * rows are accepted, so the limit warnings see earlier rows of the same file.
+   */
+  private final class EnrollmentRowWriter implements AutoCloseable {
+    private static final int BATCH_SIZE = 1000;
+
+    private final Connection conn;
+    private final EnrollmentDimensions dims;
+    // Set for parallel imports: placeholders are committed at once so every writer's MERGE can reference them
+    private final Connection placeholderConn;
+    private final PreparedStatement merge;
+    private final PreparedStatement insertCourse;
+    private final PreparedStatement insertStudent;
+    // Students whose grades the MERGE may have touched; their running totals are refreshed before commit
+    private final java.util.Set<String> affectedStudents = new java.util.HashSet<>();
+    private int pendingMerges;
+    private int pendingCourses;
+    private int pendingStudents;
+
+    EnrollmentRowWriter(Connection conn, String mergeSql) throws SQLException {
+      this(conn, mergeSql, EnrollmentDimensions.load(conn), null);
+    }
+
+    EnrollmentRowWriter(Connection conn, String mergeSql, EnrollmentDimensions dims, Connection placeholderConn) throws SQLException {
+      this.conn = conn;
+      this.dims = dims;
+      this.placeholderConn = placeholderConn;
+      this.merge = conn.prepareStatement(mergeSql);
+      this.insertCourse = conn.prepareStatement(PLACEHOLDER_COURSE_SQL);
+      this.insertStudent = conn.prepareStatement(PLACEHOLDER_STUDENT_SQL);
+    }
+
+    void write(String studentRegNo, String courseCode, int enrollYear, String csvSemester, String grade) throws SQLException {
+      // Course semester, or auto-create a placeholder course
+      String semester = dims.courseSemesters.get(courseCode);
+      if (semester == null) {
+        semester = createPlaceholderCourse(courseCode, !csvSemester.isEmpty() ? csvSemester : "FALL");
+      }
+
+      // Auto-create a placeholder student
+      if (dims.students.add(studentRegNo)) {
+        createPlaceholderStudent(studentRegNo);
+      }
+
+      // Business credit limits (warn only); a MERGE that matches an existing pair only updates the grade
+      int credits = dims.courseCredits.get(courseCode);
+      if (dims.enrolledPairs.add(studentRegNo + "|" + courseCode)) {
+        if (dims.totalCredits.getOrDefault(studentRegNo, 0) + credits > 225) {
+          System.err.println("Warning: Credit limit validation: student " + studentRegNo + " enrollment in " + courseCode + " would exceed total credits (225). Proceeding anyway.");
+        }
+        if (dims.termCredits.getOrDefault(EnrollmentDimensions.termKey(studentRegNo, semester, enrollYear), 0) + credits > 60) {
+          System.err.println("Warning: Credit limit validation: student " + studentRegNo + " enrollment in " + courseCode + " would exceed semester credits (60). Proceeding anyway.");
+        }
+        dims.addCredits(studentRegNo, semester, enrollYear, credits);
+      }
+
+      merge.setString(1, studentRegNo);
+      merge.setString(2, courseCode);
+      merge.setInt(3, enrollYear);
+      merge.setString(4, semester);
+      if (grade != null) {
+        merge.setString(5, grade);
+      } else {
+        merge.setNull(5, Types.VARCHAR);
+      }
+      merge.addBatch();
+      affectedStudents.add(studentRegNo);
+      if (++pendingMerges == BATCH_SIZE) {
+        flush();
+      }
+    }
+
+    /**
+     * Flushes the pending rows and refreshes the running grade totals of every student written since the
+     * last call.
+     */
+    void finish() throws SQLException {
+      flush();
+      enrollmentService.refreshGradeTotals(affectedStudents, conn);
+      affectedStudents.clear();
+    }
+
+    private String createPlaceholderCourse(String courseCode, String semester) throws SQLException {
+      synchronized (dims) {
+        String existing = dims.courseSemesters.get(courseCode);
+        if (existing != null) {
+          // Another writer of a parallel import got there first
+          return existing;
+        }
+        if (placeholderConn != null) {
+          try (PreparedStatement pstmt = placeholderConn.prepareStatement(PLACEHOLDER_COURSE_SQL)) {
+            bindPlaceholderCourse(pstmt, courseCode, semester);
+            pstmt.executeUpdate();
+          }
+        } else {
+          bindPlaceholderCourse(insertCourse, courseCode, semester);
+          insertCourse.addBatch();
+          pendingCourses++;
+        }
+        // Credits first: readers look up the semester, then the credits
+        dims.courseCredits.put(courseCode, 3);
+        dims.courseSemesters.put(courseCode, semester);
+      }
+      System.out.println("    - Auto-created placeholder course: " + courseCode);
+      return semester;
+    }
+
+    private void createPlaceholderStudent(String studentRegNo) throws SQLException {
+      if (placeholderConn != null) {
+        synchronized (dims) {
+          try (PreparedStatement pstmt = placeholderConn.prepareStatement(PLACEHOLDER_STUDENT_SQL)) {
+            bindPlaceholderStudent(pstmt, studentRegNo);
+            pstmt.executeUpdate();
+          }
+        }
+      } else {
+        bindPlaceholderStudent(insertStudent, studentRegNo);
+        insertStudent.addBatch();
+        pendingStudents++;
+      }
+      System.out.println("    - Auto-created placeholder student: " + studentRegNo);
+    }
+
+    private void flush() throws SQLException {
+      if (pendingCourses > 0) {
+        insertCourse.executeBatch();
+        pendingCourses = 0;
+      }
+      if (pendingStudents > 0) {
+        insertStudent.executeBatch();
+        pendingStudents = 0;
+      }
+      if (pendingMerges > 0) {
+        merge.executeBatch();
+        pendingMerges = 0;
+      }
+    }
+
+    @Override
+    public void close() throws SQLException {
+      try {
+        merge.close();
+      } finally {
+        try {
+          insertCourse.close();
+        } finally {
+          insertStudent.close();
+        }
+      }
+    }
+  }
+
+  private static final String PLACEHOLDER_COURSE_SQL =
+    "INSERT INTO courses (code, title, credits, department, semester) VALUES (?, ?, ?, ?, ?)";
+  private static final String PLACEHOLDER_STUDENT_SQL =
+    "INSERT INTO students (id, reg_no, first_name, last_name, email, status, registration_date) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+  private static void bindPlaceholderCourse(PreparedStatement pstmt, String courseCode, String semester) throws SQLException {
+    pstmt.setString(1, courseCode);
+    pstmt.setString(2, courseCode + " Placeholder");
+    pstmt.setInt(3, 3);
+    pstmt.setString(4, "General");
+    pstmt.setString(5, semester);
+  }
+
+  private static void bindPlaceholderStudent(PreparedStatement pstmt, String studentRegNo) throws SQLException {
+    int placeholderId = 900000 + Math.abs(studentRegNo.hashCode() % 100000);
+    pstmt.setInt(1, placeholderId);
+    pstmt.setString(2, studentRegNo);
+    pstmt.setString(3, "Placeholder");
+    pstmt.setString(4, studentRegNo);
+    pstmt.setString(5, studentRegNo.toLowerCase() + "@placeholder.com");
+    pstmt.setString(6, "ACTIVE");
+    pstmt.setDate(7, java.sql.Date.valueOf(java.time.LocalDate.now()));
+  }
+
+  /**
+   * Lookups the enrollment writers resolve rows against, preloaded once per import: course credits and
+   * semesters, existing students, existing (student, course) pairs, and per-student total and per-(student,
+   * term) credits. The collections are concurrent so the writers of a parallel import can share them.
+   * Rows are routed to writers by student, so one student's credit totals are only updated by one writer.
+   */
+  private static final class EnrollmentDimensions {
+    final java.util.Map<String, Integer> courseCredits = new java.util.concurrent.ConcurrentHashMap<>();
+    final java.util.Map<String, String> courseSemesters = new java.util.concurrent.ConcurrentHashMap<>();
+    final java.util.Set<String> students = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    final java.util.Set<String> enrolledPairs = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    final java.util.Map<String, Integer> totalCredits = new java.util.concurrent.ConcurrentHashMap<>();
+    final java.util.Map<String, Integer> termCredits = new java.util.concurrent.ConcurrentHashMap<>();
+
+    static EnrollmentDimensions load(Connection conn) throws SQLException {
+      EnrollmentDimensions dims = new EnrollmentDimensions();
+      try (java.sql.Statement stmt = conn.createStatement()) {
+        stmt.setFetchSize(EnrollmentRowWriter.BATCH_SIZE);
+        try (ResultSet rs = stmt.executeQuery("SELECT code, credits, semester FROM courses")) {
+          while (rs.next()) {
+            dims.courseCredits.put(rs.getString("code"), rs.getInt("credits"));
+            String semester = rs.getString("semester");
+            dims.courseSemesters.put(rs.getString("code"), semester != null ? semester : "");
+          }
+        }
+        try (ResultSet rs = stmt.executeQuery("SELECT reg_no FROM students")) {
+          while (rs.next()) {
+            dims.students.add(rs.getString(1));
+          }
+        }
+        String enrollmentSql = "SELECT e.student_reg_no, e.course_code, e.enrollment_semester, e.enrollment_year, c.credits "
+                             + "FROM enrollments e JOIN courses c ON c.code = e.course_code";
+        try (ResultSet rs = stmt.executeQuery(enrollmentSql)) {
+          while (rs.next()) {
+            String regNo = rs.getString(1);
+            dims.enrolledPairs.add(regNo + "|" + rs.getString(2));
+            dims.addCredits(regNo, rs.getString(3), rs.getInt(4), rs.getInt(5));
           }
+        }
       }
-      return semesterCredits;
+      return dims;
+    }
+
+    void addCredits(String regNo, String semester, int year, int credits) {
+      totalCredits.merge(regNo, credits, Integer::sum);
+      termCredits.merge(termKey(regNo, semester, year), credits, Integer::sum);
+    }
+
+    static String termKey(String regNo, String semester, int year) {
+      return regNo + "|" + semester + "|" + year;
+    }
   }
 
   // =========================================================================
   // EXPORT UTILITIES
   // =========================================================================
+  private static final int EXPORT_FETCH_SIZE = 5000;
+
+  /**
+   * Rows written and time taken by the export of one table.
+   */
+  public static class ExportStats {
+    private final String table;
+    private final Path path;
+    private final long rows;
+    private final long millis;
+
+    public ExportStats(String table, Path path, long rows, long millis) {
+      this.table = table;
+      this.path = path;
+      this.rows = rows;
+      this.millis = millis;
+    }
+
+    public String getTable() { return table; }
+    public Path getPath() { return path; }
+    public long getRows() { return rows; }
+    public long getMillis() { return millis; }
+
+    public double getRowsPerSecond() {
+      return millis == 0 ? rows * 1000.0 : rows * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s: %,d rows in %,d ms (%,.0f rows/sec)", table, rows, millis, getRowsPerSecond());
+    }
+  }
+
+  // Writes the CSV record(s) for the current row; finish() is called once after the last row
+  private interface RowEncoder {
+    void write(ResultSet rs, CsvWriter out) throws SQLException, IOException;
+
+    default void finish(CsvWriter out) throws IOException {}
+  }
+
+  public static class DeltaExportResult {
+    private final long since;
+    private final long upTo;
+    private final Path directory;
+    private final List<ExportStats> tables;
+
+    public DeltaExportResult(long since, long upTo, Path directory, List<ExportStats> tables) {
+      this.since = since;
+      this.upTo = upTo;
+      this.directory = directory;
+      this.tables = tables;
+    }
+
+    public long getSince() { return since; }
+    public long getUpTo() { return upTo; }
+    public Path getDirectory() { return directory; }
+    public List<ExportStats> getTables() { return tables; }
+  }
+
   public void exportData() throws IOException {
-    Files.createDirectories(config.getDataDirectory());
     System.out.println("Exporting data from database...");
-    exportStudents(config.getStudentsFilePath());
-    exportInstructors(config.getInstructorsFilePath());
-    exportCourses(config.getCoursesFilePath());
-    exportEnrollments(config.getEnrollmentsFilePath());
-    exportProbationReports(config.getDataDirectory().resolve("probation_reports.csv"));
+    for (ExportStats stats : exportDataStreaming()) {
+      System.out.println("    - " + stats);
+    }
     System.out.println("Data exported successfully.");
   }
 
-  private void exportStudents(Path path) throws IOException {
-    List<String> lines = studentService
-      .getAllStudentsSortedById()
-      .stream()
-      .map(Student::toCsvString)
-      .collect(Collectors.toList());
-    lines.add(0, "id,regNo,firstName,lastName,email,status,registrationDate,dob,phone,probationCount");
-    Files.write(
-      path,
-      lines,
-      StandardOpenOption.CREATE,
-      StandardOpenOption.TRUNCATE_EXISTING
-    );
-  }
-
-  private void exportInstructors(Path path) throws IOException {
-    List<String> lines = instructorService
-      .getAllInstructorsSortedById()
-      .stream()
-      .map(Instructor::toCsvString)
-      .collect(Collectors.toList());
-    lines.add(0, "FiD,firstName,lastName,email,department,dob,phone,cabinNo");
-    Files.write(
-      path,
-      lines,
-      StandardOpenOption.CREATE,
-      StandardOpenOption.TRUNCATE_EXISTING
-    );
-  }
-
-  private void exportCourses(Path path) throws IOException {
-    List<String> lines = courseService
-      .getAllCoursesSortedByCode()
-      .stream()
-      .map(c ->
-        String.join(
-          ",",
-          c.getCourseCode().getCode(),
-          c.getTitle(),
-          String.valueOf(c.getCredits()),
-          c.getDepartment(),
-          (c.getInstructor() != null)
-            ? c.getInstructor().getFiD()
-            : "",
-          c.getSemester().name(),
-          c.getClassroomNo() != null ? c.getClassroomNo() : ""
-        )
-      )
-      .collect(Collectors.toList());
-    lines.add(0, "code,title,credits,department,instructorId,semester,classroomNo");
-    Files.write(
-      path,
-      lines,
-      StandardOpenOption.CREATE,
-      StandardOpenOption.TRUNCATE_EXISTING
-    );
-  }
-
-  private void exportEnrollments(Path path) throws IOException {
-    List<String> lines = enrollmentService
-      .getAllEnrollments()
-      .stream()
-      .map(e ->
-        String.join(
-          ",",
-          e.getStudent().getRegNo(),
-          e.getCourse().getCourseCode().getCode(),
-          e.getGrade() != null ? e.getGrade().name() : ""
-        )
-      )
-      .collect(Collectors.toList());
-    lines.add(0, "studentRegNo,courseCode,grade");
-    Files.write(
-      path,
-      lines,
-      StandardOpenOption.CREATE,
-      StandardOpenOption.TRUNCATE_EXISTING
-    );
-  }
-
-  private void exportProbationReports(Path path) throws IOException {
-    List<String> lines = probationService
-      .getAllProbationReports()
-      .stream()
-      .map(r ->
-        String.join(
-          ",",
-          r.getProbationId(),
-          "\"" + String.join(";", r.getStudentRegNos()) + "\"",
-          r.getStartDate().toString(),
-          r.getEndDate().toString(),
-          "\"" + r.getReason().replace("\"", "\"\"") + "\""
-        )
-      )
-      .collect(Collectors.toList());
-    lines.add(0, "probationId,studentRegNos,startDate,endDate,reason");
-    Files.write(
-      path,
-      lines,
-      StandardOpenOption.CREATE,
-      StandardOpenOption.TRUNCATE_EXISTING
-    );
-  }
-
-  private LocalDate parseDateRobust(String dateStr) {
+  /**
+   * Exports the five tables at once, each on its own connection and thread. Every table is streamed from a
+   * forward-only, read-only cursor with a large fetch size straight into a CsvWriter, so heap use does not
+   * grow with the number of rows. The tables are read independently, not as one consistent snapshot.
+   * Also moves the delta-export watermark up to the changes this export is known to contain, and drops the
+   * tombstones below it.
+   * @return Per-table row counts and throughput, in the order students, instructors, courses, enrollments,
+   * probation reports.
+   * @throws IOException if any table fails; the others still run to completion.
+   */
+  public List<ExportStats> exportDataStreaming() throws IOException {
+    Files.createDirectories(config.getDataDirectory());
+    Long cutoff = null;
+    try {
+      cutoff = changeCutoff();
+    } catch (SQLException e) {
+      System.err.println("Warning: Change tracking unavailable, the delta watermark is not updated: " + e.getMessage());
+    }
+    List<ExportStats> stats = runExports(exportTasks(config.getDataDirectory(), null, null));
+    if (cutoff != null) {
+      writeExportWatermark(cutoff);
+      pruneTombstones(cutoff);
+    }
+    return stats;
+  }
+
+  /**
+   * Exports only what changed since the last export (full or delta), using the stored watermark.
+   * @see #exportDelta(long)
+   */
+  public DeltaExportResult exportDelta() throws IOException {
+    return exportDelta(getExportWatermark());
+  }
+
+  /**
+   * Writes the rows inserted or changed after the given change sequence number into a new directory under
+   * the data directory, as CSVs with the same layout as the full export, plus deleted.csv listing the keys
+   * removed since. Apply deleted.csv first and then upsert the rest. Then stores the new watermark and
+   * drops the tombstones it covers, so a delta from an older change sequence no longer lists those deletes.
+   * The upper bound is taken while briefly holding SHARE locks on the tracked tables, which waits out
+   * transactions in flight, so every change numbered at or below it is committed and visible; later
+   * changes are left for the next delta.
+   * @param since The change sequence of the previous export, or -1 for everything.
+   * @return The range exported, where the files went, and per-table counts.
+   * @throws IOException if the export fails; the watermark is then left where it was.
+   */
+  public DeltaExportResult exportDelta(long since) throws IOException {
+    long upTo;
+    try {
+      upTo = changeCutoff();
+    } catch (SQLException e) {
+      throw new IOException("Could not determine the change cutoff: " + e.getMessage(), e);
+    }
+    Path directory = config.getDataDirectory().resolve("deltas").resolve("delta-" + (since + 1) + "-" + upTo);
+    Files.createDirectories(directory);
+    String range = changeRange("", since, upTo);
+
+    List<java.util.concurrent.Callable<ExportStats>> tasks = new ArrayList<>(exportTasks(directory, since, upTo));
+    tasks.add(() -> exportTable("deleted", directory.resolve("deleted.csv"), "table,key,modifiedSeq",
+      "SELECT table_name, row_key, modified_seq FROM change_tombstones WHERE " + range + " ORDER BY modified_seq",
+      columnEncoder()));
+    List<ExportStats> stats = runExports(tasks);
+    writeExportWatermark(upTo);
+    pruneTombstones(upTo);
+    return new DeltaExportResult(since, upTo, directory, stats);
+  }
+
+  // Every later delta starts above the watermark, so older tombstones are never read again
+  private void pruneTombstones(long upTo) {
+    try (Connection conn = DatabaseManager.getConnection();
+         PreparedStatement pstmt = conn.prepareStatement("DELETE FROM change_tombstones WHERE modified_seq <= ?")) {
+      pstmt.setLong(1, upTo);
+      pstmt.executeUpdate();
+    } catch (SQLException e) {
+      System.err.println("Warning: Could not prune change tombstones: " + e.getMessage());
+    }
+  }
+
+  /**
+   * @return The change sequence covered by the last successful export, or -1 if there was none.
+   */
+  public long getExportWatermark() throws IOException {
+    Path file = config.getDataDirectory().resolve("export.watermark");
+    if (!Files.exists(file)) {
+      return -1;
+    }
+    java.util.Properties props = new java.util.Properties();
+    try (java.io.Reader reader = Files.newBufferedReader(file)) {
+      props.load(reader);
+    }
+    try {
+      return Long.parseLong(props.getProperty("modifiedSeq", "-1"));
+    } catch (NumberFormatException e) {
+      throw new IOException("Corrupt export watermark " + file + ": " + e.getMessage(), e);
+    }
+  }
+
+  private void writeExportWatermark(long modifiedSeq) throws IOException {
+    java.util.Properties props = new java.util.Properties();
+    props.setProperty("modifiedSeq", Long.toString(modifiedSeq));
+    props.setProperty("exportedAt", java.time.LocalDateTime.now().toString());
+    Path file = config.getDataDirectory().resolve("export.watermark");
+    Path temp = file.resolveSibling("export.watermark.tmp");
+    try (java.io.Writer writer = Files.newBufferedWriter(temp)) {
+      props.store(writer, "Last exported change sequence");
+    }
+    Files.move(temp, file, java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Waits for every transaction writing a tracked table to finish, then draws a change sequence number:
+   * every change numbered below it is committed, and every later change gets a higher number.
+   */
+  private long changeCutoff() throws SQLException {
+    try (Connection conn = DatabaseManager.getConnection()) {
+      conn.setAutoCommit(false);
+      try (java.sql.Statement stmt = conn.createStatement()) {
+        stmt.execute("LOCK TABLE students, instructors, courses, enrollments, probation_reports, probation_students IN SHARE MODE");
+        try (ResultSet rs = stmt.executeQuery("SELECT CCRM_CHANGE_SEQ.NEXTVAL FROM dual")) {
+          rs.next();
+          return rs.getLong(1);
+        }
+      } finally {
+        // Releases the locks
+        conn.rollback();
+        conn.setAutoCommit(true);
+      }
+    }
+  }
+
+  private static String changeRange(String alias, long since, long upTo) {
+    return alias + "modified_seq > " + since + " AND " + alias + "modified_seq <= " + upTo;
+  }
+
+  /**
+   * One export task per table, writing into the given directory.
+   * @param since For a delta export, the change sequence already exported; null for everything.
+   * @param upTo For a delta export, the last change sequence to include.
+   */
+  private List<java.util.concurrent.Callable<ExportStats>> exportTasks(Path directory, Long since, Long upTo) {
+    String where = since != null ? " WHERE " + changeRange("", since, upTo) : "";
+    // A report is re-exported when it changed or its student list did
+    String probationWhere = since != null
+      ? " WHERE (" + changeRange("r.", since, upTo) + ")"
+        + " OR r.probation_id IN (SELECT probation_id FROM probation_students WHERE " + changeRange("", since, upTo) + ")"
+        + " OR r.probation_id IN (SELECT SUBSTR(row_key, 1, INSTR(row_key, '|') - 1) FROM change_tombstones"
+        + " WHERE table_name = 'PROBATION_STUDENTS' AND " + changeRange("", since, upTo) + ")"
+      : "";
+    return List.of(
+      () -> exportTable("students", directory.resolve("students.csv"),
+        "id,regNo,firstName,lastName,email,status,registrationDate,dob,phone,probationCount",
+        "SELECT id, reg_no, first_name, last_name, email, status, TO_CHAR(registration_date, 'YYYY-MM-DD'), "
+          + "TO_CHAR(dob, 'YYYY-MM-DD'), phone, NVL(probation_count, 0) FROM students" + where + " ORDER BY id",
+        columnEncoder()),
+      () -> exportTable("instructors", directory.resolve("instructors.csv"),
+        "FiD,firstName,lastName,email,department,dob,phone,cabinNo",
+        "SELECT FiD, first_name, last_name, email, department, TO_CHAR(dob, 'YYYY-MM-DD'), phone, cabin_no "
+          + "FROM instructors" + where + " ORDER BY FiD",
+        columnEncoder()),
+      () -> exportTable("courses", directory.resolve("courses.csv"),
+        "code,title,credits,department,instructorId,semester,classroomNo",
+        "SELECT code, title, credits, department, instructor_id, semester, classroom_no FROM courses" + where + " ORDER BY code",
+        columnEncoder()),
+      () -> exportTable("enrollments", directory.resolve("enrollments.csv"),
+        "studentRegNo,courseCode,grade",
+        "SELECT student_reg_no, course_code, NVL(grade, 'NA') FROM enrollments" + where,
+        columnEncoder()),
+      () -> exportTable("probation_reports", directory.resolve("probation_reports.csv"),
+        "probationId,studentRegNos,startDate,endDate,reason",
+        "SELECT r.probation_id, TO_CHAR(r.start_date, 'YYYY-MM-DD'), TO_CHAR(r.end_date, 'YYYY-MM-DD'), r.reason, "
+          + "ps.student_reg_no FROM probation_reports r LEFT JOIN probation_students ps ON ps.probation_id = r.probation_id"
+          + probationWhere + " ORDER BY r.start_date DESC, r.probation_id",
+        new ProbationEncoder()));
+  }
+
+  private List<ExportStats> runExports(List<java.util.concurrent.Callable<ExportStats>> exports) throws IOException {
+    java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(exports.size(), runnable -> {
+      Thread thread = new Thread(runnable, "csv-export");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<java.util.concurrent.Future<ExportStats>> futures = pool.invokeAll(exports);
+      List<ExportStats> stats = new ArrayList<>();
+      IOException failure = null;
+      for (java.util.concurrent.Future<ExportStats> future : futures) {
+        try {
+          stats.add(future.get());
+        } catch (java.util.concurrent.ExecutionException e) {
+          Throwable cause = e.getCause();
+          IOException error = cause instanceof IOException
+            ? (IOException) cause
+            : new IOException("Export failed: " + cause.getMessage(), cause);
+          if (failure == null) {
+            failure = error;
+          } else {
+            failure.addSuppressed(error);
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return stats;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Export interrupted", e);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private ExportStats exportTable(String table, Path path, String header, String sql, RowEncoder encoder)
+    throws IOException, SQLException {
+    long start = System.nanoTime();
+    try (Connection conn = DatabaseManager.getConnection();
+         java.sql.Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+         CsvWriter out = CsvWriter.create(path)) {
+      stmt.setFetchSize(EXPORT_FETCH_SIZE);
+      out.record(header.split(","));
+      try (ResultSet rs = stmt.executeQuery(sql)) {
+        while (rs.next()) {
+          encoder.write(rs, out);
+        }
+      }
+      encoder.finish(out);
+      out.flush();
+      long millis = (System.nanoTime() - start) / 1_000_000;
+      return new ExportStats(table, path, out.getRecordCount() - 1, millis);
+    } catch (SQLException e) {
+      throw new SQLException("Error exporting " + table + ": " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Writes every selected column as one field: whole numbers are formatted without going through a String,
+   * everything else as text, and NULLs as empty fields.
+   */
+  private static RowEncoder columnEncoder() {
+    return new RowEncoder() {
+      private boolean[] integral;
+
+      @Override
+      public void write(ResultSet rs, CsvWriter out) throws SQLException, IOException {
+        if (integral == null) {
+          java.sql.ResultSetMetaData meta = rs.getMetaData();
+          integral = new boolean[meta.getColumnCount()];
+          for (int i = 0; i < integral.length; i++) {
+            int type = meta.getColumnType(i + 1);
+            integral[i] = (type == Types.NUMERIC || type == Types.INTEGER || type == Types.BIGINT)
+              && meta.getScale(i + 1) == 0;
+          }
+        }
+        for (int i = 0; i < integral.length; i++) {
+          if (integral[i]) {
+            long value = rs.getLong(i + 1);
+            if (rs.wasNull()) {
+              out.field((CharSequence) null);
+            } else {
+              out.field(value);
+            }
+          } else {
+            out.field(rs.getString(i + 1));
+          }
+        }
+        out.endRecord();
+      }
+    };
+  }
+
+  // Report rows arrive once per student, grouped by report; each group becomes one record
+  private static final class ProbationEncoder implements RowEncoder {
+    private String probationId;
+    private String startDate;
+    private String endDate;
+    private String reason;
+    private final StringBuilder regNos = new StringBuilder();
+
+    @Override
+    public void write(ResultSet rs, CsvWriter out) throws SQLException, IOException {
+      String id = rs.getString(1);
+      if (!id.equals(probationId)) {
+        finish(out);
+        probationId = id;
+        startDate = rs.getString(2);
+        endDate = rs.getString(3);
+        reason = rs.getString(4);
+      }
+      String regNo = rs.getString(5);
+      if (regNo != null) {
+        if (regNos.length() > 0) {
+          regNos.append(';');
+        }
+        regNos.append(regNo);
+      }
+    }
+
+    @Override
+    public void finish(CsvWriter out) throws IOException {
+      if (probationId != null) {
+        out.field(probationId).field(regNos).field(startDate).field(endDate).field(reason).endRecord();
+        probationId = null;
+        regNos.setLength(0);
+      }
+    }
+  }
+
+  static LocalDate parseDateRobust(String dateStr) {
       if (dateStr == null || dateStr.trim().isEmpty()) return null;
       dateStr = dateStr.trim();
       try {
@@ -0,0 +1,430 @@
+package edu.ccrm.io;
+
+import edu.ccrm.io.ImportExportService.ImportProgressCallback;
+import edu.ccrm.io.csv.CsvReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Three-stage CSV import: one reader thread splits the file into chunks, a pool of workers parses and
+ * validates them, and writer threads, each holding its own pooled connection, write them to the database.
+ * Bounded queues between the stages give backpressure, so a slow database throttles the reader instead of
+ * buffering the whole file.
+ * Rows are routed to writers by a partition key, so rows for the same key are always written by the same
+ * writer, in file order. Each writer handles its share of the chunks in chunk order.
+ * In PER_CHUNK mode each writer commits after every chunk, and a failed chunk is rolled back and reported
+ * without stopping the import. SINGLE_TRANSACTION mode uses one writer and one transaction, and any row or
+ * chunk error rolls back the whole import.
+ * @param <T> The parsed row type.
+ */
+public class ImportPipeline<T> {
+
+    public enum Mode { PER_CHUNK, SINGLE_TRANSACTION }
+
+    public static final int DEFAULT_CHUNK_SIZE = 2000;
+    public static final int DEFAULT_WRITERS = 4;
+
+    private static final long OFFER_TIMEOUT_MS = 100;
+    private static final Object END = new Object();
+
+    /**
+     * Parses and validates one CSV record. Runs on the worker pool, so it must be thread-safe.
+     */
+    public interface RowParser<T> {
+        default void header(String[] headers) {}
+
+        /**
+         * @throws Exception with a message describing the problem if the row is invalid.
+         */
+        T parse(String[] fields) throws Exception;
+    }
+
+    /**
+     * Writes chunks for one writer thread. Each writer gets its own instance, so instances need not be thread-safe.
+     */
+    public interface ChunkWriter<T> extends AutoCloseable {
+        void write(List<T> rows, Connection conn) throws SQLException;
+
+        // Called once after this writer's last chunk, before the final commit
+        default void finish(Connection conn) throws SQLException {}
+
+        @Override
+        default void close() throws SQLException {}
+    }
+
+    /**
+     * Problems found in one chunk: rows that failed parsing or validation, or the write failure that rolled
+     * the chunk back.
+     */
+    public static class ChunkError {
+        private final int chunk;
+        private final long firstLine;
+        private final long lastLine;
+        private final List<String> messages;
+
+        public ChunkError(int chunk, long firstLine, long lastLine, List<String> messages) {
+            this.chunk = chunk;
+            this.firstLine = firstLine;
+            this.lastLine = lastLine;
+            this.messages = messages;
+        }
+
+        public int getChunk() { return chunk; }
+        public long getFirstLine() { return firstLine; }
+        public long getLastLine() { return lastLine; }
+        public List<String> getMessages() { return messages; }
+
+        @Override
+        public String toString() {
+            return String.format("Chunk %d (lines %d-%d): %s", chunk, firstLine, lastLine, String.join("; ", messages));
+        }
+    }
+
+    public static class ImportResult {
+        private final int rowsRead;
+        private final int rowsWritten;
+        private final List<ChunkError> errors;
+
+        public ImportResult(int rowsRead, int rowsWritten, List<ChunkError> errors) {
+            this.rowsRead = rowsRead;
+            this.rowsWritten = rowsWritten;
+            this.errors = errors;
+        }
+
+        public int getRowsRead() { return rowsRead; }
+        public int getRowsWritten() { return rowsWritten; }
+        public List<ChunkError> getErrors() { return errors; }
+        public boolean hasErrors() { return !errors.isEmpty(); }
+    }
+
+    private static final class RawChunk {
+        final int seq;
+        final List<String[]> rows;
+        final List<Long> lines;
+
+        RawChunk(int seq, int size) {
+            this.seq = seq;
+            this.rows = new ArrayList<>(size);
+            this.lines = new ArrayList<>(size);
+        }
+    }
+
+    // One writer's share of a chunk; every writer gets one for every chunk, possibly empty, so it can
+    // tell when the next chunk in order has arrived
+    private static final class WriterChunk<T> {
+        final int seq;
+        final long firstLine;
+        final long lastLine;
+        final List<T> rows = new ArrayList<>();
+
+        WriterChunk(int seq, long firstLine, long lastLine) {
+            this.seq = seq;
+            this.firstLine = firstLine;
+            this.lastLine = lastLine;
+        }
+    }
+
+    private final RowParser<T> parser;
+    private final Function<T, Object> partitionKey;
+    private final Supplier<ChunkWriter<T>> writerFactory;
+    private final Mode mode;
+    private final int parseWorkers;
+    private final int writers;
+    private final int chunkSize;
+
+    private final AtomicBoolean aborted = new AtomicBoolean();
+    private final AtomicInteger rowsWritten = new AtomicInteger();
+    private final Map<Integer, ChunkError> errors = Collections.synchronizedMap(new HashMap<>());
+
+    public ImportPipeline(RowParser<T> parser, Function<T, Object> partitionKey,
+                          Supplier<ChunkWriter<T>> writerFactory, Mode mode) {
+        this(parser, partitionKey, writerFactory, mode,
+                Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)),
+                mode == Mode.SINGLE_TRANSACTION ? 1 : DEFAULT_WRITERS, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ImportPipeline(RowParser<T> parser, Function<T, Object> partitionKey,
+                          Supplier<ChunkWriter<T>> writerFactory, Mode mode,
+                          int parseWorkers, int writers, int chunkSize) {
+        if (mode == Mode.SINGLE_TRANSACTION && writers != 1) {
+            throw new IllegalArgumentException("A single-transaction import needs exactly one writer");
+        }
+        this.parser = parser;
+        this.partitionKey = partitionKey;
+        this.writerFactory = writerFactory;
+        this.mode = mode;
+        this.parseWorkers = parseWorkers;
+        this.writers = writers;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Runs the import. A pipeline instance runs once.
+     * @param path The CSV file; its first record is the header.
+     * @param callback Receives rows-written progress from the writer threads, may be null.
+     * @return Row counts and the per-chunk errors.
+     * @throws IOException if the file cannot be read.
+     * @throws SQLException if a SINGLE_TRANSACTION import fails, or a writer cannot get a connection.
+     */
+    public ImportResult run(Path path, ImportProgressCallback callback) throws IOException, SQLException {
+        int total = (int) ImportExportService.countDataLines(path);
+        BlockingQueue<Object> parseQueue = new ArrayBlockingQueue<>(parseWorkers * 2);
+        List<BlockingQueue<Object>> writerQueues = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            writerQueues.add(new ArrayBlockingQueue<>(4));
+        }
+
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(1 + parseWorkers + writers, runnable -> {
+            Thread thread = new Thread(runnable, "import-pipeline-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Future<Integer> reader = pool.submit(() -> read(path, parseQueue));
+            List<Future<?>> parsers = new ArrayList<>();
+            for (int i = 0; i < parseWorkers; i++) {
+                parsers.add(pool.submit(() -> {
+                    parse(parseQueue, writerQueues);
+                    return null;
+                }));
+            }
+            List<Future<?>> writerFutures = new ArrayList<>();
+            for (BlockingQueue<Object> queue : writerQueues) {
+                writerFutures.add(pool.submit(() -> {
+                    write(queue, callback, total);
+                    return null;
+                }));
+            }
+
+            Throwable failure = null;
+            int rowsRead = 0;
+            try {
+                rowsRead = reader.get();
+            } catch (ExecutionException e) {
+                failure = e.getCause();
+            }
+            for (Future<?> future : parsers) {
+                failure = await(future, failure);
+            }
+            // Every chunk has been handed to the writers; the end marker queues up behind them
+            for (BlockingQueue<Object> queue : writerQueues) {
+                offer(queue, END, true);
+            }
+            for (Future<?> future : writerFutures) {
+                failure = await(future, failure);
+            }
+
+            if (failure != null) {
+                if (failure instanceof IOException) throw (IOException) failure;
+                if (failure instanceof SQLException) throw (SQLException) failure;
+                if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+                throw new RuntimeException("Import pipeline failed: " + failure.getMessage(), failure);
+            }
+            List<ChunkError> chunkErrors;
+            synchronized (errors) {
+                chunkErrors = new ArrayList<>(errors.values());
+            }
+            chunkErrors.sort((a, b) -> Integer.compare(a.getChunk(), b.getChunk()));
+            return new ImportResult(rowsRead, rowsWritten.get(), chunkErrors);
+        } catch (InterruptedException e) {
+            aborted.set(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Import interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Throwable await(Future<?> future, Throwable failure) throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            if (failure == null) {
+                failure = e.getCause();
+            }
+        }
+        return failure;
+    }
+
+    private int read(Path path, BlockingQueue<Object> parseQueue) throws IOException, InterruptedException {
+        int rowsRead = 0;
+        try (CsvReader csv = CsvReader.open(path)) {
+            if (csv.next()) {
+                parser.header(csv.toArray());
+                int seq = 0;
+                RawChunk chunk = new RawChunk(seq, chunkSize);
+                while (!aborted.get() && csv.next()) {
+                    chunk.rows.add(csv.toArray());
+                    chunk.lines.add(csv.getLineNumber());
+                    rowsRead++;
+                    if (chunk.rows.size() == chunkSize) {
+                        offer(parseQueue, chunk, false);
+                        chunk = new RawChunk(++seq, chunkSize);
+                    }
+                }
+                if (!chunk.rows.isEmpty()) {
+                    offer(parseQueue, chunk, false);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            aborted.set(true);
+            throw e;
+        } finally {
+            for (int i = 0; i < parseWorkers; i++) {
+                offer(parseQueue, END, true);
+            }
+        }
+        return rowsRead;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void parse(BlockingQueue<Object> parseQueue, List<BlockingQueue<Object>> writerQueues) throws Exception {
+        while (true) {
+            Object item = parseQueue.take();
+            if (item == END) {
+                return;
+            }
+            RawChunk raw = (RawChunk) item;
+            long firstLine = raw.lines.get(0);
+            long lastLine = raw.lines.get(raw.lines.size() - 1);
+            List<WriterChunk<T>> shares = new ArrayList<>(writers);
+            for (int i = 0; i < writers; i++) {
+                shares.add(new WriterChunk<>(raw.seq, firstLine, lastLine));
+            }
+            List<String> rowErrors = new ArrayList<>();
+            for (int i = 0; i < raw.rows.size(); i++) {
+                try {
+                    T row = parser.parse(raw.rows.get(i));
+                    if (row != null) {
+                        shares.get(Math.floorMod(partitionKey.apply(row).hashCode(), writers)).rows.add(row);
+                    }
+                } catch (Exception e) {
+                    rowErrors.add("line " + raw.lines.get(i) + ": " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+                }
+            }
+            if (!rowErrors.isEmpty()) {
+                recordErrors(raw.seq, firstLine, lastLine, rowErrors);
+                if (mode == Mode.SINGLE_TRANSACTION) {
+                    aborted.set(true);
+                    throw new IllegalArgumentException("Invalid rows in chunk " + raw.seq + ": " + rowErrors.get(0));
+                }
+            }
+            for (int i = 0; i < writers; i++) {
+                offer(writerQueues.get(i), shares.get(i), false);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write(BlockingQueue<Object> queue, ImportProgressCallback callback, int total) throws Exception {
+        // Any failure, including getting the connection or the writer, aborts the import so the parse
+        // workers stop waiting for room in this writer's queue
+        try {
+            try (Connection conn = DatabaseManager.getConnection();
+                 ChunkWriter<T> writer = writerFactory.get()) {
+                conn.setAutoCommit(false);
+                try {
+                    // Parse workers finish chunks out of order; hold early ones until their turn
+                    Map<Integer, WriterChunk<T>> early = new HashMap<>();
+                    int next = 0;
+                    while (true) {
+                        Object item = queue.take();
+                        if (item == END) {
+                            break;
+                        }
+                        WriterChunk<T> share = (WriterChunk<T>) item;
+                        early.put(share.seq, share);
+                        while (early.containsKey(next)) {
+                            writeChunk(early.remove(next++), writer, conn, callback, total);
+                        }
+                    }
+                    if (aborted.get()) {
+                        conn.rollback();
+                        return;
+                    }
+                    writer.finish(conn);
+                    conn.commit();
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        } catch (Exception e) {
+            aborted.set(true);
+            throw e;
+        }
+    }
+
+    private void writeChunk(WriterChunk<T> share, ChunkWriter<T> writer, Connection conn,
+                            ImportProgressCallback callback, int total) throws SQLException {
+        if (share.rows.isEmpty() || aborted.get()) {
+            return;
+        }
+        try {
+            writer.write(share.rows, conn);
+            if (mode == Mode.PER_CHUNK) {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            if (mode == Mode.SINGLE_TRANSACTION) {
+                throw e;
+            }
+            conn.rollback();
+            List<String> messages = new ArrayList<>();
+            messages.add(share.rows.size() + " rows rolled back: " + e.getMessage());
+            recordErrors(share.seq, share.firstLine, share.lastLine, messages);
+            return;
+        }
+        int written = rowsWritten.addAndGet(share.rows.size());
+        if (callback != null) callback.onProgress(written, total);
+    }
+
+    private void recordErrors(int seq, long firstLine, long lastLine, List<String> messages) {
+        synchronized (errors) {
+            ChunkError existing = errors.get(seq);
+            if (existing != null) {
+                existing.getMessages().addAll(messages);
+            } else {
+                errors.put(seq, new ChunkError(seq, firstLine, lastLine, new ArrayList<>(messages)));
+            }
+        }
+    }
+
+    /**
+     * Queues an item, giving up once the import is aborted unless force is set. Forced offers are only
+     * used for end markers, which must get through so the consumers stop.
+     */
+    private void offer(BlockingQueue<Object> queue, Object item, boolean force) throws InterruptedException {
+        while (!queue.offer(item, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (aborted.get() && !force) {
+                return;
+            }
+            if (aborted.get()) {
+                // Consumers may have stopped taking; make room for the end marker
+                queue.poll();
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package edu.ccrm.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a standard zip archive whose entries are compressed on a worker pool.
+ * Every entry is cut into 1 MiB blocks that are deflated independently, each primed with the last 32 KiB of
+ * the block before it so the ratio stays close to a single stream. Blocks end on a sync flush, which makes
+ * their concatenation one valid deflate stream. The calling thread reads the input and computes the CRC,
+ * the workers compress, and finished blocks are written strictly in submission order, so the archive is
+ * byte-for-byte the same whatever the thread count. At most a few blocks per thread are in flight, which
+ * bounds memory.
+ * Sizes are not known when an entry starts, so entries use data descriptors. ZIP64 is not written: an
+ * archive over 4 GiB or 65,535 entries fails when it is closed.
+ */
+public final class ParallelZipWriter implements Closeable {
+
+    private static final int BLOCK_SIZE = 1024 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+    private static final long MAX_32 = 0xFFFFFFFFL;
+
+    private static final class Entry {
+        final byte[] name;
+        final int dosTime;
+        final int dosDate;
+        long crc;
+        long size;
+        long compressedSize;
+        long offset = -1;
+
+        Entry(byte[] name, int dosTime, int dosDate) {
+            this.name = name;
+            this.dosTime = dosTime;
+            this.dosDate = dosDate;
+        }
+    }
+
+    private static final class Block {
+        final Entry entry;
+        final Future<byte[]> data;
+        final boolean last;
+
+        Block(Entry entry, Future<byte[]> data, boolean last) {
+            this.entry = entry;
+            this.data = data;
+            this.last = last;
+        }
+    }
+
+    private final OutputStream out;
+    private final int level;
+    private final ExecutorService pool;
+    private final int window;
+    private final ArrayDeque<Block> pending = new ArrayDeque<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private long written;
+    private boolean failed;
+
+    /**
+     * @param out Receives the archive; closed with the writer.
+     * @param level Deflate level, 0-9, or -1 for the default.
+     * @param threads Compression threads.
+     */
+    public ParallelZipWriter(OutputStream out, int level, int threads) {
+        if (level < -1 || level > 9) {
+            throw new IllegalArgumentException("Compression level must be between -1 and 9: " + level);
+        }
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.level = level;
+        int workers = Math.max(1, threads);
+        this.window = workers * 2;
+        this.pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "zip-deflate");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void addFile(String name, Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            addEntry(name, in, Files.getLastModifiedTime(file).toMillis());
+        }
+    }
+
+    /**
+     * Adds an entry with the stream's remaining content. Returns once the last block is queued; it is
+     * written out later, in order.
+     */
+    public void addEntry(String name, InputStream in, long modifiedMillis) throws IOException {
+        try {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(modifiedMillis), ZoneId.systemDefault());
+            int year = Math.max(time.getYear(), 1980);
+            Entry entry = new Entry(name.getBytes(StandardCharsets.UTF_8),
+                    (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() / 2),
+                    ((year - 1980) << 9) | (time.getMonthValue() << 5) | time.getDayOfMonth());
+            CRC32 crc = new CRC32();
+            byte[] dictionary = null;
+            byte[] current = in.readNBytes(BLOCK_SIZE);
+            while (true) {
+                byte[] next = current.length == BLOCK_SIZE ? in.readNBytes(BLOCK_SIZE) : EMPTY;
+                boolean last = next.length == 0;
+                crc.update(current);
+                entry.size += current.length;
+                if (last) {
+                    // Must be set before the last block can be drained
+                    entry.crc = crc.getValue();
+                }
+                submit(entry, current, dictionary, last);
+                if (last) {
+                    return;
+                }
+                dictionary = Arrays.copyOfRange(current, current.length - DICTIONARY_SIZE, current.length);
+                current = next;
+            }
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the remaining blocks and the central directory, then closes the output. After a failed add
+     * only the output is closed; the partial archive is not valid.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!failed) {
+                while (!pending.isEmpty()) {
+                    drainOne();
+                }
+                writeCentralDirectory();
+            }
+        } finally {
+            pool.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submit(Entry entry, byte[] data, byte[] dictionary, boolean last) throws IOException {
+        while (pending.size() >= window) {
+            drainOne();
+        }
+        pending.add(new Block(entry, pool.submit(() -> deflate(data, dictionary, last)), last));
+    }
+
+    private byte[] deflate(byte[] data, byte[] dictionary, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(data);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                // A sync flush ends the block on a byte boundary without ending the stream
+                int length;
+                do {
+                    length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, length);
+                } while (length == buffer.length);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void drainOne() throws IOException {
+        Block block = pending.poll();
+        byte[] data;
+        try {
+            data = block.data.get();
+        } catch (ExecutionException e) {
+            failed = true;
+            throw new IOException("Compression failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            failed = true;
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing", e);
+        }
+        Entry entry = block.entry;
+        if (entry.offset < 0) {
+            entry.offset = written;
+            writeLocalHeader(entry);
+        }
+        write(data);
+        entry.compressedSize += data.length;
+        if (block.last) {
+            writeInt(0x08074b50L);
+            writeInt(entry.crc);
+            writeInt(entry.compressedSize);
+            writeInt(entry.size);
+            entries.add(entry);
+        }
+    }
+
+    private void writeLocalHeader(Entry entry) throws IOException {
+        writeInt(0x04034b50L);
+        writeShort(20);          // version needed: deflate
+        writeShort(0x0808);      // data descriptor follows, UTF-8 name
+        writeShort(8);           // deflated
+        writeShort(entry.dosTime);
+        writeShort(entry.dosDate);
+        writeInt(0);             // CRC and sizes are in the data descriptor
+        writeInt(0);
+        writeInt(0);
+        writeShort(entry.name.length);
+        writeShort(0);
+        write(entry.name);
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long start = written;
+        for (Entry entry : entries) {
+            if (entry.size > MAX_32 || entry.compressedSize > MAX_32 || entry.offset > MAX_32) {
+                throw new IOException("Archive needs ZIP64, which this writer does not support");
+            }
+            writeInt(0x02014b50L);
+            writeShort(20);      // made by
+            writeShort(20);      // needed
+            writeShort(0x0808);
+            writeShort(8);
+            writeShort(entry.dosTime);
+            writeShort(entry.dosDate);
+            writeInt(entry.crc);
+            writeInt(entry.compressedSize);
+            writeInt(entry.size);
+            writeShort(entry.name.length);
+            writeShort(0);       // extra
+            writeShort(0);       // comment
+            writeShort(0);       // disk
+            writeShort(0);       // internal attributes
+            writeInt(0);         // external attributes
+            writeInt(entry.offset);
+            write(entry.name);
+        }
+        long size = written - start;
+        if (entries.size() > 0xFFFF || start > MAX_32) {
+            throw new IOException("Archive needs ZIP64, which this writer does not support");
+        }
+        writeInt(0x06054b50L);
+        writeShort(0);
+        writeShort(0);
+        writeShort(entries.size());
+        writeShort(entries.size());
+        writeInt(size);
+        writeInt(start);
+        writeShort(0);
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        written += bytes.length;
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        written += 2;
+    }
+
+    private void writeInt(long value) throws IOException {
+        out.write((int) (value & 0xff));
+        out.write((int) ((value >>> 8) & 0xff));
+        out.write((int) ((value >>> 16) & 0xff));
+        out.write((int) ((value >>> 24) & 0xff));
+        written += 4;
+    }
+}
@@ -0,0 +1,157 @@
+package edu.ccrm.io;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Standalone timing driver for ParallelZipWriter against the single-threaded ZipOutputStream the backups
+ * used before. Not part of the application; run it by hand:
+ *   java -cp out edu.ccrm.io.ParallelZipWriterBenchmark [data-dir] [level] [runs]
+ * Without a data directory it generates one of about 400 MB of CSV shaped like the exports in a temporary
+ * directory and deletes it afterwards. Each configuration runs once to warm up and then the given number
+ * of times (default 3); the best run is reported. Every archive is read back with ZipFile, so a
+ * configuration that writes a broken archive fails rather than reports a time.
+ */
+public final class ParallelZipWriterBenchmark {
+
+    private static final long GENERATED_BYTES = 400L * 1024 * 1024;
+    private static final int GENERATED_FILES = 8;
+
+    private interface ArchiveWriter {
+        void write(List<Path> files, Path root, Path archive) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dataDir = args.length > 0 ? Paths.get(args[0]) : null;
+        int level = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        boolean generated = dataDir == null;
+        if (generated) {
+            dataDir = Files.createTempDirectory("ccrm-zip-bench");
+            generate(dataDir);
+        }
+        Path archive = Files.createTempFile("ccrm-zip-bench", ".zip");
+        try {
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(dataDir)) {
+                files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            long bytes = 0;
+            for (Path file : files) {
+                bytes += Files.size(file);
+            }
+            System.out.printf("%d files, %,d bytes, level %d, %d runs%n", files.size(), bytes, level, runs);
+
+            Path root = dataDir;
+            measure("ZipOutputStream", files, root, archive, bytes, runs, (list, base, target) -> {
+                try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(target), 64 * 1024))) {
+                    zip.setLevel(level);
+                    for (Path file : list) {
+                        zip.putNextEntry(new ZipEntry(base.relativize(file).toString().replace('\\', '/')));
+                        Files.copy(file, zip);
+                        zip.closeEntry();
+                    }
+                }
+            });
+            int cores = Runtime.getRuntime().availableProcessors();
+            List<Integer> threadCounts = new ArrayList<>();
+            for (int threads = 1; threads < cores; threads *= 2) {
+                threadCounts.add(threads);
+            }
+            threadCounts.add(cores);
+            for (int threads : threadCounts) {
+                measure("ParallelZipWriter x" + threads, files, root, archive, bytes, runs, (list, base, target) -> {
+                    try (ParallelZipWriter zip = new ParallelZipWriter(Files.newOutputStream(target), level, threads)) {
+                        for (Path file : list) {
+                            zip.addFile(base.relativize(file).toString().replace('\\', '/'), file);
+                        }
+                    }
+                });
+            }
+        } finally {
+            Files.deleteIfExists(archive);
+            if (generated) {
+                try (Stream<Path> walk = Files.walk(dataDir)) {
+                    for (Path path : walk.sorted((a, b) -> b.compareTo(a)).collect(Collectors.toList())) {
+                        Files.deleteIfExists(path);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void measure(String label, List<Path> files, Path root, Path archive, long bytes, int runs,
+                                ArchiveWriter writer) throws IOException {
+        writer.write(files, root, archive);
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            writer.write(files, root, archive);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        verify(archive, files.size());
+        double seconds = best / 1e9;
+        System.out.printf("%-22s %8.2f s %8.1f MB/s  archive %,d bytes%n",
+                label, seconds, bytes / 1048576.0 / seconds, Files.size(archive));
+    }
+
+    private static void verify(Path archive, int expectedEntries) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int entries = 0;
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            Enumeration<? extends ZipEntry> all = zip.entries();
+            while (all.hasMoreElements()) {
+                // Reading to the end makes ZipFile check the CRC
+                try (InputStream in = zip.getInputStream(all.nextElement())) {
+                    while (in.read(buffer) != -1) {
+                        // discard
+                    }
+                }
+                entries++;
+            }
+        }
+        if (entries != expectedEntries) {
+            throw new IOException("Archive has " + entries + " entries, expected " + expectedEntries);
+        }
+    }
+
+    private static void generate(Path dir) throws IOException {
+        String[] departments = {"CSE", "ECE", "MECH", "CIVIL", "EEE", "IT", "CHEM", "BIO"};
+        String[] grades = {"S", "A", "B", "C", "D", "E", "F", "NA"};
+        Random random = new Random(42);
+        long perFile = GENERATED_BYTES / GENERATED_FILES;
+        for (int f = 0; f < GENERATED_FILES; f++) {
+            Path file = dir.resolve("enrollments-" + f + ".csv");
+            try (OutputStream raw = Files.newOutputStream(file);
+                 BufferedWriter out = new BufferedWriter(new OutputStreamWriter(raw, StandardCharsets.UTF_8), 64 * 1024)) {
+                out.write("student_reg_no,course_code,grade,enrollment_year,enrollment_semester,department\n");
+                long written = 0;
+                while (written < perFile) {
+                    String line = String.format("REG%07d,%s%03d,%s,%d,%s,%s%n",
+                            random.nextInt(10_000_000), departments[random.nextInt(departments.length)],
+                            random.nextInt(500), grades[random.nextInt(grades.length)], 2015 + random.nextInt(10),
+                            random.nextBoolean() ? "FALL" : "SPRING", departments[random.nextInt(departments.length)]);
+                    out.write(line);
+                    written += line.length();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.AppConfig;
+import edu.ccrm.util.DirectorySizeTracker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Takes database backups on a fixed interval and expires old archives with a grandfather-father-son
+ * policy: the newest archive in each of the N most recent hours, days and weeks that have one is kept, and
+ * everything else is deleted. Zip backups and database backups are retained separately; the newest of
+ * each is never deleted. Backups and retention run on one daemon thread owned by the application, which start() and
+ * stop() tie to its lifecycle, so a backup and a prune never overlap. Both are off unless an interval is set.
+ * Retention only covers the zip archives: incremental backup manifests and the chunk store they share are
+ * never pruned, so they grow until removed by hand.
+ * The backup directory's size is kept by a DirectorySizeTracker instead of being walked on every query.
+ */
+public class ScheduledBackupManager {
+
+    private static final Pattern ARCHIVE_NAME = Pattern.compile("(ccrm-(?:db-)?backup)-(\\d{8}-\\d{6})\\.zip");
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final BackupService backupService;
+    private final Duration interval;
+    private final int keepHourly;
+    private final int keepDaily;
+    private final int keepWeekly;
+    private final DirectorySizeTracker sizeTracker;
+    private ScheduledExecutorService scheduler;
+
+    public ScheduledBackupManager(BackupService backupService) {
+        this(backupService, AppConfig.getInstance().getBackupInterval(), AppConfig.getInstance().getBackupKeepHourly(),
+                AppConfig.getInstance().getBackupKeepDaily(), AppConfig.getInstance().getBackupKeepWeekly());
+    }
+
+    /**
+     * @param interval Time between scheduled backups; zero disables both backups and retention.
+     */
+    public ScheduledBackupManager(BackupService backupService, Duration interval, int keepHourly, int keepDaily, int keepWeekly) {
+        this.backupService = backupService;
+        this.interval = interval;
+        this.keepHourly = keepHourly;
+        this.keepDaily = keepDaily;
+        this.keepWeekly = keepWeekly;
+        this.sizeTracker = new DirectorySizeTracker(AppConfig.getInstance().getBackupDirectory());
+    }
+
+    /**
+     * Starts the scheduler: retention runs once right away, then a backup followed by retention runs
+     * every interval. Does nothing if already started or if no interval is set.
+     */
+    public synchronized void start() {
+        if (scheduler != null || interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "backup-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::runRetention);
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::runScheduledBackup, millis, millis, TimeUnit.MILLISECONDS);
+        System.out.println("Scheduled database backups every " + interval.toMinutes() + " minutes.");
+    }
+
+    /**
+     * Stops scheduling and waits briefly for a backup in progress to finish.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                    scheduler.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                scheduler.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+        // The size tracker is used by the backup view even when nothing is scheduled
+        try {
+            sizeTracker.close();
+        } catch (IOException e) {
+            System.err.println("Warning: Could not stop watching the backup directory: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Total bytes in the backup directory, kept up to date incrementally.
+     */
+    public long getBackupDirectorySize() throws IOException {
+        return sizeTracker.getTotalSize();
+    }
+
+    public DirectorySizeTracker getSizeTracker() {
+        return sizeTracker;
+    }
+
+    /**
+     * Deletes the archives the retention policy no longer keeps.
+     * @return The archives deleted.
+     * @throws IOException if the backup directory cannot be listed.
+     */
+    public List<Path> applyRetention() throws IOException {
+        Path backupDir = AppConfig.getInstance().getBackupDirectory();
+        if (!Files.isDirectory(backupDir)) {
+            return new ArrayList<>();
+        }
+        Map<String, List<Archive>> byKind = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.list(backupDir)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Matcher matcher = ARCHIVE_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                try {
+                    LocalDateTime createdAt = LocalDateTime.parse(matcher.group(2), TIMESTAMP);
+                    byKind.computeIfAbsent(matcher.group(1), k -> new ArrayList<>()).add(new Archive(file, createdAt));
+                } catch (DateTimeParseException e) {
+                    // Not one of ours
+                }
+            }
+        }
+
+        List<Path> deleted = new ArrayList<>();
+        for (List<Archive> archives : byKind.values()) {
+            for (Archive archive : expired(archives)) {
+                try {
+                    Files.deleteIfExists(archive.path);
+                    deleted.add(archive.path);
+                } catch (IOException e) {
+                    System.err.println("Warning: Could not delete expired backup " + archive.path + ": " + e.getMessage());
+                }
+            }
+        }
+        if (!deleted.isEmpty()) {
+            System.out.println("Deleted " + deleted.size() + " expired backups.");
+            // Drops the deleted archives from the catalog
+            backupService.listCatalog();
+        }
+        return deleted;
+    }
+
+    private static final class Archive {
+        final Path path;
+        final LocalDateTime createdAt;
+
+        Archive(Path path, LocalDateTime createdAt) {
+            this.path = path;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private List<Archive> expired(List<Archive> archives) {
+        archives.sort(Comparator.comparing((Archive archive) -> archive.createdAt).reversed());
+        Set<Archive> keep = new HashSet<>();
+        keep.add(archives.get(0));
+        keepNewestPerBucket(archives, keepHourly, archive -> archive.createdAt.truncatedTo(ChronoUnit.HOURS), keep);
+        keepNewestPerBucket(archives, keepDaily, archive -> archive.createdAt.toLocalDate(), keep);
+        keepNewestPerBucket(archives, keepWeekly, archive -> archive.createdAt.get(IsoFields.WEEK_BASED_YEAR) * 100
+                + archive.createdAt.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), keep);
+        List<Archive> expired = new ArrayList<>(archives);
+        expired.removeAll(keep);
+        return expired;
+    }
+
+    // Archives are newest first, so the first one seen in each bucket is the one to keep
+    private static void keepNewestPerBucket(List<Archive> archives, int buckets, Function<Archive, Object> bucketOf, Set<Archive> keep) {
+        Object lastBucket = null;
+        int kept = 0;
+        for (Archive archive : archives) {
+            if (kept == buckets) {
+                return;
+            }
+            Object bucket = bucketOf.apply(archive);
+            if (!bucket.equals(lastBucket)) {
+                keep.add(archive);
+                lastBucket = bucket;
+                kept++;
+            }
+        }
+    }
+
+    // Anything thrown out of a scheduled task would cancel every later run
+    private void runScheduledBackup() {
+        try {
+            backupService.performDatabaseBackup();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Scheduled backup failed: " + e.getMessage());
+        }
+        runRetention();
+    }
+
+    private void runRetention() {
+        try {
+            applyRetention();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Backup retention failed: " + e.getMessage());
+        }
+    }
+}
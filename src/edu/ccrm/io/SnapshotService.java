@@ -0,0 +1,517 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.AppConfig;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.InstructorService;
+import edu.ccrm.service.StudentService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versioned binary snapshot of the core tables, for nightly snapshots and for seeding test environments.
+ * Nothing in it needs text parsing on the way back: numbers are fixed-width, dates are epoch days, and the
+ * low-cardinality strings (departments, semesters, course codes, statuses, grades) are indexes into one
+ * shared dictionary.
+ * Layout, big-endian as written by DataOutputStream:
+ *   header      magic "CCRMSNAP", format version (int), created-at epoch millis (long), section count (int),
+ *               then per section its name (UTF), offset (long), length (long) and row count (int)
+ *   table       column count (int), per column its name (UTF) and type code (byte), then the rows
+ *   DICTIONARY  entry count (int), then the entries as STRING values
+ * Values: STRING is a UTF-8 byte length (-1 for null) and the bytes; DICT an int index (-1 for null); INT an
+ * int and DATE an int epoch day (Integer.MIN_VALUE for null); DOUBLE a double (NaN for null).
+ */
+public class SnapshotService {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final byte[] MAGIC = "CCRMSNAP".getBytes(StandardCharsets.US_ASCII);
+    private static final String DICTIONARY = "DICTIONARY";
+    private static final int FETCH_SIZE = 5000;
+    private static final int BATCH_SIZE = 5000;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    private enum ColumnType { STRING, DICT, INT, DOUBLE, DATE }
+
+    private static final class Column {
+        final String name;
+        final ColumnType type;
+
+        Column(String name, ColumnType type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    private static final class Table {
+        final String name;
+        final String orderBy;
+        final Column[] columns;
+
+        Table(String name, String orderBy, Column... columns) {
+            this.name = name;
+            this.orderBy = orderBy;
+            this.columns = columns;
+        }
+
+        Column column(String columnName) {
+            for (Column column : columns) {
+                if (column.name.equals(columnName)) {
+                    return column;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static Column col(String name, ColumnType type) {
+        return new Column(name, type);
+    }
+
+    // Parents before children, so the restore can insert in this order and delete in reverse
+    private static final List<Table> TABLES = List.of(
+            new Table("INSTRUCTORS", "fid",
+                    col("FID", ColumnType.STRING), col("FIRST_NAME", ColumnType.STRING), col("LAST_NAME", ColumnType.STRING),
+                    col("EMAIL", ColumnType.STRING), col("DEPARTMENT", ColumnType.DICT), col("DOB", ColumnType.DATE),
+                    col("PHONE", ColumnType.STRING), col("CABIN_NO", ColumnType.STRING)),
+            new Table("STUDENTS", "reg_no",
+                    col("ID", ColumnType.INT), col("REG_NO", ColumnType.STRING), col("FIRST_NAME", ColumnType.STRING),
+                    col("LAST_NAME", ColumnType.STRING), col("EMAIL", ColumnType.STRING), col("STATUS", ColumnType.DICT),
+                    col("REGISTRATION_DATE", ColumnType.DATE), col("DOB", ColumnType.DATE), col("PHONE", ColumnType.STRING),
+                    col("CGPA", ColumnType.DOUBLE), col("PROBATION_COUNT", ColumnType.INT),
+                    col("GRADE_POINTS", ColumnType.DOUBLE), col("GRADED_CREDITS", ColumnType.INT)),
+            new Table("COURSES", "code",
+                    col("CODE", ColumnType.DICT), col("TITLE", ColumnType.STRING), col("CREDITS", ColumnType.INT),
+                    col("DEPARTMENT", ColumnType.DICT), col("INSTRUCTOR_ID", ColumnType.STRING),
+                    col("SEMESTER", ColumnType.DICT), col("CLASSROOM_NO", ColumnType.STRING)),
+            new Table("ENROLLMENTS", "student_reg_no, course_code",
+                    col("STUDENT_REG_NO", ColumnType.STRING), col("COURSE_CODE", ColumnType.DICT), col("GRADE", ColumnType.DICT),
+                    col("ENROLLMENT_YEAR", ColumnType.INT), col("ENROLLMENT_SEMESTER", ColumnType.DICT),
+                    col("GRAND_TOTAL_MARKS", ColumnType.DOUBLE)),
+            new Table("DROPPED_ENROLLMENTS", "student_reg_no, course_code, drop_date",
+                    col("STUDENT_REG_NO", ColumnType.STRING), col("COURSE_CODE", ColumnType.DICT),
+                    col("DROP_DATE", ColumnType.DATE)),
+            new Table("PROBATION_REPORTS", "probation_id",
+                    col("PROBATION_ID", ColumnType.STRING), col("START_DATE", ColumnType.DATE),
+                    col("END_DATE", ColumnType.DATE), col("REASON", ColumnType.STRING)),
+            new Table("PROBATION_STUDENTS", "probation_id, student_reg_no",
+                    col("PROBATION_ID", ColumnType.STRING), col("STUDENT_REG_NO", ColumnType.STRING)));
+
+    private final StudentService studentService;
+    private final InstructorService instructorService;
+    private final CourseService courseService;
+
+    public SnapshotService(StudentService studentService, InstructorService instructorService, CourseService courseService) {
+        this.studentService = studentService;
+        this.instructorService = instructorService;
+        this.courseService = courseService;
+    }
+
+    /**
+     * Writes a timestamped snapshot into the backup directory, as the nightly snapshot does.
+     * @return The snapshot file written.
+     * @throws IOException if the file cannot be written.
+     * @throws SQLException if a database error occurs.
+     */
+    public Path exportSnapshot() throws IOException, SQLException {
+        Path backupDir = AppConfig.getInstance().getBackupDirectory();
+        Files.createDirectories(backupDir);
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new java.util.Date());
+        Path snapshotFile = backupDir.resolve("ccrm-snapshot-" + timestamp + ".snap");
+        exportSnapshot(snapshotFile);
+        return snapshotFile;
+    }
+
+    /**
+     * Writes a snapshot of every core table. All tables are read in one read-only transaction, so the
+     * snapshot is consistent across tables.
+     * @param path The snapshot file, created or replaced.
+     * @return Rows written per table.
+     * @throws IOException if the file cannot be written.
+     * @throws SQLException if a database error occurs.
+     */
+    public Map<String, Integer> exportSnapshot(Path path) throws IOException, SQLException {
+        Map<String, Integer> rowCounts = new LinkedHashMap<>();
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        List<String> sections = new ArrayList<>();
+        for (Table table : TABLES) {
+            sections.add(table.name);
+        }
+        sections.add(DICTIONARY);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING);
+             Connection conn = DatabaseManager.getConnection()) {
+            // The directory is written with zero offsets first and filled in once every section is down
+            ByteBuffer header = header(sections, new long[sections.size()], new long[sections.size()], new int[sections.size()]);
+            channel.write(header);
+            long[] offsets = new long[sections.size()];
+            long[] lengths = new long[sections.size()];
+            int[] rows = new int[sections.size()];
+
+            conn.setAutoCommit(false);
+            try {
+                // Every table is read as of the transaction start
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SET TRANSACTION READ ONLY");
+                }
+                for (int s = 0; s < TABLES.size(); s++) {
+                    Table table = TABLES.get(s);
+                    offsets[s] = channel.position();
+                    rows[s] = writeTable(table, conn, channel, dictionary, entries);
+                    lengths[s] = channel.position() - offsets[s];
+                    rowCounts.put(table.name, rows[s]);
+                }
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            int d = sections.size() - 1;
+            offsets[d] = channel.position();
+            DataOutputStream out = sectionOutput(channel);
+            out.writeInt(entries.size());
+            for (String entry : entries) {
+                writeString(out, entry);
+            }
+            out.flush();
+            lengths[d] = channel.position() - offsets[d];
+            rows[d] = entries.size();
+
+            channel.write(header(sections, offsets, lengths, rows), 0);
+            channel.force(true);
+        }
+        return rowCounts;
+    }
+
+    /**
+     * Replaces the contents of the core tables with a snapshot, in one transaction. Rows go in through
+     * batched inserts, which the Oracle driver sends as array binds.
+     * The tombstone triggers are disabled for the duration, so clearing the tables does not write a tombstone
+     * per row. The restore is therefore not visible to delta exports as deletes; take a full export after it.
+     * @param path A snapshot written by exportSnapshot.
+     * @return Rows loaded per table.
+     * @throws IOException if the file is not a readable snapshot of a supported version.
+     * @throws SQLException if a database error occurs; nothing is changed.
+     */
+    public Map<String, Integer> restoreSnapshot(Path path) throws IOException, SQLException {
+        Map<String, Integer> rowCounts = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             Connection conn = DatabaseManager.getConnection()) {
+            DataInputStream in = sectionInput(channel, 0);
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(path + " is not a CCRM snapshot");
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " (expected " + FORMAT_VERSION + ")");
+            }
+            in.readLong(); // created at
+            int sectionCount = in.readInt();
+            Map<String, Long> offsets = new HashMap<>();
+            Map<String, Integer> sectionRows = new HashMap<>();
+            for (int i = 0; i < sectionCount; i++) {
+                String name = in.readUTF();
+                offsets.put(name, in.readLong());
+                in.readLong(); // length
+                sectionRows.put(name, in.readInt());
+            }
+            if (!offsets.containsKey(DICTIONARY)) {
+                throw new IOException("Snapshot has no dictionary section");
+            }
+
+            DataInputStream dictIn = sectionInput(channel, offsets.get(DICTIONARY));
+            String[] dictionary = new String[dictIn.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(dictIn);
+            }
+
+            List<String> triggers = tombstoneTriggers(conn);
+            conn.setAutoCommit(false);
+            try {
+                // ALTER TRIGGER commits, so it runs before the first change and again after the commit
+                setTriggersEnabled(conn, triggers, false);
+                try (Statement stmt = conn.createStatement()) {
+                    for (int i = TABLES.size() - 1; i >= 0; i--) {
+                        stmt.executeUpdate("DELETE FROM " + TABLES.get(i).name);
+                    }
+                }
+                for (Table table : TABLES) {
+                    Long offset = offsets.get(table.name);
+                    if (offset != null) {
+                        DataInputStream tableIn = sectionInput(channel, offset);
+                        rowCounts.put(table.name, loadTable(table, tableIn, sectionRows.get(table.name), dictionary, conn));
+                    }
+                }
+                conn.commit();
+            } catch (IOException | SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+                studentService.getCache().invalidateAll();
+                instructorService.getCache().invalidateAll();
+                courseService.getCache().invalidateAll();
+                setTriggersEnabled(conn, triggers, true);
+            }
+        }
+        return rowCounts;
+    }
+
+    private static List<String> tombstoneTriggers(Connection conn) throws SQLException {
+        List<String> triggers = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM user_triggers WHERE trigger_name = ?")) {
+            for (Table table : TABLES) {
+                String trigger = "TRG_" + table.name + "_TOMBSTONE";
+                pstmt.setString(1, trigger);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next() && rs.getInt(1) > 0) {
+                        triggers.add(trigger);
+                    }
+                }
+            }
+        }
+        return triggers;
+    }
+
+    private static void setTriggersEnabled(Connection conn, List<String> triggers, boolean enabled) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String trigger : triggers) {
+                stmt.execute("ALTER TRIGGER " + trigger + (enabled ? " ENABLE" : " DISABLE"));
+            }
+        }
+    }
+
+    private ByteBuffer header(List<String> sections, long[] offsets, long[] lengths, int[] rows) throws IOException {
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(sections.size());
+        for (int i = 0; i < sections.size(); i++) {
+            out.writeUTF(sections.get(i));
+            out.writeLong(offsets[i]);
+            out.writeLong(lengths[i]);
+            out.writeInt(rows[i]);
+        }
+        out.flush();
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private int writeTable(Table table, Connection conn, FileChannel channel, Map<String, Integer> dictionary,
+                           List<String> entries) throws IOException, SQLException {
+        DataOutputStream out = sectionOutput(channel);
+        out.writeInt(table.columns.length);
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (int i = 0; i < table.columns.length; i++) {
+            out.writeUTF(table.columns[i].name);
+            out.writeByte(table.columns[i].type.ordinal());
+            select.append(i > 0 ? ", " : "").append(table.columns[i].name);
+        }
+        select.append(" FROM ").append(table.name).append(" ORDER BY ").append(table.orderBy);
+
+        int rows = 0;
+        try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery(select.toString())) {
+                while (rs.next()) {
+                    for (int i = 0; i < table.columns.length; i++) {
+                        writeValue(out, rs, i + 1, table.columns[i].type, dictionary, entries);
+                    }
+                    rows++;
+                }
+            }
+        }
+        out.flush();
+        return rows;
+    }
+
+    private static void writeValue(DataOutputStream out, ResultSet rs, int index, ColumnType type,
+                                   Map<String, Integer> dictionary, List<String> entries) throws IOException, SQLException {
+        switch (type) {
+            case STRING:
+                writeString(out, rs.getString(index));
+                break;
+            case DICT: {
+                String value = rs.getString(index);
+                if (value == null) {
+                    out.writeInt(-1);
+                } else {
+                    Integer id = dictionary.get(value);
+                    if (id == null) {
+                        id = entries.size();
+                        dictionary.put(value, id);
+                        entries.add(value);
+                    }
+                    out.writeInt(id);
+                }
+                break;
+            }
+            case INT: {
+                int value = rs.getInt(index);
+                out.writeInt(rs.wasNull() ? NULL_INT : value);
+                break;
+            }
+            case DOUBLE: {
+                double value = rs.getDouble(index);
+                out.writeDouble(rs.wasNull() ? Double.NaN : value);
+                break;
+            }
+            case DATE: {
+                Date value = rs.getDate(index);
+                out.writeInt(value == null ? NULL_INT : (int) value.toLocalDate().toEpochDay());
+                break;
+            }
+        }
+    }
+
+    private int loadTable(Table table, DataInputStream in, int rows, String[] dictionary, Connection conn)
+            throws IOException, SQLException {
+        int columnCount = in.readInt();
+        Column[] columns = new Column[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            String name = in.readUTF();
+            ColumnType[] types = ColumnType.values();
+            int typeCode = in.readByte();
+            Column known = table.column(name);
+            // Only columns this version knows go into the SQL; the type must match what it would have written
+            if (known == null || typeCode < 0 || typeCode >= types.length || types[typeCode] != known.type) {
+                throw new IOException("Unexpected column " + table.name + "." + name + " in snapshot");
+            }
+            columns[i] = known;
+        }
+
+        String[] names = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            names[i] = columns[i].name;
+        }
+        String sql = "INSERT INTO " + table.name + " (" + String.join(", ", names) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columnCount, "?")) + ")";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int row = 1; row <= rows; row++) {
+                for (int i = 0; i < columnCount; i++) {
+                    bindValue(pstmt, i + 1, columns[i].type, in, dictionary);
+                }
+                pstmt.addBatch();
+                if (row % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            if (rows % BATCH_SIZE != 0) {
+                pstmt.executeBatch();
+            }
+        }
+        return rows;
+    }
+
+    private static void bindValue(PreparedStatement pstmt, int index, ColumnType type, DataInputStream in,
+                                  String[] dictionary) throws IOException, SQLException {
+        switch (type) {
+            case STRING:
+                pstmt.setString(index, readString(in));
+                break;
+            case DICT: {
+                int id = in.readInt();
+                if (id == -1) {
+                    pstmt.setNull(index, Types.VARCHAR);
+                } else if (id < 0 || id >= dictionary.length) {
+                    throw new IOException("Dictionary index " + id + " out of range");
+                } else {
+                    pstmt.setString(index, dictionary[id]);
+                }
+                break;
+            }
+            case INT: {
+                int value = in.readInt();
+                if (value == NULL_INT) {
+                    pstmt.setNull(index, Types.NUMERIC);
+                } else {
+                    pstmt.setInt(index, value);
+                }
+                break;
+            }
+            case DOUBLE: {
+                double value = in.readDouble();
+                if (Double.isNaN(value)) {
+                    pstmt.setNull(index, Types.NUMERIC);
+                } else {
+                    pstmt.setDouble(index, value);
+                }
+                break;
+            }
+            case DATE: {
+                int value = in.readInt();
+                if (value == NULL_INT) {
+                    pstmt.setNull(index, Types.DATE);
+                } else {
+                    pstmt.setDate(index, Date.valueOf(LocalDate.ofEpochDay(value)));
+                }
+                break;
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Corrupt string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Section streams wrap the channel without owning it, so they are flushed but never closed
+    private static DataOutputStream sectionOutput(FileChannel channel) {
+        return new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+    }
+
+    private static DataInputStream sectionInput(FileChannel channel, long offset) throws IOException {
+        channel.position(offset);
+        return new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+    }
+}
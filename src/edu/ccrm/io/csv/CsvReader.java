@@ -0,0 +1,467 @@
+package edu.ccrm.io.csv;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV reader that works as a cursor over the records of a file.
+ * Characters are read into one reusable buffer and each record is parsed in place: fields are exposed as
+ * CharSequence views over the buffer, and quoted fields are unescaped by compacting them inside the buffer,
+ * so reading a record allocates nothing. Views are only valid until the next call to next(); use string(i)
+ * or toArray() to keep a value.
+ * Supports quoted fields with embedded commas, doubled quotes and line breaks, CRLF or LF line endings,
+ * and strips a leading byte order mark. Blank lines are skipped.
+ */
+public final class CsvReader implements Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void onRow(CsvReader row) throws IOException;
+    }
+
+    /**
+     * A point between two records, as returned by position(): enough to reopen the file there with
+     * open(Path, Position) and carry on with the same record and line numbers.
+     */
+    public static final class Position {
+        private final long charOffset;
+        private final long recordNumber;
+        private final long lineNumber;
+
+        public Position(long charOffset, long recordNumber, long lineNumber) {
+            this.charOffset = charOffset;
+            this.recordNumber = recordNumber;
+            this.lineNumber = lineNumber;
+        }
+
+        public long getCharOffset() { return charOffset; }
+        public long getRecordNumber() { return recordNumber; }
+        public long getLineNumber() { return lineNumber; }
+    }
+
+    private final Reader reader;
+    private char[] buf;
+    private int pos;
+    private int limit;
+    private int recordStart;
+    private boolean eof;
+    private boolean started;
+    // How far the last fill() moved the buffer contents down; callers adjust the offsets they hold
+    private int lastShift;
+    // Characters dropped from the front of the buffer so far
+    private long discarded;
+
+    private int fieldCount;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private Field[] views = new Field[16];
+
+    private long recordNumber;
+    private long lineNumber = 1;
+    private long recordLineNumber;
+
+    public CsvReader(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvReader(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buf = new char[Math.max(bufferSize, 16)];
+    }
+
+    public static CsvReader open(Path path) throws IOException {
+        return new CsvReader(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Opens a file at a position saved from an earlier reader of the same file. The characters before it
+     * are decoded and skipped, not parsed.
+     * @throws EOFException if the file ends before the position.
+     */
+    public static CsvReader open(Path path, Position position) throws IOException {
+        Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        try {
+            long remaining = position.charOffset;
+            while (remaining > 0) {
+                long skipped = reader.skip(remaining);
+                if (skipped <= 0) {
+                    throw new EOFException("File ends before character " + position.charOffset);
+                }
+                remaining -= skipped;
+            }
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+        CsvReader csv = new CsvReader(reader);
+        // A byte order mark can only come first
+        csv.started = position.charOffset > 0;
+        csv.discarded = position.charOffset;
+        csv.recordNumber = position.recordNumber;
+        csv.lineNumber = position.lineNumber;
+        return csv;
+    }
+
+    /**
+     * Advances to the next record.
+     * @return false once the input is exhausted.
+     * @throws IOException if reading fails.
+     */
+    public boolean next() throws IOException {
+        if (!started) {
+            started = true;
+            if (fill() && buf[pos] == '\ufeff') {
+                pos++;
+            }
+        }
+        while (true) {
+            fieldCount = 0;
+            recordStart = pos;
+            recordLineNumber = lineNumber;
+            if (pos >= limit && !fill()) {
+                return false;
+            }
+            char first = buf[pos];
+            if (first == '\n' || first == '\r') {
+                // Blank line
+                skipLineEnd();
+                continue;
+            }
+            parseRecord();
+            recordNumber++;
+            return true;
+        }
+    }
+
+    /**
+     * Feeds every remaining record to the handler.
+     */
+    public void forEach(RowHandler handler) throws IOException {
+        while (next()) {
+            handler.onRow(this);
+        }
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return A view of field i of the current record, valid until the next call to next().
+     */
+    public CharSequence field(int i) {
+        checkIndex(i);
+        Field view = views[i];
+        if (view == null) {
+            view = views[i] = new Field(i);
+        }
+        return view;
+    }
+
+    public String string(int i) {
+        checkIndex(i);
+        return new String(buf, starts[i], ends[i] - starts[i]);
+    }
+
+    /**
+     * @return Field i with surrounding whitespace removed, or "" if the record has no such field.
+     */
+    public String trimmed(int i) {
+        if (i >= fieldCount) {
+            return "";
+        }
+        int start = starts[i];
+        int end = ends[i];
+        while (start < end && buf[start] <= ' ') start++;
+        while (end > start && buf[end - 1] <= ' ') end--;
+        return new String(buf, start, end - start);
+    }
+
+    /**
+     * Parses field i as a decimal integer without creating a String.
+     * @throws NumberFormatException if the field is not an integer.
+     */
+    public int intField(int i) {
+        checkIndex(i);
+        int start = starts[i];
+        int end = ends[i];
+        while (start < end && buf[start] <= ' ') start++;
+        while (end > start && buf[end - 1] <= ' ') end--;
+        return Integer.parseInt(field(i), start - starts[i], end - starts[i], 10);
+    }
+
+    public boolean isEmpty(int i) {
+        if (i >= fieldCount) {
+            return true;
+        }
+        for (int p = starts[i]; p < ends[i]; p++) {
+            if (buf[p] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The current record's fields, trimmed, as new Strings.
+     */
+    public String[] toArray() {
+        String[] values = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            values[i] = trimmed(i);
+        }
+        return values;
+    }
+
+    /**
+     * @return The 1-based number of the current record, counting the header.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * @return The 1-based line on which the current record starts; differs from the record number when
+     * earlier records contained line breaks or blank lines were skipped.
+     */
+    public long getLineNumber() {
+        return recordLineNumber;
+    }
+
+    /**
+     * @return The position just after the current record.
+     */
+    public Position position() {
+        return new Position(discarded + pos, recordNumber, lineNumber);
+    }
+
+    /**
+     * Reads all remaining records as trimmed String arrays. Only for small files such as previews.
+     */
+    public List<String[]> readAll() throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        while (next()) {
+            rows.add(toArray());
+        }
+        return rows;
+    }
+
+    /**
+     * @return The number of remaining records, without materializing any of them.
+     */
+    public long skipAll() throws IOException {
+        long count = 0;
+        while (next()) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void parseRecord() throws IOException {
+        while (true) {
+            int start;
+            int end;
+            if (buf[pos] == '"') {
+                pos++;
+                start = pos;
+                int write = pos;
+                while (true) {
+                    if (pos >= limit) {
+                        boolean more = fill();
+                        start -= lastShift;
+                        write -= lastShift;
+                        if (!more) {
+                            // Unterminated quote at end of input: keep what was read
+                            break;
+                        }
+                    }
+                    char c = buf[pos++];
+                    if (c == '"') {
+                        if (pos >= limit) {
+                            boolean more = fill();
+                            start -= lastShift;
+                            write -= lastShift;
+                            if (!more) {
+                                break;
+                            }
+                        }
+                        if (buf[pos] == '"') {
+                            buf[write++] = '"';
+                            pos++;
+                            continue;
+                        }
+                        break;
+                    }
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    buf[write++] = c;
+                }
+                // Lenient: characters between a closing quote and the delimiter belong to the field
+                while (true) {
+                    if (pos >= limit) {
+                        boolean more = fill();
+                        start -= lastShift;
+                        write -= lastShift;
+                        if (!more) {
+                            break;
+                        }
+                    }
+                    char c = buf[pos];
+                    if (c == ',' || c == '\n' || c == '\r') {
+                        break;
+                    }
+                    buf[write++] = c;
+                    pos++;
+                }
+                end = write;
+            } else {
+                start = pos;
+                while (true) {
+                    if (pos >= limit) {
+                        boolean more = fill();
+                        start -= lastShift;
+                        if (!more) {
+                            break;
+                        }
+                    }
+                    char c = buf[pos];
+                    if (c == ',' || c == '\n' || c == '\r') {
+                        break;
+                    }
+                    pos++;
+                }
+                end = pos;
+            }
+            addField(start, end);
+
+            if (pos >= limit) {
+                return;
+            }
+            char delimiter = buf[pos];
+            if (delimiter == ',') {
+                pos++;
+                if (pos >= limit && !fill()) {
+                    // Trailing comma at end of input: one last empty field
+                    addField(pos, pos);
+                    return;
+                }
+                continue;
+            }
+            skipLineEnd();
+            return;
+        }
+    }
+
+    private void skipLineEnd() throws IOException {
+        if (buf[pos] == '\r') {
+            pos++;
+            if (pos >= limit && !fill()) {
+                lineNumber++;
+                return;
+            }
+        }
+        if (buf[pos] == '\n') {
+            pos++;
+        }
+        lineNumber++;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == starts.length) {
+            int size = starts.length * 2;
+            starts = java.util.Arrays.copyOf(starts, size);
+            ends = java.util.Arrays.copyOf(ends, size);
+            views = java.util.Arrays.copyOf(views, size);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    /**
+     * Makes room and reads more input, keeping the current record at the start of the buffer.
+     * Every buffer offset held by the caller moves down by lastShift, whether or not input was read.
+     * @return false at end of input.
+     */
+    private boolean fill() throws IOException {
+        lastShift = 0;
+        if (eof) {
+            return false;
+        }
+        int shift = recordStart;
+        lastShift = shift;
+        if (shift > 0) {
+            discarded += shift;
+            System.arraycopy(buf, shift, buf, 0, limit - shift);
+            limit -= shift;
+            pos -= shift;
+            for (int i = 0; i < fieldCount; i++) {
+                starts[i] -= shift;
+                ends[i] -= shift;
+            }
+            recordStart = 0;
+        } else if (limit == buf.length) {
+            // The current record fills the whole buffer
+            buf = java.util.Arrays.copyOf(buf, buf.length * 2);
+        }
+        int read = reader.read(buf, limit, buf.length - limit);
+        if (read <= 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + i + " of a record with " + fieldCount + " fields");
+        }
+    }
+
+    /**
+     * Flyweight view of one field of the current record.
+     */
+    private final class Field implements CharSequence {
+        private final int index;
+
+        Field(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return ends[index] - starts[index];
+        }
+
+        @Override
+        public char charAt(int i) {
+            return buf[starts[index] + i];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new String(buf, starts[index] + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buf, starts[index], length());
+        }
+    }
+}
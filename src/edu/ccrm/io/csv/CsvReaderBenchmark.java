@@ -0,0 +1,116 @@
+package edu.ccrm.io.csv;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Standalone timing driver for CsvReader against the readLine/split(",") loops the importers used before.
+ * Not part of the application; run it by hand:
+ *   java -cp out edu.ccrm.io.csv.CsvReaderBenchmark [file.csv] [runs]
+ * Without a file it writes two million enrollment-shaped records to a temporary file and deletes it
+ * afterwards. Both readers parse every field of every record and sum the year column, so neither can skip
+ * work. Each runs once to warm up and then the given number of times (default 5); the best run is reported,
+ * with the bytes the thread allocated during it where the JVM can measure that.
+ */
+public final class CsvReaderBenchmark {
+
+    private static final int GENERATED_RECORDS = 2_000_000;
+
+    private interface Parser {
+        long parse(Path file) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = args.length > 0 ? Paths.get(args[0]) : null;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        boolean generated = file == null;
+        if (generated) {
+            file = Files.createTempFile("ccrm-csv-bench", ".csv");
+            generate(file);
+        }
+        try {
+            System.out.printf("%s, %,d bytes, %d runs%n", file, Files.size(file), runs);
+            measure("readLine + split", file, runs, CsvReaderBenchmark::parseWithSplit);
+            measure("CsvReader", file, runs, CsvReaderBenchmark::parseWithCsvReader);
+        } finally {
+            if (generated) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void measure(String label, Path file, int runs, Parser parser) throws IOException {
+        long checksum = parser.parse(file);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) threads : null;
+        long best = Long.MAX_VALUE;
+        long allocated = -1;
+        for (int run = 0; run < runs; run++) {
+            long before = allocations != null ? allocations.getCurrentThreadAllocatedBytes() : 0;
+            long start = System.nanoTime();
+            if (parser.parse(file) != checksum) {
+                throw new IllegalStateException(label + " gave different results across runs");
+            }
+            long elapsed = System.nanoTime() - start;
+            if (elapsed < best) {
+                best = elapsed;
+                allocated = allocations != null ? allocations.getCurrentThreadAllocatedBytes() - before : -1;
+            }
+        }
+        double seconds = best / 1e9;
+        System.out.printf("%-18s %8.1f ms %8.1f MB/s  allocated %s  checksum %d%n", label, best / 1e6,
+                Files.size(file) / 1048576.0 / seconds, allocated < 0 ? "n/a" : String.format("%,d bytes", allocated), checksum);
+    }
+
+    private static long parseWithSplit(Path file) throws IOException {
+        long sum = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                sum += Integer.parseInt(fields[3].trim()) + fields[0].trim().length() + fields[1].trim().length()
+                        + fields[2].trim().length() + fields[4].trim().length();
+            }
+        }
+        return sum;
+    }
+
+    private static long parseWithCsvReader(Path file) throws IOException {
+        long sum = 0;
+        try (CsvReader csv = CsvReader.open(file)) {
+            csv.next();
+            while (csv.next()) {
+                sum += csv.intField(3) + csv.field(0).length() + csv.field(1).length() + csv.field(2).length()
+                        + csv.field(4).length();
+            }
+        }
+        return sum;
+    }
+
+    private static void generate(Path file) throws IOException {
+        String[] courses = {"CS101", "CS102", "MA201", "PH110", "EE205", "ME301", "CH150", "BI120"};
+        String[] grades = {"S", "A", "B", "C", "D", "E", "F", "NA"};
+        Random random = new Random(42);
+        try (CsvWriter out = CsvWriter.create(file)) {
+            out.field("student_reg_no").field("course_code").field("grade").field("enrollment_year")
+                    .field("enrollment_semester").endRecord();
+            for (int i = 0; i < GENERATED_RECORDS; i++) {
+                out.field(String.format("REG%07d", random.nextInt(10_000_000)))
+                        .field(courses[random.nextInt(courses.length)])
+                        .field(grades[random.nextInt(grades.length)])
+                        .field(2015 + random.nextInt(10))
+                        .field(random.nextBoolean() ? "FALL" : "SPRING")
+                        .endRecord();
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package edu.ccrm.io.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streaming RFC 4180 CSV writer, the counterpart of CsvReader.
+ * Records are encoded into one reusable character buffer that is handed to the underlying writer only when
+ * it fills, and integers are formatted straight into it, so writing a record allocates nothing. Fields are
+ * quoted only when they contain a delimiter, a quote or a line break.
+ */
+public final class CsvWriter implements Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer writer;
+    private final char[] buf;
+    private int pos;
+    private boolean firstField = true;
+    private long recordCount;
+
+    public CsvWriter(Writer writer) {
+        this(writer, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvWriter(Writer writer, int bufferSize) {
+        this.writer = writer;
+        this.buf = new char[Math.max(bufferSize, 64)];
+    }
+
+    /**
+     * Creates or truncates the file and writes UTF-8 to it.
+     */
+    public static CsvWriter create(Path path) throws IOException {
+        return new CsvWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Appends a field; null is written as an empty field.
+     */
+    public CsvWriter field(CharSequence value) throws IOException {
+        delimit();
+        if (value == null) {
+            return this;
+        }
+        int length = value.length();
+        if (needsQuotes(value, length)) {
+            put('"');
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    put('"');
+                }
+                put(c);
+            }
+            put('"');
+        } else {
+            for (int i = 0; i < length; i++) {
+                put(value.charAt(i));
+            }
+        }
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        delimit();
+        if (value == Long.MIN_VALUE) {
+            // Has no positive counterpart
+            return field(Long.toString(value));
+        }
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        if (buf.length - pos < 20) {
+            flushBuffer();
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        pos += digits;
+        return this;
+    }
+
+    /**
+     * Writes a whole record from the given fields.
+     */
+    public void record(CharSequence... fields) throws IOException {
+        for (CharSequence field : fields) {
+            field(field);
+        }
+        endRecord();
+    }
+
+    public void endRecord() throws IOException {
+        for (int i = 0; i < LINE_SEPARATOR.length(); i++) {
+            put(LINE_SEPARATOR.charAt(i));
+        }
+        firstField = true;
+        recordCount++;
+    }
+
+    /**
+     * @return The number of records written, including any header.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public void flush() throws IOException {
+        flushBuffer();
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void delimit() throws IOException {
+        if (firstField) {
+            firstField = false;
+        } else {
+            put(',');
+        }
+    }
+
+    private static boolean needsQuotes(CharSequence value, int length) {
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void put(char c) throws IOException {
+        if (pos == buf.length) {
+            flushBuffer();
+        }
+        buf[pos++] = c;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            writer.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package edu.ccrm.service;
 import edu.ccrm.domain.CourseCode;
 import edu.ccrm.domain.Grade;
 import edu.ccrm.io.DatabaseManager;
+import edu.ccrm.util.TaskScheduler;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -25,7 +26,7 @@ public class AnalyticsService {
 
         String sql = "SELECT grade, COUNT(*) FROM enrollments WHERE course_code = ? AND grade IS NOT NULL AND grade <> 'NA' GROUP BY grade";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = TaskScheduler.cancellable(conn.prepareStatement(sql))) {
             pstmt.setString(1, courseCode.getCode());
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -51,7 +52,7 @@ public class AnalyticsService {
                    + "WHERE c.department = ? AND e.grade IS NOT NULL AND e.grade <> 'NA' "
                    + "GROUP BY e.grade";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = TaskScheduler.cancellable(conn.prepareStatement(sql))) {
             pstmt.setString(1, department);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -84,7 +85,7 @@ public class AnalyticsService {
                    + "GROUP BY i.FiD, i.first_name, i.last_name, i.department";
 
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
+             PreparedStatement pstmt = TaskScheduler.cancellable(conn.prepareStatement(sql));
              ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 String fid = rs.getString("FiD");
@@ -111,7 +112,7 @@ public class AnalyticsService {
                    + "FROM courses c";
 
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
+             PreparedStatement pstmt = TaskScheduler.cancellable(conn.prepareStatement(sql));
              ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 String code = rs.getString("code");
@@ -133,7 +134,7 @@ public class AnalyticsService {
         List<String> list = new ArrayList<>();
         String sql = "SELECT DISTINCT department FROM courses WHERE department IS NOT NULL ORDER BY department";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
+             PreparedStatement pstmt = TaskScheduler.cancellable(conn.prepareStatement(sql));
              ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 list.add(rs.getString(1));
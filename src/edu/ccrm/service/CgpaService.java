@@ -0,0 +1,266 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Grade;
+import edu.ccrm.io.DatabaseManager;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class CgpaService {
+
+    private static final int BATCH_SIZE = 1000;
+    // Oracle rejects IN lists longer than 1000 expressions
+    private static final int IN_LIST_CHUNK_SIZE = 500;
+
+    @FunctionalInterface
+    public interface ProgressCallback {
+        void onProgress(int processed, int total);
+    }
+
+    /**
+     * A pending change to one student's running totals: grade points (points x credits) and graded credits.
+     */
+    static final class TotalsDelta {
+        private double points;
+        private int credits;
+
+        void add(String grade, int courseCredits) {
+            if (isGraded(grade)) {
+                points += gradePoints(grade) * courseCredits;
+                credits += courseCredits;
+            }
+        }
+
+        void remove(String grade, int courseCredits) {
+            if (isGraded(grade)) {
+                points -= gradePoints(grade) * courseCredits;
+                credits -= courseCredits;
+            }
+        }
+
+        boolean isZero() {
+            return points == 0 && credits == 0;
+        }
+    }
+
+    public CgpaService() {}
+
+    public int recomputeAll() {
+        return recomputeAll(null);
+    }
+
+    /**
+     * Recomputes every student's running totals and CGPA from a single aggregate over graded enrollments,
+     * writing the results back with batched updates in one transaction. A student whose row cannot be
+     * written is logged and skipped rather than failing the whole recompute.
+     * Grade points come from Grade.getPoints(), and the division happens in Java with the same arithmetic as
+     * TranscriptService.calculateCGPA, so both give identical values.
+     * @param callback Called after each batch is applied, may be null.
+     * @return The number of students updated, not counting skipped ones.
+     */
+    public int recomputeAll(ProgressCallback callback) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int total = recomputeAll(conn, callback);
+                conn.commit();
+                StudentService.CACHE.invalidateAll();
+                return total;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error recomputing CGPAs: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Same as recomputeAll(ProgressCallback), inside the caller's transaction. Used by bulk loads that
+     * rewrite most enrollments; the caller invalidates the cached students once it commits.
+     * @param conn The connection (and transaction) to use.
+     * @param callback Called after each batch is applied, may be null.
+     * @return The number of students updated.
+     * @throws SQLException if a database error occurs.
+     */
+    public int recomputeAll(Connection conn, ProgressCallback callback) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(aggregateSql(""))) {
+            return writeTotals(pstmt, conn, callback);
+        }
+    }
+
+    /**
+     * Recomputes the running totals and CGPA of the given students from their enrollments.
+     * Used after bulk writes such as the enrollment import MERGE, where per-row deltas are unknown.
+     * The caller owns the transaction and invalidates the cached students once it commits.
+     * @param regNos The students to recompute.
+     * @param conn The connection (and transaction) to use.
+     * @throws SQLException if a database error occurs.
+     */
+    public void recompute(Collection<String> regNos, Connection conn) throws SQLException {
+        List<String> keys = new ArrayList<>(regNos);
+        for (int from = 0; from < keys.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<String> chunk = keys.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, keys.size()));
+            String where = "WHERE s.reg_no IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            try (PreparedStatement pstmt = conn.prepareStatement(aggregateSql(where))) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setString(i + 1, chunk.get(i));
+                }
+                writeTotals(pstmt, conn, null);
+            }
+        }
+    }
+
+    /**
+     * Applies running-total deltas and refreshes the CGPA of each affected student.
+     * The rows are locked while they are read so concurrent grade writes cannot lose an update.
+     * The caller owns the transaction and invalidates the cached students once it commits.
+     * @param deltas Changes keyed by student registration number.
+     * @param conn The connection (and transaction) to use.
+     * @throws SQLException if a database error occurs.
+     */
+    void applyDeltas(Map<String, TotalsDelta> deltas, Connection conn) throws SQLException {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, TotalsDelta> entry : deltas.entrySet()) {
+            if (!entry.getValue().isZero()) {
+                keys.add(entry.getKey());
+            }
+        }
+        String updateSql = "UPDATE students SET grade_points = ?, graded_credits = ?, cgpa = ? WHERE reg_no = ?";
+        for (int from = 0; from < keys.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<String> chunk = keys.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, keys.size()));
+            String selectSql = "SELECT reg_no, NVL(grade_points, 0), NVL(graded_credits, 0) FROM students WHERE reg_no IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") FOR UPDATE";
+            try (PreparedStatement select = conn.prepareStatement(selectSql);
+                 PreparedStatement update = conn.prepareStatement(updateSql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    select.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        String regNo = rs.getString(1);
+                        TotalsDelta delta = deltas.get(regNo);
+                        double points = rs.getDouble(2) + delta.points;
+                        int credits = rs.getInt(3) + delta.credits;
+                        update.setDouble(1, points);
+                        update.setInt(2, credits);
+                        update.setDouble(3, cgpa(points, credits));
+                        update.setString(4, regNo);
+                        update.addBatch();
+                    }
+                }
+                update.executeBatch();
+            }
+        }
+    }
+
+    private int writeTotals(PreparedStatement aggregate, Connection conn, ProgressCallback callback) throws SQLException {
+        List<String> regNos = new ArrayList<>();
+        List<double[]> totals = new ArrayList<>();
+        aggregate.setFetchSize(BATCH_SIZE);
+        try (ResultSet rs = aggregate.executeQuery()) {
+            while (rs.next()) {
+                regNos.add(rs.getString("reg_no"));
+                totals.add(new double[]{rs.getDouble("total_points"), rs.getInt("total_credits")});
+            }
+        }
+
+        int total = regNos.size();
+        int updated = 0;
+        String updateSql = "UPDATE students SET grade_points = ?, graded_credits = ?, cgpa = ? WHERE reg_no = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+            int batchStart = 0;
+            for (int i = 0; i < total; i++) {
+                bindTotals(pstmt, regNos.get(i), totals.get(i));
+                pstmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i + 1 == total) {
+                    try {
+                        pstmt.executeBatch();
+                        updated += i + 1 - batchStart;
+                    } catch (BatchUpdateException e) {
+                        // Oracle only undoes the failed statement, so redo the batch row by row and skip the bad rows
+                        pstmt.clearBatch();
+                        for (int j = batchStart; j <= i; j++) {
+                            bindTotals(pstmt, regNos.get(j), totals.get(j));
+                            try {
+                                pstmt.executeUpdate();
+                                updated++;
+                            } catch (SQLException rowError) {
+                                System.err.println("Skipping CGPA update for student " + regNos.get(j) + ": " + rowError.getMessage());
+                            }
+                        }
+                    }
+                    batchStart = i + 1;
+                    if (callback != null) {
+                        callback.onProgress(i + 1, total);
+                    }
+                }
+            }
+        }
+        return updated;
+    }
+
+    private static void bindTotals(PreparedStatement pstmt, String regNo, double[] totals) throws SQLException {
+        double points = totals[0];
+        int credits = (int) totals[1];
+        pstmt.setDouble(1, points);
+        pstmt.setInt(2, credits);
+        pstmt.setDouble(3, cgpa(points, credits));
+        pstmt.setString(4, regNo);
+    }
+
+    private static String aggregateSql(String where) {
+        return "SELECT s.reg_no, NVL(g.total_points, 0) AS total_points, NVL(g.total_credits, 0) AS total_credits "
+                + "FROM students s LEFT JOIN ("
+                + "SELECT e.student_reg_no, SUM(" + gradePointsCase("e.grade") + " * c.credits) AS total_points, "
+                + "SUM(c.credits) AS total_credits "
+                + "FROM enrollments e JOIN courses c ON c.code = e.course_code "
+                + "WHERE e.grade IS NOT NULL AND e.grade <> 'NA' "
+                + "GROUP BY e.student_reg_no) g ON g.student_reg_no = s.reg_no "
+                + where;
+    }
+
+    static double cgpa(double totalPoints, int totalCredits) {
+        return totalCredits == 0 ? 0.0 : totalPoints / totalCredits;
+    }
+
+    static boolean isGraded(String grade) {
+        return grade != null && !grade.isEmpty() && !Grade.NA.name().equals(grade);
+    }
+
+    /**
+     * Points for a stored grade string, matching gradePointsCase: unknown grades count as 0.
+     */
+    private static double gradePoints(String grade) {
+        for (Grade g : Grade.values()) {
+            if (g != Grade.NA && g.name().equals(grade)) {
+                return g.getPoints();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Builds a SQL CASE expression mapping a grade column to Grade.getPoints(). NA maps to 0 and
+     * callers filter it out anyway.
+     */
+    static String gradePointsCase(String column) {
+        StringBuilder sql = new StringBuilder("CASE ").append(column);
+        for (Grade grade : Grade.values()) {
+            if (grade != Grade.NA) {
+                sql.append(" WHEN '").append(grade.name()).append("' THEN ").append(grade.getPoints());
+            }
+        }
+        return sql.append(" ELSE 0 END").toString();
+    }
+}
@@ -4,6 +4,7 @@ import edu.ccrm.domain.*;
 import edu.ccrm.exception.DataIntegrityException;
 import edu.ccrm.exception.RecordNotFoundException;
 import edu.ccrm.io.DatabaseManager;
+import edu.ccrm.util.TaskScheduler;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +13,12 @@ import java.util.stream.Collectors;
 
 public class CourseService {
 
+  // Shared by every CourseService instance so a write through any of them invalidates the same entries
+  static final EntityCache<CourseCode, Course> CACHE = new EntityCache<>(
+    "Course",
+    5_000
+  );
+
   private final InstructorService instructorService;
 
   public CourseService() {
@@ -22,6 +29,10 @@ public class CourseService {
     this.instructorService = instructorService;
   }
 
+  public EntityCache<CourseCode, Course> getCache() {
+    return CACHE;
+  }
+
   public void addCourse(Course course) throws DataIntegrityException {
     try (Connection conn = DatabaseManager.getConnection()) {
       addCourse(course, conn);
@@ -70,7 +81,7 @@ public class CourseService {
     String sql = "SELECT * FROM courses ORDER BY code";
     try (
       Connection conn = DatabaseManager.getConnection();
-      Statement stmt = conn.createStatement();
+      Statement stmt = TaskScheduler.cancellable(conn.createStatement());
       ResultSet rs = stmt.executeQuery(sql)
     ) {
       while (rs.next()) {
@@ -84,10 +95,21 @@ public class CourseService {
     return courses;
   }
 
+  /**
+   * Looks the course up through the cache. Every caller gets its own copy, instructor included, so
+   * changing the returned object never changes what the next caller reads.
+   */
   public Course findCourseByCode(CourseCode courseCode)
     throws RecordNotFoundException {
+    Course cached = CACHE.get(courseCode);
+    if (cached != null) {
+      return copyOf(cached);
+    }
+    long stamp = CACHE.stamp();
     try (Connection conn = DatabaseManager.getConnection()) {
-      return findCourseByCode(courseCode, conn);
+      Course course = findCourseByCode(courseCode, conn);
+      CACHE.putIfUnchanged(courseCode, course, stamp);
+      return copyOf(course);
     } catch (SQLException e) {
       throw new RecordNotFoundException(
         "Database error finding course by code: " + e.getMessage()
@@ -95,6 +117,10 @@ public class CourseService {
     }
   }
 
+  /**
+   * Reads the course on the caller's connection without touching the cache. The connection may be in
+   * the middle of a transaction, and its uncommitted rows must not reach other callers.
+   */
   public Course findCourseByCode(CourseCode courseCode, Connection conn)
     throws RecordNotFoundException {
     String sql = "SELECT * FROM courses WHERE code = ?";
@@ -126,6 +152,7 @@ public class CourseService {
       pstmt.setString(1, instructorId);
       pstmt.setString(2, courseCode.getCode());
       int affectedRows = pstmt.executeUpdate();
+      CACHE.invalidate(courseCode);
       if (affectedRows == 0) {
         throw new RecordNotFoundException(
           "Course with code " + courseCode.getCode() + " not found."
@@ -160,6 +187,20 @@ public class CourseService {
       course.getInstructor().getFiD().equals(instructorId);
   }
 
+  static Course copyOf(Course course) {
+    Instructor instructor = course.getInstructor();
+    Course copy = new Course.Builder(course.getCourseCode())
+      .withTitle(course.getTitle())
+      .withCredits(course.getCredits())
+      .withDepartment(course.getDepartment())
+      .withSemester(course.getSemester())
+      .withClassroomNo(course.getClassroomNo())
+      .withInstructor(instructor != null ? InstructorService.copyOf(instructor) : null)
+      .build();
+    copy.setActive(course.isActive());
+    return copy;
+  }
+
   private Course mapRowToCourse(ResultSet rs, Connection conn)
     throws SQLException {
     CourseCode code = new CourseCode(rs.getString("code"));
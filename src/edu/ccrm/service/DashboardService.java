@@ -0,0 +1,117 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Student;
+import edu.ccrm.io.DatabaseManager;
+import edu.ccrm.util.TaskScheduler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the figures on the dashboard with aggregate queries, so opening it reads a handful of rows instead
+ * of every student, course and instructor. The last summary is kept so the view can show it at once and
+ * refresh it in the background.
+ */
+public class DashboardService {
+
+    private final StudentService studentService;
+    private volatile DashboardSummary lastSummary;
+
+    public DashboardService(StudentService studentService) {
+        this.studentService = studentService;
+    }
+
+    /**
+     * @return The summary from the last refresh, or null if there has not been one.
+     */
+    public DashboardSummary getCachedSummary() {
+        return lastSummary;
+    }
+
+    /**
+     * Queries a fresh summary and caches it.
+     * @param topCount How many of the highest-CGPA active students to include.
+     * @throws SQLException if the figures cannot be read; the cached summary is kept.
+     */
+    public DashboardSummary refreshSummary(int topCount) throws SQLException {
+        Map<Student.Status, Integer> statusCounts = new EnumMap<>(Student.Status.class);
+        for (Student.Status status : Student.Status.values()) {
+            statusCounts.put(status, 0);
+        }
+        int studentCount = 0;
+        int courseCount = 0;
+        int instructorCount = 0;
+        List<Student> toppers = new ArrayList<>();
+
+        String statusSql = "SELECT status, COUNT(*) FROM students GROUP BY status";
+        String countsSql = "SELECT (SELECT COUNT(*) FROM courses), (SELECT COUNT(*) FROM instructors) FROM dual";
+        // Walks IX_STUDENTS_TOPPERS from the highest CGPA down and stops after topCount rows
+        String toppersSql = "SELECT * FROM students WHERE status = 'ACTIVE' AND cgpa > 0 "
+                + "ORDER BY cgpa DESC, reg_no FETCH FIRST ? ROWS ONLY";
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement pstmt = TaskScheduler.cancellable(conn.prepareStatement(statusSql));
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    studentCount += rs.getInt(2);
+                    try {
+                        statusCounts.put(Student.Status.valueOf(rs.getString(1)), rs.getInt(2));
+                    } catch (IllegalArgumentException | NullPointerException e) {
+                        // A status this version does not know only counts toward the total
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = TaskScheduler.cancellable(conn.prepareStatement(countsSql));
+                 ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    courseCount = rs.getInt(1);
+                    instructorCount = rs.getInt(2);
+                }
+            }
+            try (PreparedStatement pstmt = TaskScheduler.cancellable(conn.prepareStatement(toppersSql))) {
+                pstmt.setInt(1, topCount);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        toppers.add(studentService.mapRowToStudent(rs));
+                    }
+                }
+            }
+        }
+        DashboardSummary summary = new DashboardSummary(statusCounts, studentCount, courseCount, instructorCount, toppers, LocalDateTime.now());
+        lastSummary = summary;
+        return summary;
+    }
+
+    public static class DashboardSummary {
+        private final Map<Student.Status, Integer> statusCounts;
+        private final int studentCount;
+        private final int courseCount;
+        private final int instructorCount;
+        private final List<Student> toppers;
+        private final LocalDateTime computedAt;
+
+        public DashboardSummary(Map<Student.Status, Integer> statusCounts, int studentCount, int courseCount, int instructorCount, List<Student> toppers, LocalDateTime computedAt) {
+            this.statusCounts = Collections.unmodifiableMap(statusCounts);
+            this.studentCount = studentCount;
+            this.courseCount = courseCount;
+            this.instructorCount = instructorCount;
+            this.toppers = Collections.unmodifiableList(toppers);
+            this.computedAt = computedAt;
+        }
+
+        public int getStatusCount(Student.Status status) { return statusCounts.getOrDefault(status, 0); }
+        public Map<Student.Status, Integer> getStatusCounts() { return statusCounts; }
+        public int getStudentCount() { return studentCount; }
+        public int getCourseCount() { return courseCount; }
+        public int getInstructorCount() { return instructorCount; }
+        public List<Student> getToppers() { return toppers; }
+        public LocalDateTime getComputedAt() { return computedAt; }
+    }
+}
@@ -26,6 +26,9 @@ public class DatabaseAdminService {
                     System.err.println("Could not clear table " + tableName + ": " + e.getMessage());
                 }
             }
+            StudentService.CACHE.invalidateAll();
+            CourseService.CACHE.invalidateAll();
+            InstructorService.CACHE.invalidateAll();
             System.out.println("All data cleared. Schema is intact.");
 
         } catch (SQLException e) {
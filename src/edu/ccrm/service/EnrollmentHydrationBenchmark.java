@@ -0,0 +1,89 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseCode;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+import edu.ccrm.exception.RecordNotFoundException;
+import edu.ccrm.io.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Standalone timing driver for loading every enrollment: the joined, streamed query of EnrollmentHydrator
+ * against the per-row lookups it replaced (one student and one course query per enrollment, plus the
+ * instructor query each course lookup makes). Not part of the application; run it by hand against a
+ * populated database:
+ *   java -cp out:lib/* edu.ccrm.service.EnrollmentHydrationBenchmark [runs]
+ * Each approach runs once to warm up and then the given number of times (default 5); the best run is
+ * reported with its row count and round trips, so the two can be checked to load the same rows.
+ */
+public final class EnrollmentHydrationBenchmark {
+
+    private interface Loader {
+        long load(List<Enrollment> sink) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        InstructorService instructorService = new InstructorService();
+        StudentService studentService = new StudentService();
+        CourseService courseService = new CourseService(instructorService);
+        EnrollmentService enrollmentService = new EnrollmentService(studentService, courseService);
+        try {
+            measure("per-row lookups", runs, sink -> loadPerRow(studentService, courseService, sink));
+            measure("joined query", runs, sink -> {
+                enrollmentService.forEachEnrollment(sink::add);
+                return 1;
+            });
+        } finally {
+            DatabaseManager.shutdown();
+        }
+    }
+
+    private static void measure(String label, int runs, Loader loader) throws SQLException {
+        loader.load(new ArrayList<>());
+        long best = Long.MAX_VALUE;
+        long roundTrips = 0;
+        int rows = 0;
+        for (int run = 0; run < runs; run++) {
+            List<Enrollment> sink = new ArrayList<>();
+            long start = System.nanoTime();
+            roundTrips = loader.load(sink);
+            best = Math.min(best, System.nanoTime() - start);
+            rows = sink.size();
+        }
+        System.out.printf("%-16s %,10d rows %10.1f ms %,12d queries%n", label, rows, best / 1e6, roundTrips);
+    }
+
+    // The shape of the loader before EnrollmentHydrator. The Connection overloads of the finders bypass the
+    // entity caches, so every row really pays its lookups.
+    private static long loadPerRow(StudentService studentService, CourseService courseService, List<Enrollment> sink)
+            throws SQLException {
+        String sql = "SELECT student_reg_no, course_code, grade, enrollment_year, enrollment_semester FROM enrollments";
+        long queries = 1;
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                try {
+                    Student student = studentService.findStudentByRegNo(rs.getString("student_reg_no"), conn);
+                    Course course = courseService.findCourseByCode(new CourseCode(rs.getString("course_code")), conn);
+                    queries += course.getInstructor() != null ? 3 : 2;
+                    String grade = rs.getString("grade");
+                    sink.add(new Enrollment(student, course, grade != null && !grade.isEmpty() ? Grade.valueOf(grade) : Grade.NA,
+                            rs.getInt("enrollment_year"), rs.getString("enrollment_semester")));
+                } catch (RecordNotFoundException e) {
+                    queries += 2;
+                }
+            }
+        }
+        return queries;
+    }
+}
@@ -0,0 +1,138 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Builds fully populated Enrollment graphs from a single joined query over
+ * ENROLLMENTS, STUDENTS, COURSES and INSTRUCTORS.
+ * Each hydrator keeps an identity map, so every enrollment it produces for the same student,
+ * course or instructor shares one instance. Use a new hydrator for each call.
+ */
+class EnrollmentHydrator {
+
+    static final String BASE_SQL = "SELECT e.student_reg_no, e.course_code, e.grade, e.enrollment_year, e.enrollment_semester, "
+            + "s.id AS s_id, s.first_name AS s_first_name, s.last_name AS s_last_name, s.email AS s_email, "
+            + "s.status AS s_status, s.registration_date AS s_registration_date, s.dob AS s_dob, s.phone AS s_phone, "
+            + "s.cgpa AS s_cgpa, s.probation_count AS s_probation_count, "
+            + "c.title AS c_title, c.credits AS c_credits, c.department AS c_department, c.semester AS c_semester, "
+            + "c.classroom_no AS c_classroom_no, c.instructor_id AS c_instructor_id, "
+            + "i.FiD AS i_fid, i.first_name AS i_first_name, i.last_name AS i_last_name, i.email AS i_email, i.department AS i_department, "
+            + "i.dob AS i_dob, i.phone AS i_phone, i.cabin_no AS i_cabin_no "
+            + "FROM enrollments e "
+            + "JOIN students s ON s.reg_no = e.student_reg_no "
+            + "JOIN courses c ON c.code = e.course_code "
+            + "LEFT JOIN instructors i ON i.FiD = c.instructor_id ";
+
+    private static final int FETCH_SIZE = 1000;
+
+    @FunctionalInterface
+    interface ParameterBinder {
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
+
+    private final Map<String, Student> students = new HashMap<>();
+    private final Map<CourseCode, Course> courses = new HashMap<>();
+    private final Map<String, Instructor> instructors = new HashMap<>();
+
+    /**
+     * Runs BASE_SQL with the given WHERE/ORDER BY suffix and streams each hydrated row into the sink.
+     * @param conn The connection to query on.
+     * @param suffix SQL appended after the joins, e.g. "WHERE e.student_reg_no = ? ORDER BY ...". May be empty.
+     * @param binder Binds the parameters referenced by the suffix.
+     * @param sink Receives each enrollment in result-set order.
+     * @throws SQLException if the query fails.
+     */
+    void stream(Connection conn, String suffix, ParameterBinder binder, Consumer<Enrollment> sink) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(BASE_SQL + suffix)) {
+            pstmt.setFetchSize(FETCH_SIZE);
+            binder.bind(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(mapRow(rs));
+                }
+            }
+        }
+    }
+
+    private Enrollment mapRow(ResultSet rs) throws SQLException {
+        Student student = students.get(rs.getString("student_reg_no"));
+        if (student == null) {
+            student = mapStudent(rs);
+            students.put(student.getRegNo(), student);
+        }
+
+        CourseCode code = new CourseCode(rs.getString("course_code"));
+        Course course = courses.get(code);
+        if (course == null) {
+            course = mapCourse(rs, code);
+            courses.put(code, course);
+        }
+
+        String gradeStr = rs.getString("grade");
+        Grade grade = (gradeStr != null && !gradeStr.isEmpty()) ? Grade.valueOf(gradeStr) : Grade.NA;
+        return new Enrollment(student, course, grade, rs.getInt("enrollment_year"), rs.getString("enrollment_semester"));
+    }
+
+    private Student mapStudent(ResultSet rs) throws SQLException {
+        Date regDate = rs.getDate("s_registration_date");
+        Date dob = rs.getDate("s_dob");
+        Student student = new Student(
+                rs.getInt("s_id"),
+                rs.getString("student_reg_no"),
+                new Name(rs.getString("s_first_name"), rs.getString("s_last_name")),
+                rs.getString("s_email"),
+                Student.Status.valueOf(rs.getString("s_status")),
+                regDate != null ? regDate.toLocalDate() : null,
+                dob != null ? dob.toLocalDate() : null,
+                rs.getString("s_phone"));
+        double cgpa = rs.getDouble("s_cgpa");
+        if (!rs.wasNull()) {
+            student.setCgpa(cgpa);
+        }
+        int probationCount = rs.getInt("s_probation_count");
+        if (!rs.wasNull()) {
+            student.setProbationCount(probationCount);
+        }
+        return student;
+    }
+
+    private Course mapCourse(ResultSet rs, CourseCode code) throws SQLException {
+        Course.Builder builder = new Course.Builder(code)
+                .withTitle(rs.getString("c_title"))
+                .withCredits(rs.getInt("c_credits"))
+                .withDepartment(rs.getString("c_department"))
+                .withSemester(Semester.valueOf(rs.getString("c_semester")))
+                .withClassroomNo(rs.getString("c_classroom_no"));
+
+        String instructorId = rs.getString("c_instructor_id");
+        if (instructorId != null) {
+            Instructor instructor = instructors.get(instructorId);
+            // LEFT JOIN: a dangling instructor_id leaves i_fid null
+            if (instructor == null && rs.getString("i_fid") != null) {
+                Date dob = rs.getDate("i_dob");
+                instructor = new Instructor(
+                        instructorId,
+                        new Name(rs.getString("i_first_name"), rs.getString("i_last_name")),
+                        rs.getString("i_email"),
+                        rs.getString("i_department"),
+                        dob != null ? dob.toLocalDate() : null,
+                        rs.getString("i_phone"),
+                        rs.getString("i_cabin_no"));
+                instructors.put(instructorId, instructor);
+            }
+            if (instructor != null) {
+                builder.withInstructor(instructor);
+            }
+        }
+        return builder.build();
+    }
+}
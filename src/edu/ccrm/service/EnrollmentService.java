@@ -11,14 +11,38 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class EnrollmentService {
 
     private static final int MAX_TOTAL_CREDITS = 225;
     private static final int MAX_SEMESTER_CREDITS = 60;
+    // Oracle rejects IN lists longer than 1000 expressions
+    private static final int IN_LIST_CHUNK_SIZE = 500;
     private final StudentService studentService;
     private final CourseService courseService;
+    private final CgpaService cgpaService = new CgpaService();
+
+    // Inserts nothing when the student is already enrolled or either credit limit would be exceeded
+    private static final String CONDITIONAL_INSERT_SQL =
+            "INSERT INTO enrollments (student_reg_no, course_code, enrollment_year, enrollment_semester) "
+            + "SELECT ?, c.code, ?, c.semester FROM courses c "
+            + "WHERE c.code = ? "
+            + "AND NOT EXISTS (SELECT 1 FROM enrollments x WHERE x.student_reg_no = ? AND x.course_code = c.code) "
+            + "AND (SELECT NVL(SUM(c2.credits), 0) FROM enrollments e2 JOIN courses c2 ON c2.code = e2.course_code "
+            + "     WHERE e2.student_reg_no = ?) + c.credits <= ? "
+            + "AND (SELECT NVL(SUM(c2.credits), 0) FROM enrollments e2 JOIN courses c2 ON c2.code = e2.course_code "
+            + "     WHERE e2.student_reg_no = ? AND e2.enrollment_semester = c.semester AND e2.enrollment_year = ?) + c.credits <= ?";
 
     public EnrollmentService(StudentService studentService, CourseService courseService) {
         this.studentService = studentService;
@@ -27,148 +51,517 @@ public class EnrollmentService {
 
     public void enrollStudent(String studentRegNo, CourseCode courseCode)
             throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException {
+        enrollStudent(studentRegNo, courseCode, java.time.LocalDate.now().getYear());
+    }
+
+    public void enrollStudent(String studentRegNo, CourseCode courseCode, int enrollmentYear)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException {
         try (Connection conn = DatabaseManager.getConnection()) {
-            enrollStudent(studentRegNo, courseCode, conn);
+            conn.setAutoCommit(false);
+            try {
+                enrollStudent(studentRegNo, courseCode, enrollmentYear, conn);
+                conn.commit();
+            } catch (SQLException | MaxCreditLimitExceededException | RecordNotFoundException | DuplicateEnrollmentException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Database error during enrollment: " + e.getMessage(), e);
         }
     }
 
-    public void enrollStudent(String studentRegNo, CourseCode courseCode, int enrollmentYear)
+    public void enrollStudent(String studentRegNo, CourseCode courseCode, int enrollmentYear, Connection conn)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException, SQLException {
+        insertEnrollment(studentRegNo, courseCode, enrollmentYear, conn);
+    }
+
+    public void enrollStudent(String studentRegNo, CourseCode courseCode, Connection conn)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException, SQLException {
+        insertEnrollment(studentRegNo, courseCode, java.time.LocalDate.now().getYear(), conn);
+    }
+
+    public void enrollStudentWithGrade(String studentRegNo, CourseCode courseCode, Grade grade)
             throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException {
         try (Connection conn = DatabaseManager.getConnection()) {
-            enrollStudent(studentRegNo, courseCode, enrollmentYear, conn);
+            conn.setAutoCommit(false);
+            try {
+                enrollStudentWithGrade(studentRegNo, courseCode, grade, conn);
+                conn.commit();
+                StudentService.CACHE.invalidate(studentRegNo);
+            } catch (SQLException | MaxCreditLimitExceededException | RecordNotFoundException | DuplicateEnrollmentException e) {
+                conn.rollback();
+                // Re-throw the specific, checked exceptions
+                if (e instanceof DuplicateEnrollmentException) throw (DuplicateEnrollmentException) e;
+                if (e instanceof MaxCreditLimitExceededException) throw (MaxCreditLimitExceededException) e;
+                if (e instanceof RecordNotFoundException) throw (RecordNotFoundException) e;
+                // Wrap SQLException in a RuntimeException for single-transaction operations
+                throw new RuntimeException("Database error during enrollment with grade: " + e.getMessage(), e);
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
-            throw new RuntimeException("Database error during enrollment: " + e.getMessage(), e);
+            throw new RuntimeException("Database connection error during enrollment with grade: " + e.getMessage(), e);
         }
     }
 
-    public void enrollStudent(String studentRegNo, CourseCode courseCode, int enrollmentYear, Connection conn)
+    /**
+     * Changes the student's grade totals on the caller's transaction; the caller must invalidate the
+     * student's cache entry once it commits, so this stays inside the package.
+     */
+    void enrollStudentWithGrade(String studentRegNo, CourseCode courseCode, Grade grade, Connection conn)
             throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException, SQLException {
-        if (isEnrolled(studentRegNo, courseCode, conn)) {
-            throw new DuplicateEnrollmentException("Student is already enrolled in this course.");
+        insertEnrollment(studentRegNo, courseCode, java.time.LocalDate.now().getYear(), conn);
+        recordGrade(studentRegNo, courseCode, grade, conn);
+    }
+
+    // Same contract as enrollStudentWithGrade(..., Connection)
+    void enrollStudentWithGradeAndYear(String studentRegNo, CourseCode courseCode, Grade grade, int enrollmentYear, Connection conn)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException, SQLException {
+        insertEnrollment(studentRegNo, courseCode, enrollmentYear, conn);
+        recordGrade(studentRegNo, courseCode, grade, conn);
+    }
+
+    /**
+     * Result of the consolidated eligibility query for one (student, course, year) registration.
+     */
+    public static class EnrollmentEligibility {
+        private final boolean studentExists;
+        private final boolean courseExists;
+        private final boolean alreadyEnrolled;
+        private final int courseCredits;
+        private final String semester;
+        private final int totalCredits;
+        private final int termCredits;
+
+        public EnrollmentEligibility(boolean studentExists, boolean courseExists, boolean alreadyEnrolled,
+                                     int courseCredits, String semester, int totalCredits, int termCredits) {
+            this.studentExists = studentExists;
+            this.courseExists = courseExists;
+            this.alreadyEnrolled = alreadyEnrolled;
+            this.courseCredits = courseCredits;
+            this.semester = semester;
+            this.totalCredits = totalCredits;
+            this.termCredits = termCredits;
         }
 
-        int currentTotalCredits = getCurrentCredits(studentRegNo, conn);
-        Course course = this.courseService.findCourseByCode(courseCode, conn);
-        String semester = course.getSemester() != null ? course.getSemester().name() : "";
-        int currentSemesterCredits = getCurrentSemesterYearCredits(studentRegNo, semester, enrollmentYear, conn);
+        public boolean isStudentExists() { return studentExists; }
+        public boolean isCourseExists() { return courseExists; }
+        public boolean isAlreadyEnrolled() { return alreadyEnrolled; }
+        public int getCourseCredits() { return courseCredits; }
+        public String getSemester() { return semester; }
+        public int getTotalCredits() { return totalCredits; }
+        public int getTermCredits() { return termCredits; }
 
-        if (currentTotalCredits + course.getCredits() > MAX_TOTAL_CREDITS) {
-            throw new MaxCreditLimitExceededException(
-                    "Enrolling in this course would exceed the maximum total credit limit of " + MAX_TOTAL_CREDITS);
+        public boolean exceedsTotalLimit() {
+            return totalCredits + courseCredits > MAX_TOTAL_CREDITS;
         }
 
-        if (currentSemesterCredits + course.getCredits() > MAX_SEMESTER_CREDITS) {
-            throw new MaxCreditLimitExceededException(
-                    "Enrolling in this course would exceed the per-semester credit limit of " + MAX_SEMESTER_CREDITS
-                    + " for " + semester + " " + enrollmentYear);
+        public boolean exceedsSemesterLimit() {
+            return termCredits + courseCredits > MAX_SEMESTER_CREDITS;
+        }
+
+        public boolean isEligible() {
+            return studentExists && courseExists && !alreadyEnrolled && !exceedsTotalLimit() && !exceedsSemesterLimit();
         }
+    }
 
-        String sql = "INSERT INTO enrollments (student_reg_no, course_code, enrollment_year, enrollment_semester) VALUES (?, ?, ?, ?)";
+    public EnrollmentEligibility checkEligibility(String studentRegNo, CourseCode courseCode, int enrollmentYear) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return checkEligibility(studentRegNo, courseCode, enrollmentYear, conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error checking enrollment eligibility: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads everything an enrollment decision needs in one round trip: whether the student and course exist,
+     * whether the student is already enrolled, and their total and per-term credits. The term is the course's
+     * semester in the given year.
+     */
+    public EnrollmentEligibility checkEligibility(String studentRegNo, CourseCode courseCode, int enrollmentYear, Connection conn)
+            throws SQLException {
+        String sql = "SELECT (SELECT COUNT(*) FROM students WHERE reg_no = ?) AS student_exists, "
+                   + "c.code, c.credits, c.semester, "
+                   + "(SELECT COUNT(*) FROM enrollments WHERE student_reg_no = ? AND course_code = ?) AS enrolled, "
+                   + "(SELECT NVL(SUM(c2.credits), 0) FROM enrollments e2 JOIN courses c2 ON c2.code = e2.course_code "
+                   + " WHERE e2.student_reg_no = ?) AS total_credits, "
+                   + "(SELECT NVL(SUM(c2.credits), 0) FROM enrollments e2 JOIN courses c2 ON c2.code = e2.course_code "
+                   + " WHERE e2.student_reg_no = ? AND e2.enrollment_semester = c.semester AND e2.enrollment_year = ?) AS term_credits "
+                   + "FROM dual LEFT JOIN courses c ON c.code = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, studentRegNo);
-            pstmt.setString(2, courseCode.getCode());
-            pstmt.setInt(3, enrollmentYear);
-            pstmt.setString(4, semester);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            throw new SQLException("Failed to enroll student: " + e.getMessage(), e);
+            pstmt.setString(2, studentRegNo);
+            pstmt.setString(3, courseCode.getCode());
+            pstmt.setString(4, studentRegNo);
+            pstmt.setString(5, studentRegNo);
+            pstmt.setInt(6, enrollmentYear);
+            pstmt.setString(7, courseCode.getCode());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return new EnrollmentEligibility(
+                        rs.getInt("student_exists") > 0,
+                        rs.getString("code") != null,
+                        rs.getInt("enrolled") > 0,
+                        rs.getInt("credits"),
+                        rs.getString("semester"),
+                        rs.getInt("total_credits"),
+                        rs.getInt("term_credits"));
+            }
         }
     }
 
-    public void enrollStudent(String studentRegNo, CourseCode courseCode, Connection conn)
+    private static void bindConditionalInsert(PreparedStatement pstmt, String studentRegNo, CourseCode courseCode, int enrollmentYear)
+            throws SQLException {
+        pstmt.setString(1, studentRegNo);
+        pstmt.setInt(2, enrollmentYear);
+        pstmt.setString(3, courseCode.getCode());
+        pstmt.setString(4, studentRegNo);
+        pstmt.setString(5, studentRegNo);
+        pstmt.setInt(6, MAX_TOTAL_CREDITS);
+        pstmt.setString(7, studentRegNo);
+        pstmt.setInt(8, enrollmentYear);
+        pstmt.setInt(9, MAX_SEMESTER_CREDITS);
+    }
+
+    /**
+     * Inserts the enrollment only if the student is not already enrolled and both credit limits hold,
+     * checking and inserting in a single INSERT ... SELECT. The student row is locked first, so
+     * concurrent registrations for the same student are serialized within the caller's transaction.
+     * On an autocommit connection the lock would be released before the insert runs, so the check and the
+     * insert then get a transaction of their own.
+     * When nothing is inserted, the eligibility query explains why.
+     */
+    private void insertEnrollment(String studentRegNo, CourseCode courseCode, int enrollmentYear, Connection conn)
             throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException, SQLException {
-        if (isEnrolled(studentRegNo, courseCode, conn)) {
-            throw new DuplicateEnrollmentException("Student is already enrolled in this course.");
+        if (!conn.getAutoCommit()) {
+            lockAndInsertEnrollment(studentRegNo, courseCode, enrollmentYear, conn);
+            return;
         }
+        conn.setAutoCommit(false);
+        try {
+            lockAndInsertEnrollment(studentRegNo, courseCode, enrollmentYear, conn);
+            conn.commit();
+        } catch (Exception e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
 
-        int enrollYear = java.time.LocalDate.now().getYear();
-        int currentTotalCredits = getCurrentCredits(studentRegNo, conn);
-        Course course = this.courseService.findCourseByCode(courseCode, conn);
-        String semester = course.getSemester() != null ? course.getSemester().name() : "";
-        int currentSemesterCredits = getCurrentSemesterYearCredits(studentRegNo, semester, enrollYear, conn);
+    private void lockAndInsertEnrollment(String studentRegNo, CourseCode courseCode, int enrollmentYear, Connection conn)
+            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException, SQLException {
+        String lockSql = "SELECT reg_no FROM students WHERE reg_no = ? FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(lockSql)) {
+            pstmt.setString(1, studentRegNo);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new RecordNotFoundException("Student with Reg No. " + studentRegNo + " not found.");
+                }
+            }
+        }
 
-        if (currentTotalCredits + course.getCredits() > MAX_TOTAL_CREDITS) {
+        int inserted;
+        try (PreparedStatement pstmt = conn.prepareStatement(CONDITIONAL_INSERT_SQL)) {
+            bindConditionalInsert(pstmt, studentRegNo, courseCode, enrollmentYear);
+            inserted = pstmt.executeUpdate();
+        } catch (SQLException e) {
+            if ("23505".equals(e.getSQLState()) || e.getErrorCode() == 1) {
+                throw new DuplicateEnrollmentException("Student is already enrolled in this course.");
+            }
+            throw new SQLException("Failed to enroll student: " + e.getMessage(), e);
+        }
+        if (inserted == 1) {
+            return;
+        }
+
+        EnrollmentEligibility eligibility = checkEligibility(studentRegNo, courseCode, enrollmentYear, conn);
+        if (eligibility.isAlreadyEnrolled()) {
+            throw new DuplicateEnrollmentException("Student is already enrolled in this course.");
+        }
+        if (!eligibility.isCourseExists()) {
+            throw new RecordNotFoundException("Course with code " + courseCode.getCode() + " not found.");
+        }
+        if (eligibility.exceedsTotalLimit()) {
             throw new MaxCreditLimitExceededException(
                     "Enrolling in this course would exceed the maximum total credit limit of " + MAX_TOTAL_CREDITS);
         }
-
-        if (currentSemesterCredits + course.getCredits() > MAX_SEMESTER_CREDITS) {
+        if (eligibility.exceedsSemesterLimit()) {
             throw new MaxCreditLimitExceededException(
                     "Enrolling in this course would exceed the per-semester credit limit of " + MAX_SEMESTER_CREDITS
-                    + " for " + semester + " " + enrollYear);
+                    + " for " + eligibility.getSemester() + " " + enrollmentYear);
         }
+        throw new SQLException("Enrollment of " + studentRegNo + " in " + courseCode.getCode() + " was not inserted.");
+    }
 
-        String sql = "INSERT INTO enrollments (student_reg_no, course_code, enrollment_year, enrollment_semester) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, studentRegNo);
-            pstmt.setString(2, courseCode.getCode());
-            pstmt.setInt(3, enrollYear);
-            pstmt.setString(4, semester);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            throw new SQLException("Failed to enroll student: " + e.getMessage(), e);
+    /**
+     * Outcome of one (student, course) pair in a bulk enrollment.
+     */
+    public static class BulkEnrollmentResult {
+        public enum Outcome { ACCEPTED, DUPLICATE, OVER_LIMIT, MISSING }
+
+        private final String studentRegNo;
+        private final CourseCode courseCode;
+        private final Outcome outcome;
+        private final String message;
+
+        public BulkEnrollmentResult(String studentRegNo, CourseCode courseCode, Outcome outcome, String message) {
+            this.studentRegNo = studentRegNo;
+            this.courseCode = courseCode;
+            this.outcome = outcome;
+            this.message = message;
         }
+
+        public String getStudentRegNo() { return studentRegNo; }
+        public CourseCode getCourseCode() { return courseCode; }
+        public Outcome getOutcome() { return outcome; }
+        public String getMessage() { return message; }
     }
 
-    public void enrollStudentWithGrade(String studentRegNo, CourseCode courseCode, Grade grade)
-            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException {
+    /**
+     * Enrolls a whole section in one course. Every candidate's credit totals are validated with one aggregate
+     * query per IN-list chunk (which also locks the student rows), and the accepted rows are inserted with one
+     * JDBC batch, all in a single transaction.
+     * @param courseCode The course to enroll into.
+     * @param regNos The students to enroll, in the order results are returned.
+     * @param enrollmentYear The enrollment year; the term is the course's semester in this year.
+     * @return One result per entry of regNos.
+     */
+    public List<BulkEnrollmentResult> enrollStudents(CourseCode courseCode, List<String> regNos, int enrollmentYear) {
         try (Connection conn = DatabaseManager.getConnection()) {
             conn.setAutoCommit(false);
             try {
-                enrollStudentWithGrade(studentRegNo, courseCode, grade, conn);
+                List<BulkEnrollmentResult> results = enrollStudents(courseCode, regNos, enrollmentYear, conn);
                 conn.commit();
-            } catch (SQLException | MaxCreditLimitExceededException | RecordNotFoundException | DuplicateEnrollmentException e) {
+                return results;
+            } catch (SQLException | RuntimeException e) {
                 conn.rollback();
-                // Re-throw the specific, checked exceptions
-                if (e instanceof DuplicateEnrollmentException) throw (DuplicateEnrollmentException) e;
-                if (e instanceof MaxCreditLimitExceededException) throw (MaxCreditLimitExceededException) e;
-                if (e instanceof RecordNotFoundException) throw (RecordNotFoundException) e;
-                // Wrap SQLException in a RuntimeException for single-transaction operations
-                throw new RuntimeException("Database error during enrollment with grade: " + e.getMessage(), e);
+                throw e;
             } finally {
                 conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
-            throw new RuntimeException("Database connection error during enrollment with grade: " + e.getMessage(), e);
+            throw new RuntimeException("Database error during bulk enrollment: " + e.getMessage(), e);
         }
     }
 
-    public void enrollStudentWithGrade(String studentRegNo, CourseCode courseCode, Grade grade, Connection conn)
-            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException, SQLException {
-        if (isEnrolled(studentRegNo, courseCode, conn)) {
-            throw new DuplicateEnrollmentException("Student is already enrolled in this course.");
+    /**
+     * Same as enrollStudents(CourseCode, List, int), on the caller's connection and transaction.
+     */
+    public List<BulkEnrollmentResult> enrollStudents(CourseCode courseCode, List<String> regNos, int enrollmentYear, Connection conn)
+            throws SQLException {
+        BulkValidation validation = new BulkValidation();
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(regNos));
+        for (int from = 0; from < distinct.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<String> chunk = distinct.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, distinct.size()));
+            String sql = "SELECT s.reg_no, tc.code, tc.credits, tc.semester, " + CANDIDATE_TOTALS_SQL
+                       + "FROM students s JOIN courses tc ON tc.code = ? "
+                       + "WHERE s.reg_no IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") "
+                       + "FOR UPDATE OF s.reg_no";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, enrollmentYear);
+                pstmt.setString(2, courseCode.getCode());
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setString(i + 3, chunk.get(i));
+                }
+                validation.read(pstmt);
+            }
         }
 
-        int enrollYear = java.time.LocalDate.now().getYear();
-        int currentTotalCredits = getCurrentCredits(studentRegNo, conn);
-        Course course = this.courseService.findCourseByCode(courseCode, conn);
-        String semester = course.getSemester() != null ? course.getSemester().name() : "";
-        int currentSemesterCredits = getCurrentSemesterYearCredits(studentRegNo, semester, enrollYear, conn);
+        List<String[]> pairs = new ArrayList<>(regNos.size());
+        for (String regNo : regNos) {
+            pairs.add(new String[]{regNo, courseCode.getCode()});
+        }
+        return applyBulkEnrollment(pairs, validation, enrollmentYear, conn);
+    }
 
-        if (currentTotalCredits + course.getCredits() > MAX_TOTAL_CREDITS) {
-            throw new MaxCreditLimitExceededException(
-                    "Enrolling in this course would exceed the maximum total credit limit of " + MAX_TOTAL_CREDITS);
+    /**
+     * Enrolls one student in several courses for the current year, validating all of them with one aggregate
+     * query and inserting the accepted rows with one JDBC batch in a single transaction. Courses are accepted in
+     * list order, so a later course is rejected if the earlier ones already used up the credit limits.
+     * @param studentRegNo The student to enroll.
+     * @param courseCodes The courses, in the order results are returned.
+     * @return One result per entry of courseCodes.
+     */
+    public List<BulkEnrollmentResult> enrollStudentInCourses(String studentRegNo, List<CourseCode> courseCodes) {
+        int enrollmentYear = java.time.LocalDate.now().getYear();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                BulkValidation validation = new BulkValidation();
+                List<String> distinct = new ArrayList<>();
+                for (CourseCode code : new LinkedHashSet<>(courseCodes)) {
+                    distinct.add(code.getCode());
+                }
+                for (int from = 0; from < distinct.size(); from += IN_LIST_CHUNK_SIZE) {
+                    List<String> chunk = distinct.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, distinct.size()));
+                    String sql = "SELECT s.reg_no, tc.code, tc.credits, tc.semester, " + CANDIDATE_TOTALS_SQL
+                               + "FROM students s JOIN courses tc ON tc.code IN ("
+                               + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") "
+                               + "WHERE s.reg_no = ? "
+                               + "FOR UPDATE OF s.reg_no";
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        pstmt.setInt(1, enrollmentYear);
+                        for (int i = 0; i < chunk.size(); i++) {
+                            pstmt.setString(i + 2, chunk.get(i));
+                        }
+                        pstmt.setString(chunk.size() + 2, studentRegNo);
+                        validation.read(pstmt);
+                    }
+                }
+
+                List<String[]> pairs = new ArrayList<>(courseCodes.size());
+                for (CourseCode code : courseCodes) {
+                    pairs.add(new String[]{studentRegNo, code.getCode()});
+                }
+                List<BulkEnrollmentResult> results = applyBulkEnrollment(pairs, validation, enrollmentYear, conn);
+                conn.commit();
+                return results;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error during bulk enrollment: " + e.getMessage(), e);
         }
+    }
 
-        if (currentSemesterCredits + course.getCredits() > MAX_SEMESTER_CREDITS) {
-            throw new MaxCreditLimitExceededException(
-                    "Enrolling in this course would exceed the per-semester credit limit of " + MAX_SEMESTER_CREDITS
-                    + " for " + semester + " " + enrollYear);
+    // Per-candidate enrollment status and credit totals; expects the term year as its only parameter
+    private static final String CANDIDATE_TOTALS_SQL =
+            "(SELECT COUNT(*) FROM enrollments x WHERE x.student_reg_no = s.reg_no AND x.course_code = tc.code) AS enrolled, "
+            + "(SELECT NVL(SUM(c2.credits), 0) FROM enrollments e2 JOIN courses c2 ON c2.code = e2.course_code "
+            + " WHERE e2.student_reg_no = s.reg_no) AS total_credits, "
+            + "(SELECT NVL(SUM(c2.credits), 0) FROM enrollments e2 JOIN courses c2 ON c2.code = e2.course_code "
+            + " WHERE e2.student_reg_no = s.reg_no AND e2.enrollment_semester = tc.semester AND e2.enrollment_year = ?) AS term_credits ";
+
+    private static class BulkCandidate {
+        private final String semester;
+        private final int credits;
+        private final boolean enrolled;
+
+        BulkCandidate(String semester, int credits, boolean enrolled) {
+            this.semester = semester;
+            this.credits = credits;
+            this.enrolled = enrolled;
         }
+    }
 
-        String insertSql = "INSERT INTO enrollments (student_reg_no, course_code, enrollment_year, enrollment_semester) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
-            pstmt.setString(1, studentRegNo);
-            pstmt.setString(2, courseCode.getCode());
-            pstmt.setInt(3, enrollYear);
-            pstmt.setString(4, semester);
-            pstmt.executeUpdate();
+    /**
+     * Rows of the bulk validation queries for one call. Candidates are keyed by "regNo|code"; the credit
+     * totals are per student (and per student and term) so accepting one row counts against the next.
+     */
+    private static class BulkValidation {
+        private final Map<String, BulkCandidate> candidates = new HashMap<>();
+        private final Map<String, Integer> totalCredits = new HashMap<>();
+        private final Map<String, Integer> termCredits = new HashMap<>();
+        private final Set<String> students = new HashSet<>();
+        private final Set<String> courses = new HashSet<>();
+
+        void read(PreparedStatement pstmt) throws SQLException {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String regNo = rs.getString("reg_no");
+                    String code = rs.getString("code");
+                    String semester = rs.getString("semester");
+                    candidates.put(regNo + "|" + code,
+                            new BulkCandidate(semester, rs.getInt("credits"), rs.getInt("enrolled") > 0));
+                    totalCredits.putIfAbsent(regNo, rs.getInt("total_credits"));
+                    termCredits.putIfAbsent(regNo + "|" + semester, rs.getInt("term_credits"));
+                    students.add(regNo);
+                    courses.add(code);
+                }
+            }
+        }
+
+        String missingMessage(String regNo, String code) {
+            if (students.contains(regNo)) {
+                return "Course with code " + code + " not found.";
+            }
+            if (courses.contains(code)) {
+                return "Student with Reg No. " + regNo + " not found.";
+            }
+            return "Student with Reg No. " + regNo + " or course with code " + code + " not found.";
         }
-        recordGrade(studentRegNo, courseCode, grade, conn);
     }
 
+    /**
+     * Decides each (regNo, code) pair in order against the validated totals, then inserts the accepted rows
+     * with one batch of conditional inserts. The inserts re-check the limits, so a row that lost a race with a
+     * concurrent registration is reported from a fresh eligibility check instead of being inserted.
+     */
+    private List<BulkEnrollmentResult> applyBulkEnrollment(List<String[]> pairs, BulkValidation validation,
+                                                           int enrollmentYear, Connection conn) throws SQLException {
+        List<BulkEnrollmentResult> results = new ArrayList<>(pairs.size());
+        List<Integer> accepted = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String[] pair : pairs) {
+            String regNo = pair[0];
+            CourseCode code = new CourseCode(pair[1]);
+            String key = regNo + "|" + pair[1];
+            BulkCandidate candidate = validation.candidates.get(key);
+            if (candidate == null) {
+                results.add(new BulkEnrollmentResult(regNo, code, BulkEnrollmentResult.Outcome.MISSING,
+                        validation.missingMessage(regNo, pair[1])));
+                continue;
+            }
+            if (candidate.enrolled || !seen.add(key)) {
+                results.add(new BulkEnrollmentResult(regNo, code, BulkEnrollmentResult.Outcome.DUPLICATE,
+                        "Student is already enrolled in this course."));
+                continue;
+            }
+            String semester = candidate.semester;
+            int credits = candidate.credits;
+            String termKey = regNo + "|" + semester;
+            int total = validation.totalCredits.get(regNo);
+            int term = validation.termCredits.get(termKey);
+            if (total + credits > MAX_TOTAL_CREDITS) {
+                results.add(new BulkEnrollmentResult(regNo, code, BulkEnrollmentResult.Outcome.OVER_LIMIT,
+                        "Enrolling in this course would exceed the maximum total credit limit of " + MAX_TOTAL_CREDITS));
+                continue;
+            }
+            if (term + credits > MAX_SEMESTER_CREDITS) {
+                results.add(new BulkEnrollmentResult(regNo, code, BulkEnrollmentResult.Outcome.OVER_LIMIT,
+                        "Enrolling in this course would exceed the per-semester credit limit of " + MAX_SEMESTER_CREDITS
+                        + " for " + semester + " " + enrollmentYear));
+                continue;
+            }
+            validation.totalCredits.put(regNo, total + credits);
+            validation.termCredits.put(termKey, term + credits);
+            accepted.add(results.size());
+            results.add(new BulkEnrollmentResult(regNo, code, BulkEnrollmentResult.Outcome.ACCEPTED, null));
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        int[] counts;
+        try (PreparedStatement pstmt = conn.prepareStatement(CONDITIONAL_INSERT_SQL)) {
+            for (int index : accepted) {
+                BulkEnrollmentResult result = results.get(index);
+                bindConditionalInsert(pstmt, result.getStudentRegNo(), result.getCourseCode(), enrollmentYear);
+                pstmt.addBatch();
+            }
+            counts = pstmt.executeBatch();
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                continue;
+            }
+            int index = accepted.get(i);
+            BulkEnrollmentResult result = results.get(index);
+            EnrollmentEligibility eligibility = checkEligibility(result.getStudentRegNo(), result.getCourseCode(), enrollmentYear, conn);
+            BulkEnrollmentResult.Outcome outcome = eligibility.isAlreadyEnrolled() ? BulkEnrollmentResult.Outcome.DUPLICATE
+                    : !eligibility.isStudentExists() || !eligibility.isCourseExists() ? BulkEnrollmentResult.Outcome.MISSING
+                    : BulkEnrollmentResult.Outcome.OVER_LIMIT;
+            results.set(index, new BulkEnrollmentResult(result.getStudentRegNo(), result.getCourseCode(), outcome,
+                    "Rejected by a concurrent change to the student's enrollments."));
+        }
+        return results;
+    }
 
     public void unenrollStudent(String studentRegNo, CourseCode courseCode) throws RecordNotFoundException {
         String insertSql = "INSERT INTO DROPPED_ENROLLMENTS (student_reg_no, course_code, drop_date) VALUES (?, ?, ?)";
@@ -176,6 +569,7 @@ public class EnrollmentService {
         try (Connection conn = DatabaseManager.getConnection()) {
             conn.setAutoCommit(false);
             try {
+                String[] gradeAndCredits = findGradeAndCredits(studentRegNo, courseCode, conn);
                 try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
                     pstmt.setString(1, studentRegNo);
                     pstmt.setString(2, courseCode.getCode());
@@ -191,7 +585,12 @@ public class EnrollmentService {
                 if (affectedRows == 0) {
                     throw new RecordNotFoundException("Enrollment record not found for student " + studentRegNo + " in course " + courseCode);
                 }
+                Map<String, CgpaService.TotalsDelta> deltas = new HashMap<>();
+                deltas.computeIfAbsent(studentRegNo, k -> new CgpaService.TotalsDelta())
+                        .remove(gradeAndCredits[0], Integer.parseInt(gradeAndCredits[1]));
+                cgpaService.applyDeltas(deltas, conn);
                 conn.commit();
+                StudentService.CACHE.invalidate(studentRegNo);
             } catch (Exception e) {
                 conn.rollback();
                 throw e;
@@ -205,23 +604,73 @@ public class EnrollmentService {
 
     public void recordGrade(String studentRegNo, CourseCode courseCode, Grade grade) throws RecordNotFoundException {
         try (Connection conn = DatabaseManager.getConnection()) {
-            recordGrade(studentRegNo, courseCode, grade, conn);
+            conn.setAutoCommit(false);
+            try {
+                recordGrade(studentRegNo, courseCode, grade, conn);
+                conn.commit();
+                StudentService.CACHE.invalidate(studentRegNo);
+            } catch (SQLException | RecordNotFoundException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             throw new RecordNotFoundException("Database error recording grade: " + e.getMessage(), e);
         }
     }
 
-    public void recordGrade(String studentRegNo, CourseCode courseCode, Grade grade, Connection conn) throws RecordNotFoundException, SQLException {
+    /**
+     * Changes the student's grade totals on the caller's transaction; the caller must invalidate the
+     * student's cache entry once it commits, so this stays inside the package.
+     */
+    void recordGrade(String studentRegNo, CourseCode courseCode, Grade grade, Connection conn) throws RecordNotFoundException, SQLException {
+        String[] gradeAndCredits = findGradeAndCredits(studentRegNo, courseCode, conn);
         String sql = "UPDATE enrollments SET grade = ? WHERE student_reg_no = ? AND course_code = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, grade.name());
             pstmt.setString(2, studentRegNo);
             pstmt.setString(3, courseCode.getCode());
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new RecordNotFoundException("Enrollment record not found for student " + studentRegNo + " in course " + courseCode);
+            pstmt.executeUpdate();
+        }
+        int credits = Integer.parseInt(gradeAndCredits[1]);
+        Map<String, CgpaService.TotalsDelta> deltas = new HashMap<>();
+        CgpaService.TotalsDelta delta = deltas.computeIfAbsent(studentRegNo, k -> new CgpaService.TotalsDelta());
+        delta.remove(gradeAndCredits[0], credits);
+        delta.add(grade.name(), credits);
+        cgpaService.applyDeltas(deltas, conn);
+    }
+
+    /**
+     * Recomputes the running grade totals and CGPA of the given students from their enrollments.
+     * For bulk writers (such as the enrollment import MERGE) that can't track per-row deltas.
+     * The caller owns the transaction and should invalidate the student cache after committing.
+     * @param regNos The students whose enrollments were written.
+     * @param conn The connection (and transaction) the writes were made on.
+     * @throws SQLException if a database error occurs.
+     */
+    public void refreshGradeTotals(Collection<String> regNos, Connection conn) throws SQLException {
+        cgpaService.recompute(regNos, conn);
+    }
+
+    /**
+     * Reads the current grade (may be null) and the course credits of one enrollment.
+     * @return {grade, credits}
+     * @throws RecordNotFoundException if the student is not enrolled in the course.
+     */
+    private String[] findGradeAndCredits(String studentRegNo, CourseCode courseCode, Connection conn) throws SQLException {
+        String sql = "SELECT e.grade, c.credits FROM enrollments e JOIN courses c ON c.code = e.course_code "
+                   + "WHERE e.student_reg_no = ? AND e.course_code = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, studentRegNo);
+            pstmt.setString(2, courseCode.getCode());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new String[]{rs.getString(1), String.valueOf(rs.getInt(2))};
+                }
             }
         }
+        throw new RecordNotFoundException("Enrollment record not found for student " + studentRegNo + " in course " + courseCode);
     }
     
     public List<Student> getEnrolledStudents(CourseCode courseCode) throws RecordNotFoundException {
@@ -243,120 +692,95 @@ public class EnrollmentService {
 
     public List<Enrollment> getAllEnrollments() {
         List<Enrollment> enrollments = new ArrayList<>();
-        String sql = "SELECT student_reg_no, course_code, grade, enrollment_year, enrollment_semester FROM enrollments";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                try {
-                    Student student = this.studentService.findStudentByRegNo(rs.getString("student_reg_no"), conn);
-                    Course course = this.courseService.findCourseByCode(new CourseCode(rs.getString("course_code")), conn);
-                    String gradeStr = rs.getString("grade");
-                    Grade grade = (gradeStr != null && !gradeStr.isEmpty()) ? Grade.valueOf(gradeStr) : Grade.NA;
-                    int year = rs.getInt("enrollment_year");
-                    String sem = rs.getString("enrollment_semester");
-                    Enrollment enrollment = new Enrollment(student, course, grade, year, sem);
-                    enrollments.add(enrollment);
-
-                } catch (RecordNotFoundException | SQLException e) {
-                     System.err.println("Skipping enrollment record due to missing data: " + e.getMessage());
-                }
-            }
+        try {
+            forEachEnrollment(enrollments::add);
         } catch (SQLException e) {
             System.err.println("Database error fetching all enrollments: " + e.getMessage());
         }
         return enrollments;
     }
-    
-    public List<Enrollment> getEnrollmentsForStudent(String studentRegNo) {
-        List<Enrollment> enrollments = new ArrayList<>();
-        String sql = "SELECT e.student_reg_no, e.course_code, e.grade, e.enrollment_year, e.enrollment_semester FROM enrollments e INNER JOIN courses c ON e.course_code = c.code WHERE e.student_reg_no = ? ORDER BY e.enrollment_year ASC, e.enrollment_semester ASC";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, studentRegNo);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    try {
-                        Student student = this.studentService.findStudentByRegNo(rs.getString("student_reg_no"), conn);
-                        Course course = this.courseService.findCourseByCode(new CourseCode(rs.getString("course_code")), conn);
-                        String gradeStr = rs.getString("grade");
-                        Grade grade = (gradeStr != null && !gradeStr.isEmpty()) ? Grade.valueOf(gradeStr) : Grade.NA;
-                        int year = rs.getInt("enrollment_year");
-                        String sem = rs.getString("enrollment_semester");
-                        Enrollment enrollment = new Enrollment(student, course, grade, year, sem);
-                        enrollments.add(enrollment);
-
-                    } catch (RecordNotFoundException | SQLException e) {
-                        System.err.println("Skipping enrollment record due to missing data: " + e.getMessage());
-                    }
-                }
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Database error fetching enrollments for student: " + e.getMessage());
+    /**
+     * Streams every enrollment, fully hydrated, from a single joined query.
+     * Rows go to the sink as they are fetched, so callers that write them out don't need the whole table in memory.
+     * @param sink Receives each enrollment.
+     * @throws SQLException if the query fails; the sink may already have received some rows.
+     */
+    public void forEachEnrollment(Consumer<Enrollment> sink) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            new EnrollmentHydrator().stream(conn, "", pstmt -> {}, sink);
         }
-        return enrollments;
     }
 
-    public List<Enrollment> getEnrollmentsForCourse(String courseCode) {
-        List<Enrollment> enrollments = new ArrayList<>();
-        String sql = "SELECT e.student_reg_no, e.course_code, e.grade, e.enrollment_year, e.enrollment_semester FROM enrollments e INNER JOIN courses c ON e.course_code = c.code WHERE e.course_code = ? ORDER BY e.enrollment_year ASC, e.enrollment_semester ASC";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    public List<Enrollment> getEnrollmentsForStudent(String studentRegNo) {
+        return loadEnrollments(List.of(studentRegNo)).getOrDefault(studentRegNo, new ArrayList<>());
+    }
 
-            pstmt.setString(1, courseCode);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    try {
-                        Student student = this.studentService.findStudentByRegNo(rs.getString("student_reg_no"), conn);
-                        Course course = this.courseService.findCourseByCode(new CourseCode(rs.getString("course_code")), conn);
-                        String gradeStr = rs.getString("grade");
-                        Grade grade = (gradeStr != null && !gradeStr.isEmpty()) ? Grade.valueOf(gradeStr) : Grade.NA;
-                        int year = rs.getInt("enrollment_year");
-                        String sem = rs.getString("enrollment_semester");
-                        Enrollment enrollment = new Enrollment(student, course, grade, year, sem);
-                        enrollments.add(enrollment);
-
-                    } catch (RecordNotFoundException | SQLException e) {
-                        System.err.println("Skipping enrollment record due to missing data: " + e.getMessage());
-                    }
-                }
-            }
+    public List<Enrollment> getEnrollmentsForCourse(String courseCode) {
+        CourseCode code = new CourseCode(courseCode);
+        return loadRosters(List.of(code)).getOrDefault(code, new ArrayList<>());
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Database error fetching enrollments for course: " + e.getMessage());
+    /**
+     * Loads the enrollments of many students at once, one joined query per IN-list chunk.
+     * @param regNos The registration numbers to load.
+     * @return Enrollments per student, ordered by year and semester, in the iteration order of regNos.
+     *         Students with no enrollments are absent from the map.
+     */
+    public Map<String, List<Enrollment>> loadEnrollments(Collection<String> regNos) {
+        Map<String, List<Enrollment>> result = new LinkedHashMap<>();
+        for (String regNo : regNos) {
+            result.put(regNo, null);
         }
-        return enrollments;
+        loadInChunks(new ArrayList<>(result.keySet()), "e.student_reg_no",
+                e -> result.computeIfAbsent(e.getStudent().getRegNo(), k -> new ArrayList<>()).add(e),
+                "Database error fetching enrollments for students: ");
+        result.values().removeIf(Objects::isNull);
+        return result;
     }
 
-    private boolean isEnrolled(String studentRegNo, CourseCode courseCode, Connection conn) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM enrollments WHERE student_reg_no = ? AND course_code = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, studentRegNo);
-            pstmt.setString(2, courseCode.getCode());
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
+    /**
+     * Loads the rosters of many courses at once, one joined query per IN-list chunk.
+     * @param courseCodes The courses to load.
+     * @return Enrollments per course, ordered by year and semester, in the iteration order of courseCodes.
+     *         Courses with no enrollments are absent from the map.
+     */
+    public Map<CourseCode, List<Enrollment>> loadRosters(Collection<CourseCode> courseCodes) {
+        Map<CourseCode, List<Enrollment>> result = new LinkedHashMap<>();
+        for (CourseCode code : courseCodes) {
+            result.put(code, null);
         }
-        return false;
+        List<String> codes = new ArrayList<>(result.size());
+        for (CourseCode code : result.keySet()) {
+            codes.add(code.getCode());
+        }
+        loadInChunks(codes, "e.course_code",
+                e -> result.computeIfAbsent(e.getCourse().getCourseCode(), k -> new ArrayList<>()).add(e),
+                "Database error fetching course rosters: ");
+        result.values().removeIf(Objects::isNull);
+        return result;
     }
 
-    private int getCurrentCredits(String studentRegNo, Connection conn) throws SQLException {
-        int totalCredits = 0;
-        String sql = "SELECT SUM(c.credits) FROM courses c JOIN enrollments e ON c.code = e.course_code WHERE e.student_reg_no = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, studentRegNo);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    totalCredits = rs.getInt(1);
-                }
+    private void loadInChunks(List<String> keys, String column, Consumer<Enrollment> sink, String errorPrefix) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        // One hydrator across chunks so a course shared by several students is built once
+        EnrollmentHydrator hydrator = new EnrollmentHydrator();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            for (int from = 0; from < keys.size(); from += IN_LIST_CHUNK_SIZE) {
+                List<String> chunk = keys.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, keys.size()));
+                String suffix = "WHERE " + column + " IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?"))
+                        + ") ORDER BY e.enrollment_year ASC, e.enrollment_semester ASC";
+                hydrator.stream(conn, suffix, pstmt -> {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                }, sink);
             }
+        } catch (SQLException e) {
+            System.err.println(errorPrefix + e.getMessage());
         }
-        return totalCredits;
     }
 
     private int getCurrentSemesterYearCredits(String studentRegNo, String semester, int year, Connection conn) throws SQLException {
@@ -377,36 +801,6 @@ public class EnrollmentService {
         return semesterCredits;
     }
 
-    public void enrollStudentWithGradeAndYear(String studentRegNo, CourseCode courseCode, Grade grade, int enrollmentYear, Connection conn)
-            throws DuplicateEnrollmentException, MaxCreditLimitExceededException, RecordNotFoundException, SQLException {
-        if (isEnrolled(studentRegNo, courseCode, conn)) {
-            throw new DuplicateEnrollmentException("Student is already enrolled in this course.");
-        }
-        int currentTotalCredits = getCurrentCredits(studentRegNo, conn);
-        Course course = this.courseService.findCourseByCode(courseCode, conn);
-        String semester = course.getSemester() != null ? course.getSemester().name() : "";
-        int currentSemesterCredits = getCurrentSemesterYearCredits(studentRegNo, semester, enrollmentYear, conn);
-
-        if (currentTotalCredits + course.getCredits() > MAX_TOTAL_CREDITS) {
-            throw new MaxCreditLimitExceededException(
-                    "Enrolling in this course would exceed the maximum total credit limit of " + MAX_TOTAL_CREDITS);
-        }
-        if (currentSemesterCredits + course.getCredits() > MAX_SEMESTER_CREDITS) {
-            throw new MaxCreditLimitExceededException(
-                    "Enrolling in this course would exceed the per-semester credit limit of " + MAX_SEMESTER_CREDITS
-                    + " for " + semester + " " + enrollmentYear);
-        }
-        String insertSql = "INSERT INTO enrollments (student_reg_no, course_code, enrollment_year, enrollment_semester) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
-            pstmt.setString(1, studentRegNo);
-            pstmt.setString(2, courseCode.getCode());
-            pstmt.setInt(3, enrollmentYear);
-            pstmt.setString(4, semester);
-            pstmt.executeUpdate();
-        }
-        recordGrade(studentRegNo, courseCode, grade, conn);
-    }
-
     public void updateEnrollmentYear(String studentRegNo, CourseCode courseCode, int newYear) throws RecordNotFoundException, MaxCreditLimitExceededException {
         try (Connection conn = DatabaseManager.getConnection()) {
             updateEnrollmentYear(studentRegNo, courseCode, newYear, conn);
@@ -459,10 +853,14 @@ public class EnrollmentService {
     private static class StudentMarks {
         String studentRegNo;
         double marks;
+        String grade;
+        int credits;
 
-        StudentMarks(String studentRegNo, double marks) {
+        StudentMarks(String studentRegNo, double marks, String grade, int credits) {
             this.studentRegNo = studentRegNo;
             this.marks = marks;
+            this.grade = grade;
+            this.credits = credits;
         }
     }
 
@@ -532,8 +930,9 @@ public class EnrollmentService {
     public void calculateRelativeGrading(CourseCode courseCode, int year, String semester) 
             throws RecordNotFoundException {
         
-        String selectSql = "SELECT student_reg_no, grand_total_marks FROM enrollments " +
-                           "WHERE course_code = ? AND enrollment_year = ? AND enrollment_semester = ?";
+        String selectSql = "SELECT e.student_reg_no, e.grand_total_marks, e.grade, c.credits FROM enrollments e " +
+                           "JOIN courses c ON c.code = e.course_code " +
+                           "WHERE e.course_code = ? AND e.enrollment_year = ? AND e.enrollment_semester = ?";
         
         List<StudentMarks> cohortList = new ArrayList<>();
         
@@ -548,7 +947,9 @@ public class EnrollmentService {
                 while (rs.next()) {
                     cohortList.add(new StudentMarks(
                         rs.getString("student_reg_no"),
-                        rs.getDouble("grand_total_marks")
+                        rs.getDouble("grand_total_marks"),
+                        rs.getString("grade"),
+                        rs.getInt("credits")
                     ));
                 }
             }
@@ -578,11 +979,15 @@ public class EnrollmentService {
             String updateGradeSql = "UPDATE enrollments SET grade = ? " +
                                     "WHERE student_reg_no = ? AND course_code = ? AND enrollment_year = ? AND enrollment_semester = ?";
             
+            Map<String, CgpaService.TotalsDelta> deltas = new HashMap<>();
             conn.setAutoCommit(false);
             try (PreparedStatement updatePstmt = conn.prepareStatement(updateGradeSql)) {
                 for (StudentMarks sm : cohortList) {
                     String assignedGrade = determineRelativeGrade(sm.marks, mean, stdev);
-                    
+                    CgpaService.TotalsDelta delta = deltas.computeIfAbsent(sm.studentRegNo, k -> new CgpaService.TotalsDelta());
+                    delta.remove(sm.grade, sm.credits);
+                    delta.add(assignedGrade, sm.credits);
+
                     updatePstmt.setString(1, assignedGrade);
                     updatePstmt.setString(2, sm.studentRegNo);
                     updatePstmt.setString(3, courseCode.getCode());
@@ -591,7 +996,11 @@ public class EnrollmentService {
                     updatePstmt.addBatch();
                 }
                 updatePstmt.executeBatch();
+                cgpaService.applyDeltas(deltas, conn);
                 conn.commit();
+                for (String regNo : deltas.keySet()) {
+                    StudentService.CACHE.invalidate(regNo);
+                }
             } catch (SQLException e) {
                 conn.rollback();
                 throw new SQLException("Failed batch operation during relative grade distribution calculation", e);
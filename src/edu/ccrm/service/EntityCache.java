@@ -0,0 +1,95 @@
+package edu.ccrm.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread-safe LRU cache for entities looked up by key, with hit/miss/eviction counters.
+ * Loaders take a stamp before querying the database and store the result with putIfUnchanged,
+ * so a load that raced with an invalidation never puts a stale record back into the cache.
+ * @param <K> The key type.
+ * @param <V> The cached entity type.
+ */
+public class EntityCache<K, V> {
+
+    private final String name;
+    private final LinkedHashMap<K, V> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public EntityCache(String name, int maxSize) {
+        this.name = name;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return The cached value, or null on a miss.
+     */
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * @return A stamp to pass to putIfUnchanged once the value has been loaded.
+     */
+    public synchronized long stamp() {
+        return invalidations;
+    }
+
+    /**
+     * Caches a freshly loaded value unless an invalidation happened since the stamp was taken.
+     */
+    public synchronized void putIfUnchanged(K key, V value, long stamp) {
+        if (stamp == invalidations) {
+            entries.put(key, value);
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        invalidations++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s cache: size=%d, hits=%d, misses=%d, evictions=%d", name, entries.size(), hits, misses, evictions);
+    }
+}
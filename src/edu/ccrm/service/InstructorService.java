@@ -5,6 +5,7 @@ import edu.ccrm.domain.Name;
 import edu.ccrm.exception.DataIntegrityException;
 import edu.ccrm.exception.RecordNotFoundException;
 import edu.ccrm.io.DatabaseManager;
+import edu.ccrm.util.TaskScheduler;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -12,8 +13,15 @@ import java.util.List;
 
 public class InstructorService {
 
+    // Shared by every InstructorService instance so a write through any of them invalidates the same entries
+    static final EntityCache<String, Instructor> CACHE = new EntityCache<>("Instructor", 2_000);
+
     public InstructorService() {}
 
+    public EntityCache<String, Instructor> getCache() {
+        return CACHE;
+    }
+
     public void addInstructor(Instructor instructor) throws DataIntegrityException {
         try (Connection conn = DatabaseManager.getConnection()) {
             addInstructor(instructor, conn);
@@ -46,7 +54,7 @@ public class InstructorService {
         List<Instructor> instructors = new ArrayList<>();
         String sql = "SELECT * FROM instructors ORDER BY FiD";
         try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
+             Statement stmt = TaskScheduler.cancellable(conn.createStatement());
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 instructors.add(mapRowToInstructor(rs));
@@ -57,14 +65,29 @@ public class InstructorService {
         return instructors;
     }
 
+    /**
+     * Looks the instructor up through the cache. Every caller gets its own copy, so changing the returned
+     * object never changes what the next caller reads.
+     */
     public Instructor findInstructorByFiD(String fId) throws RecordNotFoundException {
+        Instructor cached = CACHE.get(fId);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+        long stamp = CACHE.stamp();
         try (Connection conn = DatabaseManager.getConnection()) {
-            return findInstructorByFiD(fId, conn);
+            Instructor instructor = findInstructorByFiD(fId, conn);
+            CACHE.putIfUnchanged(fId, instructor, stamp);
+            return copyOf(instructor);
         } catch (SQLException e) {
             throw new RecordNotFoundException("Database error finding instructor: " + e.getMessage());
         }
     }
 
+    /**
+     * Reads the instructor on the caller's connection without touching the cache. The connection may be in
+     * the middle of a transaction, and its uncommitted rows must not reach other callers.
+     */
     public Instructor findInstructorByFiD(String fId, Connection conn) throws RecordNotFoundException {
         String sql = "SELECT * FROM instructors WHERE FiD = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -94,6 +117,9 @@ public class InstructorService {
             pstmt.setString(7, instructor.getCabinNo());
             pstmt.setString(8, instructor.getFiD());
             int affectedRows = pstmt.executeUpdate();
+            CACHE.invalidate(instructor.getFiD());
+            // Cached courses hold the old Instructor object
+            CourseService.CACHE.invalidateAll();
             if (affectedRows == 0) {
                 throw new RecordNotFoundException("Instructor with FiD " + instructor.getFiD() + " not found.");
             }
@@ -102,6 +128,11 @@ public class InstructorService {
         }
     }
 
+    static Instructor copyOf(Instructor instructor) {
+        return new Instructor(instructor.getFiD(), instructor.getFullName(), instructor.getEmail(),
+                instructor.getDepartment(), instructor.getDob(), instructor.getPhone(), instructor.getCabinNo());
+    }
+
     private Instructor mapRowToInstructor(ResultSet rs) throws SQLException {
         return new Instructor(
                 rs.getString("FiD"),
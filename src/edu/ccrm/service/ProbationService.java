@@ -3,6 +3,7 @@ package edu.ccrm.service;
 import edu.ccrm.domain.ProbationReport;
 import edu.ccrm.exception.DataIntegrityException;
 import edu.ccrm.io.DatabaseManager;
+import edu.ccrm.util.TaskScheduler;
 
 import java.sql.*;
 import java.time.LocalDate;
@@ -49,6 +50,9 @@ public class ProbationService {
                 }
                 
                 conn.commit();
+                for (String regNo : report.getStudentRegNos()) {
+                    StudentService.CACHE.invalidate(regNo);
+                }
             } catch (SQLException e) {
                 conn.rollback();
                 throw e;
@@ -142,7 +146,7 @@ public class ProbationService {
         List<ProbationReport> reports = new ArrayList<>();
         String sql = "SELECT * FROM probation_reports ORDER BY start_date DESC";
         try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
+             Statement stmt = TaskScheduler.cancellable(conn.createStatement());
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
@@ -207,6 +211,9 @@ public class ProbationService {
                 }
 
                 conn.commit();
+                for (String regNo : students) {
+                    StudentService.CACHE.invalidate(regNo);
+                }
             } catch (SQLException e) {
                 conn.rollback();
                 throw e;
@@ -306,6 +313,12 @@ public class ProbationService {
                 }
 
                 conn.commit();
+                for (String regNo : removedStudents) {
+                    StudentService.CACHE.invalidate(regNo);
+                }
+                for (String regNo : addedStudents) {
+                    StudentService.CACHE.invalidate(regNo);
+                }
             } catch (SQLException e) {
                 conn.rollback();
                 throw e;
@@ -5,16 +5,26 @@ import edu.ccrm.domain.Student;
 import edu.ccrm.exception.DataIntegrityException;
 import edu.ccrm.exception.RecordNotFoundException;
 import edu.ccrm.io.DatabaseManager;
+import edu.ccrm.util.TaskScheduler;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class StudentService {
 
+    // Shared by every StudentService instance so a write through any of them invalidates the same entries
+    static final EntityCache<String, Student> CACHE = new EntityCache<>("Student", 10_000);
+
     public StudentService() {}
 
+    public EntityCache<String, Student> getCache() {
+        return CACHE;
+    }
+
     public void addStudent(Student student) throws DataIntegrityException {
         try (Connection conn = DatabaseManager.getConnection()) {
             addStudent(student, conn);
@@ -48,16 +58,10 @@ public class StudentService {
 
     public List<Student> getAllStudentsSortedById() {
         List<Student> students = new ArrayList<>();
-        String sql = "SELECT s.*, "
-                   + "(SELECT COALESCE(SUM(c.credits), 0) "
-                   + " FROM enrollments e "
-                   + " JOIN courses c ON e.course_code = c.code "
-                   + " WHERE e.student_reg_no = s.reg_no "
-                   + "   AND e.grade IS NOT NULL "
-                   + "   AND e.grade <> 'NA') as graded_credits "
-                   + "FROM students s ORDER BY s.id";
+        // graded_credits is a running total kept current by EnrollmentService on every grade write
+        String sql = "SELECT * FROM students ORDER BY id";
         try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
+             Statement stmt = TaskScheduler.cancellable(conn.createStatement());
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 students.add(mapRowToStudent(rs));
@@ -68,14 +72,179 @@ public class StudentService {
         return students;
     }
 
+    /**
+     * Orders the student directory can be paged in. Every order ends with reg_no, the primary key, so it is
+     * total and a page can start strictly after the last row of the previous one. The expressions match the
+     * IX_STUDENTS_*_KEY indexes.
+     */
+    public enum StudentSort {
+        ID("NVL(id, 0)"),
+        REG_NO(),
+        NAME("NVL(last_name, ' ')", "NVL(first_name, ' ')"),
+        CGPA("NVL(cgpa, -1)");
+
+        private final String[] expressions;
+
+        StudentSort(String... expressions) {
+            this.expressions = expressions;
+        }
+
+        // The values the expressions have for a row; mapRowToStudent reads a null id as 0
+        private Object[] keyOf(Student student) {
+            switch (this) {
+                case ID:
+                    return new Object[]{student.getId()};
+                case NAME:
+                    return new Object[]{blankIfNull(student.getFullName().getLastName()), blankIfNull(student.getFullName().getFirstName())};
+                case CGPA:
+                    return new Object[]{student.getCgpa() != null ? BigDecimal.valueOf(student.getCgpa()) : BigDecimal.valueOf(-1)};
+                default:
+                    return new Object[0];
+            }
+        }
+
+        private static String blankIfNull(String value) {
+            return value == null || value.isEmpty() ? " " : value;
+        }
+    }
+
+    /**
+     * Fetches one page of the directory with keyset pagination: the page starts right after the given row
+     * in the chosen order, so the database walks the matching index from that point and stops after one
+     * page, however deep into the list it is.
+     * @param last The last row of the previous page, or null for the first page.
+     * @param limit Rows per page.
+     * @param filter Text that the full name or registration number must contain, ignoring case; null or
+     * empty for all students.
+     * @throws RuntimeException if the query fails, so a failed page is not mistaken for an empty one.
+     */
+    public List<Student> pageAfter(Student last, int limit, String filter, StudentSort sort, boolean descending) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM students WHERE ").append(filterSql(filter));
+        List<Object> params = new ArrayList<>(filterParams(filter));
+        if (last != null) {
+            // (k1, ..., reg_no) > (v1, ..., last reg_no), spelled out since Oracle cannot compare row values
+            Object[] key = sort.keyOf(last);
+            String[] columns = Arrays.copyOf(sort.expressions, sort.expressions.length + 1);
+            columns[columns.length - 1] = "reg_no";
+            Object[] values = Arrays.copyOf(key, key.length + 1);
+            values[values.length - 1] = last.getRegNo();
+            String after = descending ? " < ?" : " > ?";
+            sql.append(" AND (");
+            for (int i = 0; i < columns.length; i++) {
+                sql.append(i > 0 ? " OR (" : "(");
+                for (int j = 0; j < i; j++) {
+                    sql.append(columns[j]).append(" = ? AND ");
+                    params.add(values[j]);
+                }
+                sql.append(columns[i]).append(after).append(")");
+                params.add(values[i]);
+            }
+            sql.append(")");
+        }
+        sql.append(orderBy(sort, descending)).append(" FETCH FIRST ? ROWS ONLY");
+        params.add(limit);
+        return queryStudents(sql.toString(), params, "Database error fetching a page of students: ");
+    }
+
+    /**
+     * Fetches the page at a row offset, for jumping deep into the list where no previous page is loaded.
+     * Slower than pageAfter the further in it starts, since the skipped rows are still walked.
+     */
+    public List<Student> pageAt(int offset, int limit, String filter, StudentSort sort, boolean descending) {
+        String sql = "SELECT * FROM students WHERE " + filterSql(filter) + orderBy(sort, descending)
+                + " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
+        List<Object> params = new ArrayList<>(filterParams(filter));
+        params.add(offset);
+        params.add(limit);
+        return queryStudents(sql, params, "Database error fetching a page of students: ");
+    }
+
+    /**
+     * @return The number of students matching the filter, as used by pageAfter.
+     * @throws RuntimeException if the query fails.
+     */
+    public int countStudents(String filter) {
+        String sql = "SELECT COUNT(*) FROM students WHERE " + filterSql(filter);
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = TaskScheduler.cancellable(conn.prepareStatement(sql))) {
+            bind(pstmt, filterParams(filter));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error counting students: " + e.getMessage(), e);
+        }
+    }
+
+    private static String filterSql(String filter) {
+        if (filter == null || filter.isEmpty()) {
+            return "1 = 1";
+        }
+        return "(LOWER(first_name || ' ' || last_name) LIKE ? ESCAPE '\\' OR LOWER(reg_no) LIKE ? ESCAPE '\\')";
+    }
+
+    private static List<Object> filterParams(String filter) {
+        if (filter == null || filter.isEmpty()) {
+            return List.of();
+        }
+        String pattern = "%" + filter.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return List.of(pattern, pattern);
+    }
+
+    private static String orderBy(StudentSort sort, boolean descending) {
+        String direction = descending ? " DESC" : "";
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        for (String expression : sort.expressions) {
+            orderBy.append(expression).append(direction).append(", ");
+        }
+        return orderBy.append("reg_no").append(direction).toString();
+    }
+
+    private List<Student> queryStudents(String sql, List<Object> params, String errorPrefix) {
+        List<Student> students = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = TaskScheduler.cancellable(conn.prepareStatement(sql))) {
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(mapRowToStudent(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(errorPrefix + e.getMessage(), e);
+        }
+        return students;
+    }
+
+    private static void bind(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * Looks the student up through the cache. Every caller gets its own copy, so changing the returned
+     * object never changes what the next caller reads.
+     */
     public Student findStudentByRegNo(String regNo) throws RecordNotFoundException {
+        Student cached = CACHE.get(regNo);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+        long stamp = CACHE.stamp();
         try (Connection conn = DatabaseManager.getConnection()) {
-            return findStudentByRegNo(regNo, conn);
+            Student student = findStudentByRegNo(regNo, conn);
+            CACHE.putIfUnchanged(regNo, student, stamp);
+            return copyOf(student);
         } catch (SQLException e) {
             throw new RecordNotFoundException("Database error finding student by Reg No.: " + e.getMessage());
         }
     }
 
+    /**
+     * Reads the student on the caller's connection without touching the cache. The connection may be in
+     * the middle of a transaction, and its uncommitted rows must not reach other callers.
+     */
     public Student findStudentByRegNo(String regNo, Connection conn) throws RecordNotFoundException {
         String sql = "SELECT * FROM students WHERE reg_no = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -99,6 +268,7 @@ public class StudentService {
             pstmt.setString(1, newStatus.name());
             pstmt.setString(2, regNo);
             int affectedRows = pstmt.executeUpdate();
+            CACHE.invalidate(regNo);
             if (affectedRows == 0) {
                 throw new RecordNotFoundException("Student with Reg No. " + regNo + " not found.");
             }
@@ -119,6 +289,7 @@ public class StudentService {
             pstmt.setString(5, student.getPhone());
             pstmt.setString(6, student.getRegNo());
             int affectedRows = pstmt.executeUpdate();
+            CACHE.invalidate(student.getRegNo());
             if (affectedRows == 0) {
                 throw new RecordNotFoundException("Student with Reg No. " + student.getRegNo() + " not found.");
             }
@@ -135,6 +306,7 @@ public class StudentService {
             pstmt.setDouble(1, cgpa);
             pstmt.setString(2, regNo);
             int affectedRows = pstmt.executeUpdate();
+            CACHE.invalidate(regNo);
             if (affectedRows == 0) {
                 throw new RecordNotFoundException("Student with Reg No. " + regNo + " not found.");
             }
@@ -144,6 +316,15 @@ public class StudentService {
         }
     }
 
+    static Student copyOf(Student student) {
+        Student copy = new Student(student.getId(), student.getRegNo(), student.getFullName(), student.getEmail(),
+                student.getStatus(), student.getRegistrationDate(), student.getDob(), student.getPhone());
+        copy.setCgpa(student.getCgpa());
+        copy.setProbationCount(student.getProbationCount());
+        copy.setGradedCredits(student.getGradedCredits());
+        return copy;
+    }
+
     public Student mapRowToStudent(ResultSet rs) throws SQLException {
         int id = rs.getInt("id");
         String regNo = rs.getString("reg_no");
@@ -179,7 +360,7 @@ public class StudentService {
                 student.setGradedCredits(dbGradedCredits);
             }
         } catch (SQLException e) {
-            // graded_credits column might not exist yet during migration or individual select queries
+            // graded_credits column might not exist yet during migration
         }
         
         return student;
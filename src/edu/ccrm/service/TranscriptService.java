@@ -17,8 +17,12 @@ public class TranscriptService {
     }
 
     public String generateTranscript(String studentRegNo) throws RecordNotFoundException {
-        Student student = studentService.findStudentByRegNo(studentRegNo);
-        List<Enrollment> enrollments = enrollmentService.getEnrollmentsForStudent(studentRegNo);
+        List<Enrollment> enrollments = enrollmentService.loadEnrollments(List.of(studentRegNo))
+                .getOrDefault(studentRegNo, List.of());
+        // The hydrated enrollments already carry the student; only look it up when there are none
+        Student student = enrollments.isEmpty()
+                ? studentService.findStudentByRegNo(studentRegNo)
+                : enrollments.get(0).getStudent();
 
         StringBuilder transcript = new StringBuilder();
         transcript.append("Transcript for ").append(student.getFullName()).append("\n");
@@ -84,7 +88,7 @@ public class TranscriptService {
                 totalCredits += enrollment.getCourse().getCredits();
             }
         }
-        return totalCredits == 0 ? 0.0 : totalPoints / totalCredits;
+        return CgpaService.cgpa(totalPoints, totalCredits);
     }
 
     private static class SemesterTerm implements Comparable<SemesterTerm> {
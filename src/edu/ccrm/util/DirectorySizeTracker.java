@@ -0,0 +1,214 @@
+package edu.ccrm.util;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Keeps the size of a directory tree up to date without walking it on every query.
+ * The tree is walked once; after that a WatchService reports created, modified and deleted files, and each
+ * query only applies the events that arrived since the last one, re-reading the size of just those files.
+ * If events were lost (overflow) or the platform cannot watch the directory, the next query walks the tree
+ * again, as RecursiveUtil.calculateDirectorySize would.
+ */
+public class DirectorySizeTracker implements AutoCloseable {
+
+    private final Path root;
+    // Keyed by absolute path string, so everything under a directory is one contiguous range
+    private final TreeMap<String, Long> sizes = new TreeMap<>();
+    private final Map<WatchKey, Path> watched = new HashMap<>();
+    private WatchService watcher;
+    private boolean stale = true;
+    private long totalSize;
+
+    public DirectorySizeTracker(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * @return Total bytes in regular files under the root, or 0 if it does not exist.
+     */
+    public synchronized long getTotalSize() throws IOException {
+        update();
+        return totalSize;
+    }
+
+    public synchronized int getFileCount() throws IOException {
+        update();
+        return sizes.size();
+    }
+
+    /**
+     * @return Total bytes under one subdirectory (or the size of one file) of the root.
+     */
+    public synchronized long getSize(Path path) throws IOException {
+        update();
+        Path start = root.resolve(path).normalize();
+        Long file = sizes.get(start.toString());
+        long size = file != null ? file : 0;
+        for (long value : under(start).values()) {
+            size += value;
+        }
+        return size;
+    }
+
+    /**
+     * Forces the next query to walk the whole tree again.
+     */
+    public synchronized void invalidate() {
+        stale = true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+        watched.clear();
+    }
+
+    private void update() throws IOException {
+        if (!stale && watcher != null) {
+            stale = !applyEvents();
+        }
+        if (stale) {
+            rescan();
+        }
+    }
+
+    private void rescan() throws IOException {
+        close();
+        sizes.clear();
+        totalSize = 0;
+        if (!Files.isDirectory(root)) {
+            // Stays stale, so the directory is picked up once it exists
+            return;
+        }
+        try {
+            watcher = root.getFileSystem().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            watcher = null;
+        }
+        addTree(root);
+        stale = watcher == null;
+    }
+
+    /**
+     * @return False if the events cannot be trusted and the tree must be walked again.
+     */
+    private boolean applyEvents() throws IOException {
+        WatchKey key;
+        try {
+            key = watcher.poll();
+        } catch (ClosedWatchServiceException e) {
+            return false;
+        }
+        while (key != null) {
+            Path dir = watched.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                    return false;
+                }
+                Path path = dir.resolve((Path) event.context());
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    removeTree(path);
+                } else if (Files.isDirectory(path)) {
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                        addTree(path);
+                    }
+                } else {
+                    updateFile(path);
+                }
+            }
+            if (!key.reset()) {
+                watched.remove(key);
+                if (dir != null && dir.equals(root)) {
+                    return false;
+                }
+            }
+            key = watcher.poll();
+        }
+        return true;
+    }
+
+    // Files created in a new directory before it was registered are found by the walk itself
+    private void addTree(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (watcher != null) {
+                    watched.put(dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), dir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                put(file, attrs.size());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                System.err.println("Failed to access file: " + file + " - " + exc.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void updateFile(Path file) {
+        try {
+            put(file, Files.size(file));
+        } catch (IOException e) {
+            // Deleted again before we got to it; its delete event follows
+            remove(file);
+        }
+    }
+
+    private void removeTree(Path start) {
+        remove(start);
+        SortedMap<String, Long> children = under(start);
+        for (long value : children.values()) {
+            totalSize -= value;
+        }
+        children.clear();
+        watched.values().removeIf(dir -> dir.startsWith(start));
+    }
+
+    // Every key that starts with the directory and a separator; the next character up bounds the range
+    private SortedMap<String, Long> under(Path dir) {
+        String separator = dir.getFileSystem().getSeparator();
+        String prefix = dir + separator;
+        return sizes.subMap(prefix, dir + String.valueOf((char) (separator.charAt(0) + 1)));
+    }
+
+    private void put(Path file, long size) {
+        Long previous = sizes.put(file.toString(), size);
+        totalSize += size - (previous != null ? previous : 0);
+    }
+
+    private void remove(Path file) {
+        Long previous = sizes.remove(file.toString());
+        if (previous != null) {
+            totalSize -= previous;
+        }
+    }
+}
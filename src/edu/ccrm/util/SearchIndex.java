@@ -0,0 +1,246 @@
+package edu.ccrm.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An in-memory index for autocomplete over entries like "REG001 - Jane Doe".
+ * Every word of an entry goes into a prefix trie, and every three-character run of the whole entry into a
+ * trigram index. A lookup first walks the trie below the query, which returns entries with a word starting
+ * with it in word order, then fills up with substring matches: the entries holding all of the query's
+ * trigrams, checked against the full text. Both stop once enough results are found, so a lookup never
+ * scans the whole dictionary. Queries shorter than three characters only match word prefixes.
+ * Entries are added, replaced or removed one at a time; a replaced or removed entry stays in the postings
+ * as a dead id until enough of them build up to compact. Methods are synchronized: build the index on a
+ * background thread, then hand it over.
+ */
+public class SearchIndex {
+
+    private static final class Node {
+        char[] labels = new char[0];
+        Node[] children = new Node[0];
+        IntList ids;
+
+        Node child(char c, boolean create) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            if (!create) {
+                return null;
+            }
+            int at = -i - 1;
+            Node node = new Node();
+            labels = insert(labels, at, c);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = node;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+            return node;
+        }
+
+        private static char[] insert(char[] array, int at, char c) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, at);
+            grown[at] = c;
+            System.arraycopy(array, at, grown, at + 1, array.length - at);
+            return grown;
+        }
+    }
+
+    // Ids only grow, so every posting list is sorted
+    private static final class IntList {
+        int[] values = new int[2];
+        int size;
+
+        void add(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+
+    private final List<String> displays = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final Map<String, Integer> idsByKey = new HashMap<>();
+    private Node root = new Node();
+    private Map<Long, IntList> trigrams = new HashMap<>();
+    private int dead;
+
+    /**
+     * Adds an entry, replacing any entry with the same key.
+     * @param key Identifies the entry, such as a registration number or course code.
+     * @param display The text that is matched and returned.
+     */
+    public synchronized void put(String key, String display) {
+        Integer previous = idsByKey.get(key);
+        if (previous != null) {
+            if (display.equals(displays.get(previous))) {
+                return;
+            }
+            kill(previous);
+        }
+        int id = displays.size();
+        String text = display.toLowerCase(Locale.ROOT);
+        displays.add(display);
+        texts.add(text);
+        idsByKey.put(key, id);
+        index(id, text);
+        compactIfNeeded();
+    }
+
+    public synchronized boolean remove(String key) {
+        Integer id = idsByKey.remove(key);
+        if (id == null) {
+            return false;
+        }
+        kill(id);
+        compactIfNeeded();
+        return true;
+    }
+
+    public synchronized int size() {
+        return idsByKey.size();
+    }
+
+    /**
+     * @return Up to limit entries: those with a word starting with the query first, then those containing it.
+     */
+    public synchronized List<String> search(String query, int limit) {
+        String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        Set<Integer> found = new LinkedHashSet<>();
+        Node node = root;
+        for (int i = 0; i < needle.length() && node != null; i++) {
+            node = node.child(needle.charAt(i), false);
+        }
+        if (node != null) {
+            collect(node, found, limit);
+        }
+        if (found.size() < limit && needle.length() >= 3) {
+            containing(needle, found, limit);
+        }
+        List<String> results = new ArrayList<>(found.size());
+        for (int id : found) {
+            results.add(displays.get(id));
+        }
+        return results;
+    }
+
+    private void index(int id, String text) {
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                Node node = root;
+                for (int j = start; j < i; j++) {
+                    node = node.child(text.charAt(j), true);
+                }
+                if (node.ids == null) {
+                    node.ids = new IntList();
+                }
+                node.ids.add(id);
+                start = -1;
+            }
+        }
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.computeIfAbsent(trigram(text, i), k -> new IntList()).add(id);
+        }
+    }
+
+    private void kill(int id) {
+        displays.set(id, null);
+        texts.set(id, null);
+        dead++;
+    }
+
+    // Depth first in character order, so words come out alphabetically
+    private void collect(Node node, Set<Integer> found, int limit) {
+        if (node.ids != null) {
+            for (int i = 0; i < node.ids.size; i++) {
+                int id = node.ids.values[i];
+                if (displays.get(id) != null && found.add(id) && found.size() >= limit) {
+                    return;
+                }
+            }
+        }
+        for (Node child : node.children) {
+            if (found.size() >= limit) {
+                return;
+            }
+            collect(child, found, limit);
+        }
+    }
+
+    private void containing(String needle, Set<Integer> found, int limit) {
+        // Walk the rarest trigram's postings and probe the others
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= needle.length(); i++) {
+            IntList list = trigrams.get(trigram(needle, i));
+            if (list == null) {
+                return;
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        IntList rarest = lists.get(0);
+        for (int i = 0; i < rarest.size && found.size() < limit; i++) {
+            int id = rarest.values[i];
+            String text = texts.get(id);
+            if (text == null || found.contains(id)) {
+                continue;
+            }
+            boolean all = true;
+            for (int j = 1; j < lists.size() && all; j++) {
+                all = lists.get(j).contains(id);
+            }
+            // The trigrams can all occur without being adjacent
+            if (all && text.contains(needle)) {
+                found.add(id);
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (dead < 1024 || dead < idsByKey.size()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(idsByKey.keySet());
+        List<String> live = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            live.add(displays.get(idsByKey.get(key)));
+        }
+        displays.clear();
+        texts.clear();
+        idsByKey.clear();
+        root = new Node();
+        trigrams = new HashMap<>();
+        dead = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            put(keys.get(i), live.get(i));
+        }
+    }
+
+    private static long trigram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+}
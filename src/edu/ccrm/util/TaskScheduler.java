@@ -0,0 +1,315 @@
+package edu.ccrm.util;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs background work on a fixed pool of daemon threads instead of a new thread per task, so a burst of
+ * requests queues up rather than opening a connection each.
+ * A task may be submitted under a key naming what it loads (for example one view's table). A newer task
+ * with the same key cancels the older one, so only the latest result is applied. Cancelling interrupts the
+ * task and cancels any JDBC statement it registered with cancellable(), which stops the query on the
+ * server instead of waiting for it.
+ * Queue depth, counts and wait and run latencies are kept for getStats().
+ */
+public class TaskScheduler implements Executor, AutoCloseable {
+
+    private static final ThreadLocal<ScheduledTask> CURRENT = new ThreadLocal<>();
+
+    private final ThreadPoolExecutor pool;
+    private final Map<String, ScheduledTask> latest = new ConcurrentHashMap<>();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    public TaskScheduler(String name, int threads) {
+        int workers = Math.max(1, threads);
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs a task that no later task replaces.
+     */
+    @Override
+    public void execute(Runnable command) {
+        schedule(null, new FutureTask<Void>(command, null));
+    }
+
+    public <T> Future<T> submit(String key, Callable<T> work) {
+        return schedule(key, new FutureTask<>(work));
+    }
+
+    /**
+     * Queues a task, cancelling the task queued or running under the same key.
+     * @param key What the task loads, or null if it replaces nothing.
+     * @param task The task itself, so cancelling it (a JavaFX Task, for one) updates its own state.
+     * @return The task.
+     */
+    public <F extends RunnableFuture<?>> F schedule(String key, F task) {
+        ScheduledTask scheduled = new ScheduledTask(key, task);
+        if (key != null) {
+            ScheduledTask previous = latest.put(key, scheduled);
+            if (previous != null) {
+                previous.cancel();
+            }
+        }
+        submitted.increment();
+        pool.execute(scheduled);
+        return task;
+    }
+
+    /**
+     * Cancels the task queued or running under the key, if any.
+     * @return True if a task was cancelled.
+     */
+    public boolean cancel(String key) {
+        ScheduledTask scheduled = latest.remove(key);
+        return scheduled != null && scheduled.cancel();
+    }
+
+    /**
+     * Registers a statement with the task running on this thread, so cancelling the task cancels the
+     * statement too. Outside a scheduled task the statement is returned unchanged.
+     * @throws SQLException if the task has already been cancelled; the statement is closed.
+     */
+    public static <S extends Statement> S cancellable(S statement) throws SQLException {
+        ScheduledTask current = CURRENT.get();
+        if (current != null) {
+            current.register(statement);
+        }
+        return statement;
+    }
+
+    /**
+     * @return True if the task running on this thread has been cancelled.
+     */
+    public static boolean isCancelled() {
+        ScheduledTask current = CURRENT.get();
+        return current != null && current.cancelled;
+    }
+
+    public int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    public Stats getStats() {
+        long runs = started.sum();
+        long finished = completed.sum() + failed.sum();
+        return new Stats(getQueueDepth(), getActiveCount(), submitted.sum(), completed.sum(), cancelled.sum(), failed.sum(),
+                runs > 0 ? totalWaitNanos.sum() / runs : 0, maxWaitNanos.get(),
+                finished > 0 ? totalRunNanos.sum() / finished : 0, maxRunNanos.get());
+    }
+
+    /**
+     * Cancels everything queued or running and stops the workers.
+     */
+    @Override
+    public void close() {
+        for (ScheduledTask scheduled : latest.values()) {
+            scheduled.cancel();
+        }
+        latest.clear();
+        pool.shutdownNow();
+    }
+
+    /**
+     * A snapshot of the scheduler's counters. Latencies are in nanoseconds: wait is from submission until a
+     * worker picks the task up, run is the time a finished task spent running.
+     */
+    public static final class Stats {
+        private final int queueDepth;
+        private final int active;
+        private final long submitted;
+        private final long completed;
+        private final long cancelled;
+        private final long failed;
+        private final long averageWaitNanos;
+        private final long maxWaitNanos;
+        private final long averageRunNanos;
+        private final long maxRunNanos;
+
+        Stats(int queueDepth, int active, long submitted, long completed, long cancelled, long failed,
+              long averageWaitNanos, long maxWaitNanos, long averageRunNanos, long maxRunNanos) {
+            this.queueDepth = queueDepth;
+            this.active = active;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.cancelled = cancelled;
+            this.failed = failed;
+            this.averageWaitNanos = averageWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.averageRunNanos = averageRunNanos;
+            this.maxRunNanos = maxRunNanos;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getCancelled() {
+            return cancelled;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getAverageWaitNanos() {
+            return averageWaitNanos;
+        }
+
+        public long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+
+        public long getAverageRunNanos() {
+            return averageRunNanos;
+        }
+
+        public long getMaxRunNanos() {
+            return maxRunNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("queued=%d active=%d submitted=%d completed=%d cancelled=%d failed=%d "
+                    + "wait avg=%.1fms max=%.1fms run avg=%.1fms max=%.1fms",
+                    queueDepth, active, submitted, completed, cancelled, failed,
+                    averageWaitNanos / 1e6, maxWaitNanos / 1e6, averageRunNanos / 1e6, maxRunNanos / 1e6);
+        }
+    }
+
+    private final class ScheduledTask implements Runnable {
+        final String key;
+        final RunnableFuture<?> task;
+        final long queuedAt = System.nanoTime();
+        // Statements the task has opened; guarded by this
+        private final List<Statement> statements = new ArrayList<>();
+        volatile boolean cancelled;
+
+        ScheduledTask(String key, RunnableFuture<?> task) {
+            this.key = key;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long startedAt = System.nanoTime();
+            try {
+                if (task.isDone()) {
+                    // Cancelled while it was queued
+                    return;
+                }
+                long wait = startedAt - queuedAt;
+                started.increment();
+                totalWaitNanos.add(wait);
+                maxWaitNanos.accumulateAndGet(wait, Math::max);
+                CURRENT.set(this);
+                try {
+                    task.run();
+                } finally {
+                    CURRENT.remove();
+                    synchronized (this) {
+                        statements.clear();
+                    }
+                }
+                if (!task.isCancelled()) {
+                    long run = System.nanoTime() - startedAt;
+                    totalRunNanos.add(run);
+                    maxRunNanos.accumulateAndGet(run, Math::max);
+                    try {
+                        task.get();
+                        completed.increment();
+                    } catch (ExecutionException e) {
+                        failed.increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            } finally {
+                if (key != null) {
+                    latest.remove(key, this);
+                }
+            }
+        }
+
+        boolean cancel() {
+            boolean wasCancelled;
+            List<Statement> running;
+            synchronized (this) {
+                cancelled = true;
+                running = new ArrayList<>(statements);
+            }
+            wasCancelled = task.cancel(true);
+            if (wasCancelled) {
+                TaskScheduler.this.cancelled.increment();
+            }
+            for (Statement statement : running) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    // Already finished or closed
+                }
+            }
+            return wasCancelled;
+        }
+
+        synchronized void register(Statement statement) throws SQLException {
+            if (cancelled) {
+                statement.close();
+                throw new SQLException("Task was cancelled");
+            }
+            statements.removeIf(registered -> {
+                try {
+                    return registered.isClosed();
+                } catch (SQLException e) {
+                    return true;
+                }
+            });
+            statements.add(statement);
+        }
+    }
+}